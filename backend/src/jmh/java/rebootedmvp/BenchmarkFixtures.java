@@ -0,0 +1,74 @@
+package rebootedmvp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rebootedmvp.domain.impl.ContentEntityImpl;
+import rebootedmvp.domain.impl.CourseEntityImpl;
+import rebootedmvp.domain.impl.ModuleEntityImpl;
+import rebootedmvp.domain.impl.UserProfileImpl;
+
+/**
+ * Builds detached entity graphs of a given size for the benchmarks. Ids are
+ * assigned sequentially, so the fixtures are identical on every run.
+ */
+public final class BenchmarkFixtures {
+
+    private static final String BODY = "Variables hold values that a program can read and change while it runs. "
+            + "Each variable has a name, a type and a scope.";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Returns a course with 'modules' modules of 'contentPerModule' content items,
+     * 'students' students and 'teachers' teachers
+     */
+    public static CourseEntityImpl course(long id, int modules, int contentPerModule, int students, int teachers) {
+        CourseEntityImpl course = new CourseEntityImpl("Course " + id, BODY);
+        course.setId(id);
+        for (int i = 0; i < modules; i++) {
+            course.addSub(module(id * 100_000 + i, course, contentPerModule));
+        }
+        for (int i = 0; i < students; i++) {
+            course.addStudent(user("student" + id + "_" + i, User.UserType.EmployeeUser));
+        }
+        for (int i = 0; i < teachers; i++) {
+            course.addTeacher(user("teacher" + id + "_" + i, User.UserType.LDUser));
+        }
+        return course;
+    }
+
+    public static ModuleEntityImpl module(long id, Course course, int contentItems) {
+        ModuleEntityImpl module = new ModuleEntityImpl("Module " + id, BODY, course);
+        module.setId(id);
+        for (Content content : contents(module, contentItems)) {
+            module.addSub(content);
+        }
+        return module;
+    }
+
+    /**
+     * Returns 'count' content items for 'module', alternating text and question
+     * content
+     */
+    public static List<Content> contents(Module module, int count) {
+        List<Content> contents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ContentEntityImpl content;
+            if (i % 2 == 0) {
+                content = new ContentEntityImpl("Text " + i, BODY, module, Content.ContentType.Text);
+            } else {
+                content = new ContentEntityImpl("Question " + i, "Which of these is a variable?",
+                        List.of("x = 1", "print", "if", "return"), "x = 1", module);
+            }
+            content.setId(module.getId() * 1000 + i);
+            contents.add(content);
+        }
+        return contents;
+    }
+
+    public static UserProfileImpl user(String username, User.UserType userType) {
+        return new UserProfileImpl(username, "sb-" + username, userType, username + "@example.com");
+    }
+}
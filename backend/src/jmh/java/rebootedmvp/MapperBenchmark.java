@@ -0,0 +1,66 @@
+package rebootedmvp;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rebootedmvp.domain.impl.ContentEntityImpl;
+import rebootedmvp.domain.impl.CourseEntityImpl;
+import rebootedmvp.domain.impl.ModuleEntityImpl;
+
+/**
+ * Entity -> domain -> entity round trips through the mappers, as done by every
+ * service update
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private CourseEntityImpl course;
+    private ModuleEntityImpl module;
+    private ContentEntityImpl text;
+    private ContentEntityImpl question;
+
+    @Setup
+    public void setUp() {
+        course = BenchmarkFixtures.course(1, 20, 10, 200, 5);
+        module = BenchmarkFixtures.module(2, course, 20);
+        List<Content> contents = BenchmarkFixtures.contents(module, 2);
+        text = (ContentEntityImpl) contents.get(0);
+        question = (ContentEntityImpl) contents.get(1);
+    }
+
+    @Benchmark
+    public CourseEntityImpl courseRoundTrip() {
+        return CourseMapper.toEntity(CourseMapper.toDomain(course));
+    }
+
+    @Benchmark
+    public ModuleEntityImpl moduleRoundTrip() {
+        return ModuleMapper.toEntity(ModuleMapper.toDomain(module));
+    }
+
+    @Benchmark
+    public ContentEntityImpl textContentRoundTrip() {
+        return ContentMapper.toEntity(ContentMapper.toDomain(text));
+    }
+
+    @Benchmark
+    public ContentEntityImpl questionContentRoundTrip() {
+        return ContentMapper.toEntity(ContentMapper.toDomain(question));
+    }
+}
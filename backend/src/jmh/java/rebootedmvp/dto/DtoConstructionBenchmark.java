@@ -0,0 +1,79 @@
+package rebootedmvp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rebootedmvp.BenchmarkFixtures;
+import rebootedmvp.Course;
+import rebootedmvp.Module;
+import rebootedmvp.domain.impl.CourseEntityImpl;
+
+/**
+ * CourseDTO and ModuleDTO construction for list endpoints, and for a single
+ * course whose module and membership collections are large
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoConstructionBenchmark {
+
+    @Param({ "100", "10000" })
+    private int size;
+
+    private List<Course> courses;
+    private List<Module> modules;
+    private Course largeCourse;
+
+    @Setup
+    public void setUp() {
+        courses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            courses.add(BenchmarkFixtures.course(i, 10, 0, 30, 2));
+        }
+        CourseEntityImpl course = BenchmarkFixtures.course(size + 1L, 0, 0, 0, 0);
+        modules = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            modules.add(BenchmarkFixtures.module(i, course, 10));
+        }
+        largeCourse = BenchmarkFixtures.course(size + 2L, size, 0, size, size / 20);
+    }
+
+    @Benchmark
+    public List<CourseDTO> courseDTOs() {
+        List<CourseDTO> result = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            result.add(new CourseDTO(course));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ModuleDTO> moduleDTOs() {
+        List<ModuleDTO> result = new ArrayList<>(modules.size());
+        for (Module module : modules) {
+            result.add(new ModuleDTO(module));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public CourseDTO largeCourseDTO() {
+        return new CourseDTO(largeCourse);
+    }
+}
@@ -0,0 +1,111 @@
+package rebootedmvp.dto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import rebootedmvp.User;
+
+/**
+ * Encodes and decodes DTO lists in each wire format offered by the API (see
+ * WireFormatConfig). Content lists are decoded generically, as a client
+ * without the Java classes would; course users are decoded into their DTO.
+ * The encoded size of each list is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private static final TypeReference<List<Map<String, Object>>> MAPS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<CourseUserDTO>> COURSE_USERS = new TypeReference<>() {
+    };
+
+    @Param({ "json", "cbor", "smile" })
+    private String format;
+
+    @Param({ "100", "10000" })
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<ContentDTO> contents;
+    private List<CourseUserDTO> courseUsers;
+    private byte[] encodedContents;
+    private byte[] encodedCourseUsers;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory());
+            case "smile" -> builder.factory(new SmileFactory());
+            default -> {
+            }
+        }
+        mapper = builder.build();
+
+        contents = new ArrayList<>(size);
+        courseUsers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long moduleId = i / 20;
+            if (i % 2 == 0) {
+                contents.add(new TextContentDTO((long) i, "Text " + i,
+                        "Variables hold values that a program can read and change while it runs.", false,
+                        moduleId));
+            } else {
+                contents.add(new QuestionContentDTO((long) i, "Question " + i, "Which of these is a variable?",
+                        i % 3 == 0, moduleId, List.of("x = 1", "print", "if", "return"), "x = 1"));
+            }
+            courseUsers.add(new CourseUserDTO((long) (i % 50), "7d2f7a9e-0000-4000-8000-" + String.format("%012d", i),
+                    i % 10 == 0 ? User.UserType.LDUser : User.UserType.EmployeeUser, "user" + i));
+        }
+        encodedContents = mapper.writeValueAsBytes(contents);
+        encodedCourseUsers = mapper.writeValueAsBytes(courseUsers);
+        System.out.printf("%n%s size=%d: contents %d bytes, course users %d bytes%n", format, size,
+                encodedContents.length, encodedCourseUsers.length);
+    }
+
+    @Benchmark
+    public byte[] encodeContents() throws IOException {
+        return mapper.writeValueAsBytes(contents);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> decodeContents() throws IOException {
+        return mapper.readValue(encodedContents, MAPS);
+    }
+
+    @Benchmark
+    public byte[] encodeCourseUsers() throws IOException {
+        return mapper.writeValueAsBytes(courseUsers);
+    }
+
+    @Benchmark
+    public List<CourseUserDTO> decodeCourseUsers() throws IOException {
+        return mapper.readValue(encodedCourseUsers, COURSE_USERS);
+    }
+}
@@ -0,0 +1,85 @@
+package rebootedmvp.instrumentation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of the method.calls timers. Compares a direct call, a call through a
+ * pass-through Spring AOP proxy (what every @Transactional service already
+ * pays) and a call through a proxy that records into MethodTimer. The
+ * difference between the last two is the overhead of the instrumentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodTimerBenchmark {
+
+    public interface Catalog {
+        long lookup(long id);
+    }
+
+    public static class CatalogImpl implements Catalog {
+        @Override
+        public long lookup(long id) {
+            return Long.rotateLeft(id * 0x9E3779B97F4A7C15L, 17);
+        }
+    }
+
+    @Param({ "true", "false" })
+    private boolean percentileHistogram;
+
+    private Catalog direct;
+    private Catalog proxied;
+    private Catalog timed;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        direct = new CatalogImpl();
+        proxied = proxy((MethodInterceptor) invocation -> invocation.proceed());
+
+        MethodTimer methodTimer = new MethodTimer(new SimpleMeterRegistry(), percentileHistogram);
+        timed = proxy((MethodInterceptor) invocation -> methodTimer.time("service", CatalogImpl.class,
+                invocation.getMethod(), invocation::proceed));
+    }
+
+    private static Catalog proxy(MethodInterceptor interceptor) {
+        ProxyFactory factory = new ProxyFactory(new CatalogImpl());
+        factory.addInterface(Catalog.class);
+        factory.addAdvice(interceptor);
+        return (Catalog) factory.getProxy();
+    }
+
+    @Benchmark
+    public long direct() {
+        return direct.lookup(id++);
+    }
+
+    @Benchmark
+    public long proxied() {
+        return proxied.lookup(id++);
+    }
+
+    @Benchmark
+    public long timed() {
+        return timed.lookup(id++);
+    }
+}
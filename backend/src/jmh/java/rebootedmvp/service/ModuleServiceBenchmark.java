@@ -0,0 +1,56 @@
+package rebootedmvp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rebootedmvp.BenchmarkFixtures;
+import rebootedmvp.Content;
+import rebootedmvp.domain.impl.CourseEntityImpl;
+import rebootedmvp.domain.impl.ModuleEntityImpl;
+import rebootedmvp.dto.ContentDTO;
+
+/**
+ * ModuleService.convertToDTO over a module's content list
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleServiceBenchmark {
+
+    @Param({ "10", "1000" })
+    private int contentItems;
+
+    private List<Content> contents;
+
+    @Setup
+    public void setUp() {
+        CourseEntityImpl course = BenchmarkFixtures.course(1, 0, 0, 0, 0);
+        ModuleEntityImpl module = BenchmarkFixtures.module(1, course, 0);
+        contents = BenchmarkFixtures.contents(module, contentItems);
+    }
+
+    @Benchmark
+    public List<ContentDTO> convertToDTO() {
+        List<ContentDTO> result = new ArrayList<>(contents.size());
+        for (Content content : contents) {
+            result.add(ModuleService.convertToDTO(content));
+        }
+        return result;
+    }
+}
@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.SQLRestriction;
+
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -11,6 +13,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.JoinColumn;
@@ -18,7 +21,10 @@ import jakarta.persistence.Table;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED) // or JOINED, TABLE_PER_CLASS
-@Table(name = "contents")
+@Table(name = "contents", indexes = @Index(name = "idx_contents_module_id", columnList = "module_id"))
+// Hidden as soon as their module's course is soft-deleted
+@SQLRestriction("module_id NOT IN (SELECT dm.id FROM modules dm JOIN courses dc ON dc.id = dm.course_id"
+        + " WHERE dc.deleted_at IS NOT NULL)")
 public abstract class Content implements HasID {
 
     @Column(nullable = false)
@@ -52,7 +58,8 @@ public abstract class Content implements HasID {
     protected String questionText;
 
     @ElementCollection
-    @CollectionTable(name = "content_options", joinColumns = @JoinColumn(name = "content_id"))
+    @CollectionTable(name = "content_options", joinColumns = @JoinColumn(name = "content_id"),
+            indexes = @Index(name = "idx_content_options_content_id", columnList = "content_id"))
     @Column(name = "option_text")
     protected List<String> optionText = new ArrayList<>();
 
@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.hibernate.annotations.SQLRestriction;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorColumn;
@@ -33,6 +35,8 @@ import rebootedmvp.domain.impl.UserProfileImpl;
 // @DiscriminatorColumn(name = "course_type", discriminatorType =
 // DiscriminatorType.STRING)
 @Table(name = "courses")
+// Soft-deleted courses are invisible to every query until CoursePurger removes them
+@SQLRestriction("deleted_at IS NULL")
 public abstract class Course implements InfoContainer<Module> {
 
     @Id
@@ -51,6 +55,11 @@ public abstract class Course implements InfoContainer<Module> {
     @Column(name = "updated_at")
     protected LocalDateTime updatedAt;
 
+    // Only set by CourseRepository.softDelete, so saving a stale copy cannot
+    // bring a deleted course back
+    @Column(name = "deleted_at", insertable = false, updatable = false)
+    protected LocalDateTime deletedAt;
+
     // One-to-Many relationship with ModuleEntityImpl
     // @OneToMany(mappedBy = "course", cascade = CascadeType.ALL, orphanRemoval =
     // true, fetch = FetchType.LAZY)
@@ -59,7 +68,9 @@ public abstract class Course implements InfoContainer<Module> {
     // instead of Map<Long,Module>:
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @MapKey(name = "id") // ← use the Module’s `@Id`
-    @JoinColumn(name = "course_id") // ← foreign key in MODULE table
+    // Written through Module.courseId only, so deleting a course deletes its
+    // modules instead of first setting their course_id to null
+    @JoinColumn(name = "course_id", insertable = false, updatable = false)
     protected Map<Long, Module> modules = new HashMap<>();
 
     // Many-to-Many relationship for teachers
@@ -17,6 +17,10 @@ public class CourseMapper {
         entity.setBody(domain.getBody());
         entity.setTeachers(domain.getTeachers());
         entity.setStudents(domain.getStudents());
+        // Without its modules the saved course would orphan them
+        for (Module module : domain.getAll()) {
+            entity.addSub(module);
+        }
         return entity;
     }
 }
\ No newline at end of file
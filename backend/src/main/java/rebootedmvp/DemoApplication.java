@@ -3,8 +3,13 @@ package rebootedmvp;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+// R2DBC is only used by the reactive read API, which creates its own pool
+// (see ReactiveReadConfig). An auto-configured one would also register a
+// second transaction manager next to JPA's.
+@SpringBootApplication(exclude = { R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class })
 @EntityScan(basePackages = { "rebootedmvp" })
 
 public class DemoApplication {
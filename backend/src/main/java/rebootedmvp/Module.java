@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.hibernate.annotations.SQLRestriction;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorColumn;
@@ -11,6 +13,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Inheritance;
 import jakarta.persistence.InheritanceType;
 import jakarta.persistence.JoinColumn;
@@ -20,7 +23,9 @@ import jakarta.persistence.Table;
 
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED) // or JOINED, TABLE_PER_CLASS
-@Table(name = "modules")
+@Table(name = "modules", indexes = @Index(name = "idx_modules_course_id", columnList = "course_id"))
+// Hidden as soon as their course is soft-deleted
+@SQLRestriction("course_id NOT IN (SELECT dc.id FROM courses dc WHERE dc.deleted_at IS NOT NULL)")
 public abstract class Module implements InfoContainer<Content> {
 
     @Id
@@ -49,7 +54,9 @@ public abstract class Module implements InfoContainer<Content> {
     // @OneToMany
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @MapKey(name = "id") // ← use the Module’s `@Id`
-    @JoinColumn(name = "module_id") // ← foreign key in MODULE table
+    // Written through Content.moduleId only, so deleting a module deletes its
+    // content instead of first setting their module_id to null
+    @JoinColumn(name = "module_id", insertable = false, updatable = false)
     protected Map<Long, Content> contentItems = new HashMap<>();
 
     /**
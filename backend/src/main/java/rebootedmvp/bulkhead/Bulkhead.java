@@ -0,0 +1,128 @@
+package rebootedmvp.bulkhead;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Admission control for one workload. At most 'maxConcurrent' calls run at a
+ * time and at most 'maxQueued' wait for a permit, each for up to
+ * 'maxWaitMillis'. While 'shed' reports that interactive latency is degraded,
+ * new work is deferred instead of started and is rejected if the degradation
+ * outlasts its wait.
+ *
+ * Published as bulkhead.active and bulkhead.queue.depth (gauges),
+ * bulkhead.wait (timer) and bulkhead.rejected (counter, tagged with reason
+ * full, timeout or shed), all tagged with the workload.
+ */
+public class Bulkhead {
+
+    // How often deferred work re-checks whether interactive latency recovered
+    private static final long DEFER_POLL_MILLIS = 100;
+
+    private final Workload workload;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+    private final BooleanSupplier shed;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejectedFull;
+    private final Counter rejectedTimeout;
+    private final Counter rejectedShed;
+
+    public Bulkhead(Workload workload, int maxConcurrent, int maxQueued, long maxWaitMillis, BooleanSupplier shed,
+            MeterRegistry meterRegistry) {
+        this.workload = workload;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.shed = shed;
+        this.permits = new Semaphore(maxConcurrent, true);
+
+        String tag = workload.tag();
+        Gauge.builder("bulkhead.active", this, Bulkhead::getActive).tag("workload", tag)
+                .description("Calls currently holding a permit").register(meterRegistry);
+        Gauge.builder("bulkhead.queue.depth", queued, AtomicInteger::get).tag("workload", tag)
+                .description("Calls waiting for a permit or deferred by shedding").register(meterRegistry);
+        this.waitTimer = Timer.builder("bulkhead.wait").tag("workload", tag)
+                .description("Time spent waiting for admission").register(meterRegistry);
+        this.rejectedFull = rejected(meterRegistry, tag, "full");
+        this.rejectedTimeout = rejected(meterRegistry, tag, "timeout");
+        this.rejectedShed = rejected(meterRegistry, tag, "shed");
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String workload, String reason) {
+        return Counter.builder("bulkhead.rejected").tag("workload", workload).tag("reason", reason)
+                .description("Calls rejected by the bulkhead").register(meterRegistry);
+    }
+
+    /**
+     * Blocks until a permit is available, which the caller must give back with
+     * release(). Throws: BulkheadFullException if the queue is full, no permit
+     * frees up within 'maxWaitMillis', or interactive latency stays degraded
+     * for that long.
+     */
+    public void acquire() {
+        if (!shed.getAsBoolean() && permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedFull.increment();
+            throw reject("queue full");
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        try {
+            while (shed.getAsBoolean()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejectedShed.increment();
+                    throw reject("shed while interactive latency is degraded");
+                }
+                Thread.sleep(Math.min(DEFER_POLL_MILLIS, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            }
+            if (!permits.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                rejectedTimeout.increment();
+                throw reject("no permit within " + maxWaitMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedTimeout.increment();
+            throw reject("interrupted while waiting");
+        } finally {
+            queued.decrementAndGet();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public Workload getWorkload() {
+        return workload;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private BulkheadFullException reject(String why) {
+        return new BulkheadFullException(workload.tag() + " work rejected: " + why,
+                Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis + 999)));
+    }
+}
@@ -0,0 +1,26 @@
+package rebootedmvp.bulkhead;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The bulkhead of each workload
+ */
+public class Bulkheads {
+
+    private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+    public Bulkheads(Bulkhead... bulkheads) {
+        for (Bulkhead bulkhead : bulkheads) {
+            this.bulkheads.put(bulkhead.getWorkload(), bulkhead);
+        }
+    }
+
+    public Bulkhead get(Workload workload) {
+        Bulkhead bulkhead = bulkheads.get(workload);
+        if (bulkhead == null) {
+            throw new IllegalArgumentException("No bulkhead for workload " + workload);
+        }
+        return bulkhead;
+    }
+}
@@ -0,0 +1,93 @@
+package rebootedmvp.bulkhead;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Tracks the p99 latency of interactive requests over a rolling window and
+ * reports interactive work as degraded while it is above 'thresholdMillis'.
+ * The state is re-evaluated once a second on a background thread and only
+ * recovers once p99 drops below RECOVER_RATIO of the threshold, so bulk work
+ * is not switched on and off by every sample.
+ *
+ * Published as workload.interactive.latency (timer with its p99) and
+ * workload.interactive.degraded (0 or 1).
+ */
+public class InteractiveLatencyMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(InteractiveLatencyMonitor.class);
+
+    private static final double RECOVER_RATIO = 0.8;
+    private static final long CHECK_INTERVAL_MILLIS = 1000;
+
+    private final Timer latency;
+    private final double thresholdMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "interactive-latency-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean degraded;
+    private volatile double p99Millis;
+
+    public InteractiveLatencyMonitor(long thresholdMillis, Duration window, MeterRegistry meterRegistry) {
+        this.thresholdMillis = thresholdMillis;
+        this.latency = Timer.builder("workload.interactive.latency")
+                .description("Latency of requests that are not classified as bulk or export work")
+                .publishPercentiles(0.99)
+                .distributionStatisticExpiry(window)
+                .distributionStatisticBufferLength(3)
+                .register(meterRegistry);
+        Gauge.builder("workload.interactive.degraded", this, monitor -> monitor.degraded ? 1 : 0)
+                .description("Whether bulk and export work is being deferred").register(meterRegistry);
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void record(long nanos) {
+        latency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void check() {
+        double p99 = 0;
+        for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+            p99 = value.value(TimeUnit.MILLISECONDS);
+        }
+        p99Millis = p99;
+        if (!degraded && p99 > thresholdMillis) {
+            degraded = true;
+            logger.warn("Interactive p99 {} ms exceeds {} ms, deferring bulk and export work",
+                    Math.round(p99), Math.round(thresholdMillis));
+        } else if (degraded && p99 < thresholdMillis * RECOVER_RATIO) {
+            degraded = false;
+            logger.info("Interactive p99 recovered to {} ms, resuming bulk and export work", Math.round(p99));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package rebootedmvp.bulkhead;
+
+/**
+ * The classes of work that are isolated from interactive requests. Anything
+ * not classified is interactive and runs without admission control.
+ *
+ * BULK - multi-row writes such as batches and bulk enrollment
+ * EXPORT - long-running NDJSON and file downloads
+ */
+public enum Workload {
+
+    BULK, EXPORT;
+
+    /**
+     * Returns the lower-case name used in metric tags and pool names
+     */
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,42 @@
+package rebootedmvp.bulkhead;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Admits calls to service methods annotated with WorkloadClass through their
+ * workload's bulkhead and runs them in that workload's context, so their
+ * connections come from its pool. Calls made inside already classified work
+ * (an annotated endpoint or an outer annotated method) are not admitted
+ * again. Ordered before the transaction interceptor, so the transaction's
+ * connection is taken after the workload is set.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+public class WorkloadAspect {
+
+    private final Bulkheads bulkheads;
+
+    public WorkloadAspect(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Around("@annotation(workloadClass) && within(rebootedmvp.service..*)")
+    public Object admit(ProceedingJoinPoint joinPoint, WorkloadClass workloadClass) throws Throwable {
+        if (WorkloadContext.current() != null) {
+            return joinPoint.proceed();
+        }
+        Bulkhead bulkhead = bulkheads.get(workloadClass.value());
+        bulkhead.acquire();
+        WorkloadContext.set(workloadClass.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.clear();
+            bulkhead.release();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package rebootedmvp.bulkhead;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Classifies a controller method or service method as non-interactive work.
+ * On a controller method the request is admitted by WorkloadInterceptor
+ * before the body is read; on a service method WorkloadAspect admits the call
+ * unless it already runs inside classified work.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface WorkloadClass {
+
+    Workload value();
+}
@@ -0,0 +1,25 @@
+package rebootedmvp.bulkhead;
+
+/**
+ * Holds the workload the current thread is running, so connections can be
+ * taken from that workload's pool. Null means interactive.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        return CURRENT.get();
+    }
+
+    public static void set(Workload workload) {
+        CURRENT.set(workload);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
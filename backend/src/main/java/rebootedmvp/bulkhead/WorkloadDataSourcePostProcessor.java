@@ -0,0 +1,93 @@
+package rebootedmvp.bulkhead;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToIntFunction;
+
+import javax.sql.DataSource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.replica.ReplicaRoutingDataSource;
+
+/**
+ * Gives each workload its own Hikari pools, so bulk and export work cannot
+ * take the connections interactive requests need (see WorkloadPools).
+ *
+ * A plain Hikari DataSource is proxied so getConnection() is split by
+ * workload. With replica routing, the split is applied to the primary and
+ * replica pools behind the routing instead, so workload connections still
+ * follow read-only routing, stickiness and the lag fallback. Workload pools
+ * on the primary are named after the workload (e.g. hikaricp metrics tagged
+ * pool=bulk), those on the replica get a "-replica" suffix.
+ *
+ * Runs before SqlTrackingDataSourcePostProcessor, so statements on the
+ * workload pools are tracked as well.
+ */
+public class WorkloadDataSourcePostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadDataSourcePostProcessor.class);
+
+    private final ToIntFunction<Workload> poolSize;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final List<WorkloadPools> opened = new CopyOnWriteArrayList<>();
+
+    public WorkloadDataSourcePostProcessor(ToIntFunction<Workload> poolSize,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.poolSize = poolSize;
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof ReplicaRoutingDataSource routing) {
+            routing.wrapPools(primary -> split(primary, ""), replica -> split(replica, "-replica"));
+            return bean;
+        }
+        if (!(bean instanceof HikariDataSource hikari)) {
+            if (bean instanceof DataSource) {
+                logger.info("DataSource '{}' is not a Hikari pool, workloads share its connections", beanName);
+            }
+            return bean;
+        }
+        WorkloadPools pools = split(hikari, "");
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            if (invocation.getMethod().getName().equals("getConnection")
+                    && invocation.getArguments().length == 0) {
+                return pools.getConnection();
+            }
+            return invocation.proceed();
+        });
+        return factory.getProxy();
+    }
+
+    private WorkloadPools split(HikariDataSource pool, String nameSuffix) {
+        WorkloadPools pools = new WorkloadPools(pool, nameSuffix, poolSize,
+                () -> new MicrometerMetricsTrackerFactory(meterRegistryProvider.getObject()));
+        opened.add(pools);
+        return pools;
+    }
+
+    @Override
+    public void destroy() {
+        opened.forEach(WorkloadPools::close);
+    }
+}
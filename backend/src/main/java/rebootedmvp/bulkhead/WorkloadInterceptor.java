@@ -0,0 +1,139 @@
+package rebootedmvp.bulkhead;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admits requests to handlers annotated with WorkloadClass through their
+ * workload's bulkhead and answers 503 with Retry-After when rejected, before
+ * the request body is read. The permit is held until the response is
+ * complete, including the async part of a streamed export. Requests to
+ * other handlers are interactive and their latency is reported to the
+ * InteractiveLatencyMonitor.
+ */
+public class WorkloadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = WorkloadInterceptor.class.getName() + ".permit";
+    private static final String START = WorkloadInterceptor.class.getName() + ".start";
+
+    private final Bulkheads bulkheads;
+    private final InteractiveLatencyMonitor latencyMonitor;
+
+    public WorkloadInterceptor(Bulkheads bulkheads, InteractiveLatencyMonitor latencyMonitor) {
+        this.bulkheads = bulkheads;
+        this.latencyMonitor = latencyMonitor;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Admitted on the initial dispatch
+            return true;
+        }
+        Workload workload = workload(handler);
+        if (workload == null) {
+            request.setAttribute(START, System.nanoTime());
+            return true;
+        }
+        Bulkhead bulkhead = bulkheads.get(workload);
+        try {
+            bulkhead.acquire();
+        } catch (BulkheadFullException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getReason());
+            return false;
+        }
+        request.setAttribute(PERMIT, new Permit(bulkhead));
+        WorkloadContext.set(workload);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        WorkloadContext.clear();
+        // Long-lived interactive responses such as event streams are not latency samples
+        request.removeAttribute(START);
+        Permit permit = (Permit) request.getAttribute(PERMIT);
+        if (permit != null) {
+            // Released when the async response completes, also after a timeout or error
+            request.getAsyncContext().addListener(permit);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        WorkloadContext.clear();
+        Permit permit = (Permit) request.getAttribute(PERMIT);
+        if (permit != null) {
+            permit.release();
+            return;
+        }
+        Object start = request.getAttribute(START);
+        if (start != null && !request.isAsyncStarted()) {
+            latencyMonitor.record(System.nanoTime() - (Long) start);
+        }
+    }
+
+    private static Workload workload(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return null;
+        }
+        WorkloadClass annotation = method.getMethodAnnotation(WorkloadClass.class);
+        if (annotation == null) {
+            annotation = method.getBeanType().getAnnotation(WorkloadClass.class);
+        }
+        return annotation != null ? annotation.value() : null;
+    }
+
+    /**
+     * A held permit that is released exactly once, however the request ends
+     */
+    private static class Permit implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        // Timeouts and errors end in onComplete as well, once the response is done
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package rebootedmvp.bulkhead;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+
+/**
+ * One database's connections split by workload: getConnection() is served
+ * from the base pool for interactive work and from a pool per workload while
+ * the thread runs in a WorkloadContext. Workload pools copy the base pool's
+ * settings except for their size, are named after the workload plus
+ * 'nameSuffix' and are only opened on first use.
+ */
+public class WorkloadPools extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadPools.class);
+
+    private final HikariDataSource base;
+    private final String nameSuffix;
+    private final ToIntFunction<Workload> poolSize;
+    private final Supplier<MetricsTrackerFactory> metricsTrackerFactory;
+    private final Map<Workload, HikariDataSource> pools = new ConcurrentHashMap<>();
+
+    public WorkloadPools(HikariDataSource base, String nameSuffix, ToIntFunction<Workload> poolSize,
+            Supplier<MetricsTrackerFactory> metricsTrackerFactory) {
+        super(base);
+        this.base = base;
+        this.nameSuffix = nameSuffix;
+        this.poolSize = poolSize;
+        this.metricsTrackerFactory = metricsTrackerFactory;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Workload workload = WorkloadContext.current();
+        if (workload == null) {
+            return base.getConnection();
+        }
+        return pools.computeIfAbsent(workload, this::open).getConnection();
+    }
+
+    private HikariDataSource open(Workload workload) {
+        HikariDataSource pool = new HikariDataSource();
+        base.copyStateTo(pool);
+        pool.setPoolName(workload.tag() + nameSuffix);
+        pool.setMaximumPoolSize(poolSize.applyAsInt(workload));
+        pool.setMinimumIdle(0);
+        pool.setMetricsTrackerFactory(metricsTrackerFactory.get());
+        logger.info("Opening {} connection pool with {} connections", pool.getPoolName(), pool.getMaximumPoolSize());
+        return pool;
+    }
+
+    /**
+     * Closes the workload pools; the base pool is left to its owner
+     */
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
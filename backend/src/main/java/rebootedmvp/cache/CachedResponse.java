@@ -0,0 +1,42 @@
+package rebootedmvp.cache;
+
+import rebootedmvp.event.CatalogScope;
+
+/**
+ * A serialized response body, with its gzip encoding when that is smaller,
+ * and the scope of the request it answered. Instances are immutable and
+ * shared between requests.
+ */
+public final class CachedResponse {
+
+    private final CatalogScope scope;
+    private final String contentType;
+    private final byte[] body;
+    private final byte[] gzipBody;
+
+    CachedResponse(CatalogScope scope, String contentType, byte[] body, byte[] gzipBody) {
+        this.scope = scope;
+        this.contentType = contentType;
+        this.body = body;
+        this.gzipBody = gzipBody;
+    }
+
+    CatalogScope getScope() {
+        return scope;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the gzip encoded body, or null when compression did not pay off
+     */
+    byte[] getGzipBody() {
+        return gzipBody;
+    }
+}
@@ -0,0 +1,171 @@
+package rebootedmvp.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import rebootedmvp.config.ResponseCacheConfig;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CatalogScope;
+
+/**
+ * Serialized responses of catalog reads, keyed by request. Each entry keeps
+ * the scope of its request, the course, module and content item its path
+ * names, and every committed catalog write drops only the entries it affects
+ * (see CatalogChangedEvent.affects).
+ *
+ * Writes are numbered by a version. A response is only stored if no write
+ * that affects its scope committed while it was being built, so an entry
+ * never holds data older than the latest write to it. The last
+ * RECENT_CHANGES writes are kept for that check; a response that was built
+ * before them is not stored.
+ */
+@Component
+public class ResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final int RECENT_CHANGES = 1024;
+
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, CatalogChangedEvent> recentChanges = new ConcurrentSkipListMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    private ResponseCacheConfig config;
+
+    public CachedResponse get(String key) {
+        CachedResponse entry = entries.get(key);
+        (entry != null ? hits : misses).increment();
+        return entry;
+    }
+
+    /**
+     * Returns the current catalog version. Callers read it before building a
+     * response and pass it back to put().
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Stores 'body' under 'key' unless a write affecting 'scope' committed
+     * after 'readVersion'
+     */
+    public void put(String key, CatalogScope scope, long readVersion, String contentType, byte[] body) {
+        if (changedSince(readVersion, scope)) {
+            return;
+        }
+        if (entries.size() >= config.getMaxEntries()) {
+            // Start over rather than track recency on every hit
+            evictions.add(entries.size());
+            entries.clear();
+        }
+        CachedResponse entry = new CachedResponse(scope, contentType, body,
+                body.length >= config.getMinGzipBytes() ? gzip(body) : null);
+        entries.put(key, entry);
+        puts.increment();
+        // A write recorded after this check drops the entry itself
+        if (changedSince(readVersion, scope)) {
+            entries.remove(key, entry);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        long current = version.incrementAndGet();
+        recentChanges.put(current, event);
+        recentChanges.headMap(current - RECENT_CHANGES, true).clear();
+        LongAdder dropped = new LongAdder();
+        entries.values().removeIf(entry -> {
+            if (!event.affects(entry.getScope())) {
+                return false;
+            }
+            dropped.increment();
+            return true;
+        });
+        evictions.add(dropped.sum());
+        logger.debug("Response cache dropped {} entries for {}, now at version {}", dropped.sum(), event, current);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getPuts() {
+        return puts.sum();
+    }
+
+    /**
+     * Returns the number of entries dropped, by invalidation or because the
+     * cache was full
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns hits / lookups since startup, or 0 before the first lookup
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Returns true if a write committed after 'readVersion' may have changed
+     * a response about 'scope', or if that can no longer be told
+     */
+    private boolean changedSince(long readVersion, CatalogScope scope) {
+        if (readVersion == version.get()) {
+            return false;
+        }
+        Map.Entry<Long, CatalogChangedEvent> oldest = recentChanges.firstEntry();
+        if (oldest == null || oldest.getKey() > readVersion + 1) {
+            return true;
+        }
+        for (CatalogChangedEvent change : recentChanges.tailMap(readVersion, false).values()) {
+            if (change.affects(scope)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = out.toByteArray();
+        return compressed.length < body.length ? compressed : null;
+    }
+}
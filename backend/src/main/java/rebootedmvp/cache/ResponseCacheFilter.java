@@ -0,0 +1,150 @@
+package rebootedmvp.cache;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import rebootedmvp.event.CatalogScope;
+
+/**
+ * Serves GET requests on the configured paths from the ResponseCache. A hit
+ * writes the stored bytes (gzip encoded when the client accepts it) straight to
+ * the servlet output stream without reaching the controller. A miss runs the
+ * request normally and stores a 200 response's body.
+ *
+ * Entries are keyed by URI, query string and Accept header, since the body
+ * differs per negotiated format. NDJSON requests stream and are never cached.
+ * An entry's scope is taken from the path variables named courseId, moduleId
+ * and contentId, so writes only drop the entries that name what they changed.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCache cache;
+    private final List<PathPattern> patterns;
+    private final int maxEntryBytes;
+
+    public ResponseCacheFilter(ResponseCache cache, List<String> paths, int maxEntryBytes) {
+        this.cache = cache;
+        this.patterns = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return true;
+        }
+        return match(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = key(request);
+        CachedResponse hit = cache.get(key);
+        if (hit != null) {
+            write(hit, request, response);
+            return;
+        }
+
+        CatalogScope scope = scope(request);
+        long version = cache.getVersion();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        wrapper.setHeader(CACHE_HEADER, "MISS");
+        wrapper.addHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null
+                    && wrapper.getContentSize() <= maxEntryBytes) {
+                cache.put(key, scope, version, wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private PathPattern.PathMatchInfo match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (PathPattern pattern : patterns) {
+            PathPattern.PathMatchInfo match = pattern.matchAndExtract(path);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the scope of an entry for 'request', or null if its path is not
+     * cached
+     */
+    CatalogScope scope(HttpServletRequest request) {
+        PathPattern.PathMatchInfo match = match(request);
+        if (match == null) {
+            return null;
+        }
+        Map<String, String> variables = match.getUriVariables();
+        return new CatalogScope(id(variables, "courseId"), id(variables, "moduleId"), id(variables, "contentId"));
+    }
+
+    /**
+     * Returns the path variable 'name' as an id, or null if it is missing or
+     * not a number; such requests fail and are not stored anyway
+     */
+    private static Long id(Map<String, String> variables, String name) {
+        String value = variables.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void write(CachedResponse hit, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        byte[] body = hit.getBody();
+        byte[] gzipBody = hit.getGzipBody();
+        if (gzipBody != null && acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = gzipBody;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(hit.getContentType());
+        response.setContentLength(body.length);
+        response.setHeader(CACHE_HEADER, "HIT");
+        response.addHeader(HttpHeaders.VARY, "Accept, Accept-Encoding");
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static String key(HttpServletRequest request) {
+        String query = request.getQueryString();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return request.getRequestURI() + '?' + (query != null ? query : "") + '|' + (accept != null ? accept : "");
+    }
+}
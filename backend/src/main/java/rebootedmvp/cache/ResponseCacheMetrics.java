@@ -0,0 +1,54 @@
+package rebootedmvp.cache;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the response cache under the standard cache.* meters with
+ * cache="responses", plus a cache.hit.ratio gauge
+ */
+@Component
+public class ResponseCacheMetrics extends CacheMeterBinder<ResponseCache> {
+
+    public ResponseCacheMetrics(ResponseCache responseCache) {
+        super(responseCache, "responses", List.of());
+    }
+
+    @Override
+    protected Long size() {
+        return (long) getCache().size();
+    }
+
+    @Override
+    protected long hitCount() {
+        return getCache().getHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return getCache().getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return getCache().getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return getCache().getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.hit.ratio", getCache(), ResponseCache::getHitRatio)
+                .tags(getTagsWithCacheName())
+                .description("Share of lookups served from the cache since startup")
+                .register(registry);
+    }
+}
@@ -0,0 +1,25 @@
+package rebootedmvp.coalesce;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+
+/**
+ * Marks a read-only service method whose concurrent calls with equal
+ * arguments can share one execution (see SingleFlight). Callers receive the
+ * same result instance and must not modify it.
+ *
+ * 'value' is the type of the entity whose id is the method's first argument,
+ * so only changes to that entity stop callers from sharing a result.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Coalesced {
+
+    EntityType value();
+}
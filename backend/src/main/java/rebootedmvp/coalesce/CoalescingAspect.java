@@ -0,0 +1,56 @@
+package rebootedmvp.coalesce;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import rebootedmvp.event.CatalogScope;
+
+/**
+ * Routes calls to @Coalesced methods through SingleFlight, keyed by method
+ * and arguments. Ordered before the transaction interceptor and the metrics
+ * aspects, so only the shared execution opens a transaction and is timed.
+ * Calls made inside a transaction are not coalesced, as they may need to see
+ * that transaction's own writes.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 200)
+@ConditionalOnProperty(prefix = "coalesce", name = "enabled", matchIfMissing = true)
+public class CoalescingAspect {
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    private final Map<Method, String> operations = new ConcurrentHashMap<>();
+
+    @Around("@annotation(coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint, Coalesced coalesced) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String operation = operations.computeIfAbsent(method,
+                m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
+        Object[] args = joinPoint.getArgs();
+        CatalogScope scope = args.length > 0 && args[0] instanceof Long id ? CatalogScope.of(coalesced.value(), id)
+                : CatalogScope.GLOBAL;
+        return singleFlight.execute(operation, new Key(method, Arrays.asList(args)), scope, joinPoint::proceed);
+    }
+
+    private record Key(Method method, List<Object> args) {
+    }
+}
@@ -0,0 +1,166 @@
+package rebootedmvp.coalesce;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.config.CoalesceConfig;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CatalogScope;
+
+/**
+ * Runs at most one computation per key at a time. Callers that arrive while
+ * a computation for their key is running wait for it and share its result or
+ * exception. A successful result is also handed to callers that arrive
+ * within 'reuseWindowMillis' after it completed.
+ *
+ * Each computation has the scope of the entity its key is about. After a
+ * committed catalog write that affects that scope, new callers start a fresh
+ * computation instead of joining one that may have read the old state.
+ * Other computations are still shared.
+ *
+ * Every call is counted in coalesce.calls, tagged with the operation and the
+ * outcome: executed, joined or reused. Joined and reused calls are database
+ * calls saved.
+ */
+@Component
+@ConditionalOnProperty(prefix = "coalesce", name = "enabled", matchIfMissing = true)
+public class SingleFlight {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private static final int PURGE_EVERY = 1024;
+
+    private final Map<Object, Flight> flights = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger executedSincePurge = new AtomicInteger();
+
+    @Autowired
+    private CoalesceConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * A computation that can be shared, e.g. ProceedingJoinPoint::proceed
+     */
+    @FunctionalInterface
+    public interface Computation {
+        Object compute() throws Throwable;
+    }
+
+    /**
+     * Returns the result of 'computation' for 'key', computing it only if no
+     * shareable computation for the key exists. 'operation' names the call in
+     * metrics, and 'scope' is what the result is about.
+     */
+    public Object execute(String operation, Object key, CatalogScope scope, Computation computation)
+            throws Throwable {
+        Counters count = counters.computeIfAbsent(operation, this::counters);
+        long reuseNanos = TimeUnit.MILLISECONDS.toNanos(config.getReuseWindowMillis());
+        while (true) {
+            Flight existing = flights.get(key);
+            if (existing != null) {
+                if (!existing.future.isDone()) {
+                    count.joined.increment();
+                    return existing.await();
+                }
+                if (existing.isReusable(System.nanoTime(), reuseNanos)) {
+                    count.reused.increment();
+                    return existing.await();
+                }
+            }
+            Flight flight = new Flight(scope);
+            boolean claimed = existing == null ? flights.putIfAbsent(key, flight) == null
+                    : flights.replace(key, existing, flight);
+            if (claimed) {
+                count.executed.increment();
+                return run(key, flight, computation, reuseNanos);
+            }
+        }
+    }
+
+    private Object run(Object key, Flight flight, Computation computation, long reuseNanos) throws Throwable {
+        boolean keep = false;
+        try {
+            Object result = computation.compute();
+            flight.complete(result);
+            keep = reuseNanos > 0;
+            return result;
+        } catch (Throwable e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!keep) {
+                flights.remove(key, flight);
+            }
+            if (reuseNanos > 0 && executedSincePurge.incrementAndGet() >= PURGE_EVERY) {
+                executedSincePurge.set(0);
+                long now = System.nanoTime();
+                flights.values().removeIf(f -> f.future.isDone() && !f.isReusable(now, reuseNanos));
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Callers of a running computation that is removed still get its result
+        flights.values().removeIf(flight -> event.affects(flight.scope));
+        logger.debug("Coalesced reads invalidated by {}", event);
+    }
+
+    private Counters counters(String operation) {
+        return new Counters(counter(operation, "executed"), counter(operation, "joined"),
+                counter(operation, "reused"));
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder("coalesce.calls").tag("operation", operation).tag("outcome", outcome)
+                .description("Calls to coalesced methods; joined and reused calls did not hit the database")
+                .register(meterRegistry);
+    }
+
+    private record Counters(Counter executed, Counter joined, Counter reused) {
+    }
+
+    private static class Flight {
+
+        final CatalogScope scope;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        volatile long completedAt;
+
+        Flight(CatalogScope scope) {
+            this.scope = scope;
+        }
+
+        void complete(Object result) {
+            completedAt = System.nanoTime();
+            future.complete(result);
+        }
+
+        boolean isReusable(long now, long reuseNanos) {
+            return future.isDone() && !future.isCompletedExceptionally() && now - completedAt < reuseNanos;
+        }
+
+        Object await() throws Throwable {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package rebootedmvp.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import rebootedmvp.bulkhead.Bulkhead;
+import rebootedmvp.bulkhead.Bulkheads;
+import rebootedmvp.bulkhead.InteractiveLatencyMonitor;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadAspect;
+import rebootedmvp.bulkhead.WorkloadContext;
+import rebootedmvp.bulkhead.WorkloadDataSourcePostProcessor;
+import rebootedmvp.bulkhead.WorkloadInterceptor;
+
+/**
+ * Workload isolation. Endpoints and service methods annotated with
+ * WorkloadClass run as bulk or export work: each workload has its own
+ * concurrency limit, wait queue and Hikari connection pool (settings under
+ * 'bulk' and 'export'), and exports stream on their own "export-" threads
+ * instead of the shared async executor. While the p99 of the remaining,
+ * interactive requests is above 'interactiveP99Millis' over the last
+ * 'latencyWindowSeconds', new bulk and export work is deferred and then
+ * rejected with 503 and Retry-After.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "bulkhead")
+@ConditionalOnProperty(prefix = "bulkhead", name = "enabled", matchIfMissing = true)
+public class BulkheadConfig implements WebMvcConfigurer, DisposableBean {
+
+    private boolean enabled = true;
+    private long interactiveP99Millis = 500;
+    private long latencyWindowSeconds = 30;
+    private Limits bulk = new Limits(2, 8, 5000, 2);
+    private Limits export = new Limits(2, 4, 2000, 2);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    private ThreadPoolTaskExecutor exportExecutor;
+
+    @Bean
+    public InteractiveLatencyMonitor interactiveLatencyMonitor() {
+        InteractiveLatencyMonitor monitor = new InteractiveLatencyMonitor(interactiveP99Millis,
+                Duration.ofSeconds(latencyWindowSeconds), meterRegistry);
+        monitor.start();
+        return monitor;
+    }
+
+    @Bean
+    public Bulkheads bulkheads(InteractiveLatencyMonitor latencyMonitor) {
+        return new Bulkheads(bulkhead(Workload.BULK, bulk, latencyMonitor),
+                bulkhead(Workload.EXPORT, export, latencyMonitor));
+    }
+
+    private Bulkhead bulkhead(Workload workload, Limits limits, InteractiveLatencyMonitor latencyMonitor) {
+        return new Bulkhead(workload, limits.getMaxConcurrent(), limits.getMaxQueued(), limits.getMaxWaitMillis(),
+                latencyMonitor::isDegraded, meterRegistry);
+    }
+
+    @Bean
+    public WorkloadAspect workloadAspect(Bulkheads bulkheads) {
+        return new WorkloadAspect(bulkheads);
+    }
+
+    // Static, as post processors are created before the rest of the configuration
+    @Bean
+    public static WorkloadDataSourcePostProcessor workloadDataSourcePostProcessor(
+            ObjectProvider<BulkheadConfig> config, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new WorkloadDataSourcePostProcessor(
+                workload -> config.getObject().limits(workload).getPoolSize(), meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new WorkloadInterceptor(bulkheads(interactiveLatencyMonitor()),
+                interactiveLatencyMonitor())).addPathPatterns("/api/**");
+    }
+
+    /**
+     * Streams exports on a pool sized to the export limit; every async request
+     * is an annotated export, so admission keeps it from filling up. With
+     * virtual threads enabled each export gets its own virtual thread instead.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        TaskDecorator asExport = task -> () -> {
+            WorkloadContext.set(Workload.EXPORT);
+            try {
+                task.run();
+            } finally {
+                WorkloadContext.clear();
+            }
+        };
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("export-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(export.getMaxConcurrent() * 2);
+            executor.setTaskDecorator(asExport);
+            configurer.setTaskExecutor(executor);
+            return;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("export-");
+        executor.setCorePoolSize(export.getMaxConcurrent());
+        executor.setMaxPoolSize(export.getMaxConcurrent());
+        executor.setQueueCapacity(export.getMaxConcurrent());
+        executor.setTaskDecorator(asExport);
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), "export", Tags.empty()).bindTo(meterRegistry);
+        exportExecutor = executor;
+        configurer.setTaskExecutor(executor);
+    }
+
+    @Override
+    public void destroy() {
+        if (exportExecutor != null) {
+            exportExecutor.shutdown();
+        }
+    }
+
+    public Limits limits(Workload workload) {
+        return workload == Workload.BULK ? bulk : export;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getInteractiveP99Millis() {
+        return interactiveP99Millis;
+    }
+
+    public void setInteractiveP99Millis(long interactiveP99Millis) {
+        this.interactiveP99Millis = interactiveP99Millis;
+    }
+
+    public long getLatencyWindowSeconds() {
+        return latencyWindowSeconds;
+    }
+
+    public void setLatencyWindowSeconds(long latencyWindowSeconds) {
+        this.latencyWindowSeconds = latencyWindowSeconds;
+    }
+
+    public Limits getBulk() {
+        return bulk;
+    }
+
+    public void setBulk(Limits bulk) {
+        this.bulk = bulk;
+    }
+
+    public Limits getExport() {
+        return export;
+    }
+
+    public void setExport(Limits export) {
+        this.export = export;
+    }
+
+    /**
+     * The limits of one workload
+     */
+    public static class Limits {
+
+        private int maxConcurrent;
+        private int maxQueued;
+        private long maxWaitMillis;
+        private int poolSize;
+
+        public Limits() {
+        }
+
+        public Limits(int maxConcurrent, int maxQueued, long maxWaitMillis, int poolSize) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            this.maxWaitMillis = maxWaitMillis;
+            this.poolSize = poolSize;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+    }
+}
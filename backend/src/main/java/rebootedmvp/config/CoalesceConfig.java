@@ -0,0 +1,33 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for coalescing identical concurrent reads (see SingleFlight).
+ * 'reuseWindowMillis' also hands a result to calls that arrive shortly after
+ * it was computed; 0 only shares computations that are still running.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "coalesce")
+public class CoalesceConfig {
+
+    private boolean enabled = true;
+    private long reuseWindowMillis = 0;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getReuseWindowMillis() {
+        return reuseWindowMillis;
+    }
+
+    public void setReuseWindowMillis(long reuseWindowMillis) {
+        this.reuseWindowMillis = reuseWindowMillis;
+    }
+}
@@ -0,0 +1,99 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.live.CourseEventHub;
+import rebootedmvp.repository.CourseRepository;
+import rebootedmvp.repository.ModuleRepository;
+
+/**
+ * Live course event streams (see CourseEventHub). Each subscriber can have
+ * 'bufferSize' unsent events before they are replaced by a resync, and each
+ * course keeps its last 'replaySize' events for reconnecting clients. Idle
+ * streams get a heartbeat every 'heartbeatSeconds' and are closed after
+ * 'timeoutMillis', after which clients reconnect with their Last-Event-ID.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "course-events")
+public class CourseEventsConfig {
+
+    private boolean enabled = true;
+    private int bufferSize = 256;
+    private int replaySize = 256;
+    private long heartbeatSeconds = 15;
+    private long timeoutMillis = 1800000;
+    private int maxSubscribers = 5000;
+    private int senderThreads = 4;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "course-events", name = "enabled", matchIfMissing = true)
+    public CourseEventHub courseEventHub(CourseRepository courseRepository, ModuleRepository moduleRepository,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        CourseEventHub hub = new CourseEventHub(this, courseRepository::existsById,
+                moduleRepository::findCourseIdById, objectMapper, meterRegistry);
+        hub.start();
+        return hub;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getReplaySize() {
+        return replaySize;
+    }
+
+    public void setReplaySize(int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    public long getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    public void setHeartbeatSeconds(long heartbeatSeconds) {
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public int getSenderThreads() {
+        return senderThreads;
+    }
+
+    public void setSenderThreads(int senderThreads) {
+        this.senderThreads = senderThreads;
+    }
+}
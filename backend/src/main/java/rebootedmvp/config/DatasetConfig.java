@@ -0,0 +1,155 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sizes and options for the synthetic dataset generator. The defaults describe
+ * a production-scale catalog; 'scale' multiplies every row count, so smaller
+ * datasets keep the same shape.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "dataset")
+public class DatasetConfig {
+
+    public enum BulkMode {
+        /** COPY on PostgreSQL, batched inserts elsewhere */
+        AUTO,
+        COPY,
+        BATCH
+    }
+
+    private long seed = 42;
+    private double scale = 1.0;
+    private int users = 200_000;
+    private int courses = 5_000;
+    private int modules = 50_000;
+    private int contents = 1_000_000;
+    private double teacherRatio = 0.02;
+    private double questionRatio = 0.35;
+    private int optionsPerQuestion = 4;
+    private double meanCoursesPerStudent = 3.0;
+    private double zipfExponent = 1.1;
+    private BulkMode bulkMode = BulkMode.AUTO;
+    private int batchSize = 5_000;
+    private boolean truncate = false;
+
+    /**
+     * Returns 'count' multiplied by the scale factor, but at least 1
+     */
+    public int scaled(int count) {
+        return (int) Math.max(1, Math.round(count * scale));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    public void setScale(double scale) {
+        this.scale = scale;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    public int getCourses() {
+        return courses;
+    }
+
+    public void setCourses(int courses) {
+        this.courses = courses;
+    }
+
+    public int getModules() {
+        return modules;
+    }
+
+    public void setModules(int modules) {
+        this.modules = modules;
+    }
+
+    public int getContents() {
+        return contents;
+    }
+
+    public void setContents(int contents) {
+        this.contents = contents;
+    }
+
+    public double getTeacherRatio() {
+        return teacherRatio;
+    }
+
+    public void setTeacherRatio(double teacherRatio) {
+        this.teacherRatio = teacherRatio;
+    }
+
+    public double getQuestionRatio() {
+        return questionRatio;
+    }
+
+    public void setQuestionRatio(double questionRatio) {
+        this.questionRatio = questionRatio;
+    }
+
+    public int getOptionsPerQuestion() {
+        return optionsPerQuestion;
+    }
+
+    public void setOptionsPerQuestion(int optionsPerQuestion) {
+        this.optionsPerQuestion = optionsPerQuestion;
+    }
+
+    public double getMeanCoursesPerStudent() {
+        return meanCoursesPerStudent;
+    }
+
+    public void setMeanCoursesPerStudent(double meanCoursesPerStudent) {
+        this.meanCoursesPerStudent = meanCoursesPerStudent;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public void setZipfExponent(double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public BulkMode getBulkMode() {
+        return bulkMode;
+    }
+
+    public void setBulkMode(BulkMode bulkMode) {
+        this.bulkMode = bulkMode;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public boolean isTruncate() {
+        return truncate;
+    }
+
+    public void setTruncate(boolean truncate) {
+        this.truncate = truncate;
+    }
+}
@@ -0,0 +1,33 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Roster exports through /api/export. Rows are read through a cursor
+ * 'fetchSize' at a time; Parquet exports buffer up to 'parquetRowGroupBytes'
+ * of encoded rows before writing them out.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "export")
+public class ExportConfig {
+
+    private int fetchSize = 1000;
+    private long parquetRowGroupBytes = 8L * 1024 * 1024;
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public long getParquetRowGroupBytes() {
+        return parquetRowGroupBytes;
+    }
+
+    public void setParquetRowGroupBytes(long parquetRowGroupBytes) {
+        this.parquetRowGroupBytes = parquetRowGroupBytes;
+    }
+}
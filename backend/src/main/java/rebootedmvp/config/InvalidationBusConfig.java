@@ -0,0 +1,167 @@
+package rebootedmvp.config;
+
+import java.util.Properties;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.invalidation.InvalidationBus;
+
+/**
+ * Cross-instance cache invalidation with PostgreSQL LISTEN/NOTIFY, for when
+ * more than one backend instance serves the same database. The bus keeps one
+ * connection of its own to 'url', which must allow LISTEN: a direct or
+ * session-mode connection, not a transaction-mode pooler. The url, username
+ * and password default to those of spring.datasource.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "invalidation-bus")
+public class InvalidationBusConfig {
+
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private String channel = "catalog_invalidation";
+    // Random per start when not set
+    private String nodeId;
+    private long pollMillis = 50;
+    private int maxBatchEntries = 100;
+    private int queueSize = 10000;
+    private long reconnectMillis = 1000;
+    private long maxReconnectMillis = 30000;
+    private long validationSeconds = 30;
+    // Nodes not heard from for this long are forgotten
+    private long peerExpirySeconds = 3600;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "invalidation-bus", name = "enabled", havingValue = "true")
+    public InvalidationBus invalidationBus(DataSourceProperties dataSourceProperties,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        Properties properties = new Properties();
+        String user = username != null ? username : dataSourceProperties.determineUsername();
+        if (user != null) {
+            properties.setProperty("user", user);
+        }
+        String secret = password != null ? password : dataSourceProperties.determinePassword();
+        if (secret != null) {
+            properties.setProperty("password", secret);
+        }
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("ApplicationName", "invalidation-bus");
+
+        InvalidationBus bus = new InvalidationBus(this, url != null ? url : dataSourceProperties.determineUrl(),
+                properties, eventPublisher, meterRegistry);
+        bus.start();
+        return bus;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public long getPollMillis() {
+        return pollMillis;
+    }
+
+    public void setPollMillis(long pollMillis) {
+        this.pollMillis = pollMillis;
+    }
+
+    public int getMaxBatchEntries() {
+        return maxBatchEntries;
+    }
+
+    public void setMaxBatchEntries(int maxBatchEntries) {
+        this.maxBatchEntries = maxBatchEntries;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public long getReconnectMillis() {
+        return reconnectMillis;
+    }
+
+    public void setReconnectMillis(long reconnectMillis) {
+        this.reconnectMillis = reconnectMillis;
+    }
+
+    public long getMaxReconnectMillis() {
+        return maxReconnectMillis;
+    }
+
+    public void setMaxReconnectMillis(long maxReconnectMillis) {
+        this.maxReconnectMillis = maxReconnectMillis;
+    }
+
+    public long getValidationSeconds() {
+        return validationSeconds;
+    }
+
+    public void setValidationSeconds(long validationSeconds) {
+        this.validationSeconds = validationSeconds;
+    }
+
+    public long getPeerExpirySeconds() {
+        return peerExpirySeconds;
+    }
+
+    public void setPeerExpirySeconds(long peerExpirySeconds) {
+        this.peerExpirySeconds = peerExpirySeconds;
+    }
+}
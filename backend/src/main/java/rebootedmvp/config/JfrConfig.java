@@ -0,0 +1,62 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for the Flight Recorder admin endpoint. 'adminEnabled' is off by
+ * default because recordings expose thread, class and user ids. Recordings
+ * started from the endpoint keep at most 'maxAgeMinutes' / 'maxSizeMegabytes'
+ * of data, and a live stream is capped at 'maxStreamSeconds', which must stay
+ * below spring.mvc.async.request-timeout.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "jfr")
+public class JfrConfig {
+
+    private boolean adminEnabled = false;
+    private int maxRecordings = 4;
+    private long maxAgeMinutes = 60;
+    private long maxSizeMegabytes = 256;
+    private int maxStreamSeconds = 240;
+
+    public boolean isAdminEnabled() {
+        return adminEnabled;
+    }
+
+    public void setAdminEnabled(boolean adminEnabled) {
+        this.adminEnabled = adminEnabled;
+    }
+
+    public int getMaxRecordings() {
+        return maxRecordings;
+    }
+
+    public void setMaxRecordings(int maxRecordings) {
+        this.maxRecordings = maxRecordings;
+    }
+
+    public long getMaxAgeMinutes() {
+        return maxAgeMinutes;
+    }
+
+    public void setMaxAgeMinutes(long maxAgeMinutes) {
+        this.maxAgeMinutes = maxAgeMinutes;
+    }
+
+    public long getMaxSizeMegabytes() {
+        return maxSizeMegabytes;
+    }
+
+    public void setMaxSizeMegabytes(long maxSizeMegabytes) {
+        this.maxSizeMegabytes = maxSizeMegabytes;
+    }
+
+    public int getMaxStreamSeconds() {
+        return maxStreamSeconds;
+    }
+
+    public void setMaxStreamSeconds(int maxStreamSeconds) {
+        this.maxStreamSeconds = maxStreamSeconds;
+    }
+}
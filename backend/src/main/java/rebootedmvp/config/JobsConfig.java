@@ -0,0 +1,82 @@
+package rebootedmvp.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.bulkhead.Bulkheads;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.job.JobWorker;
+import rebootedmvp.service.JobService;
+
+/**
+ * Background jobs submitted through /api/jobs. Each instance runs 'workers'
+ * job threads; a job is handled 'chunkSize' items per transaction, and a
+ * worker that stops renewing its 'leaseSeconds' lease loses the job to
+ * another worker. With 'enabled' false jobs can still be submitted, and are
+ * run by instances that have workers.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "jobs")
+public class JobsConfig {
+
+    private boolean enabled = true;
+    private int workers = 2;
+    private int chunkSize = 100;
+    private long leaseSeconds = 60;
+    private long pollMillis = 500;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "jobs", name = "enabled", matchIfMissing = true)
+    public JobWorker jobWorker(JobService jobService, ObjectProvider<Bulkheads> bulkheads,
+            MeterRegistry meterRegistry) {
+        Bulkheads available = bulkheads.getIfAvailable();
+        JobWorker worker = new JobWorker(jobService, this,
+                available != null ? available.get(Workload.BULK) : null, meterRegistry);
+        worker.start();
+        return worker;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public long getLeaseSeconds() {
+        return leaseSeconds;
+    }
+
+    public void setLeaseSeconds(long leaseSeconds) {
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    public long getPollMillis() {
+        return pollMillis;
+    }
+
+    public void setPollMillis(long pollMillis) {
+        this.pollMillis = pollMillis;
+    }
+}
@@ -0,0 +1,42 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.instrumentation.MethodTimer;
+
+/**
+ * Settings for the method.calls timers on services and repositories.
+ * 'percentileHistogram' publishes histogram buckets so percentiles can be
+ * aggregated across instances by the metrics backend.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "method-metrics")
+public class MethodMetricsConfig {
+
+    private boolean enabled = true;
+    private boolean percentileHistogram = true;
+
+    @Bean
+    public MethodTimer methodTimer(MeterRegistry meterRegistry) {
+        return new MethodTimer(meterRegistry, percentileHistogram);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+}
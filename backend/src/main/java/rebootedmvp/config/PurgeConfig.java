@@ -0,0 +1,70 @@
+package rebootedmvp.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import rebootedmvp.bulkhead.Bulkheads;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.purge.CoursePurger;
+import rebootedmvp.service.CoursePurgeService;
+
+/**
+ * Background removal of soft-deleted courses. The purger deletes 'batchSize'
+ * modules per transaction and waits 'pauseMillis' between batches; with
+ * nothing to purge it checks again every 'pollMillis'. With 'enabled' false
+ * deleted courses stay hidden until an instance with a purger removes them.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "purge")
+public class PurgeConfig {
+
+    private boolean enabled = true;
+    private int batchSize = 50;
+    private long pauseMillis = 100;
+    private long pollMillis = 5000;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "purge", name = "enabled", matchIfMissing = true)
+    public CoursePurger coursePurger(CoursePurgeService coursePurgeService, ObjectProvider<Bulkheads> bulkheads) {
+        Bulkheads available = bulkheads.getIfAvailable();
+        CoursePurger purger = new CoursePurger(coursePurgeService, this,
+                available != null ? available.get(Workload.BULK) : null);
+        purger.start();
+        return purger;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getPauseMillis() {
+        return pauseMillis;
+    }
+
+    public void setPauseMillis(long pauseMillis) {
+        this.pauseMillis = pauseMillis;
+    }
+
+    public long getPollMillis() {
+        return pollMillis;
+    }
+
+    public void setPollMillis(long pollMillis) {
+        this.pollMillis = pollMillis;
+    }
+}
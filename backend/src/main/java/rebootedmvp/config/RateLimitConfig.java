@@ -0,0 +1,233 @@
+package rebootedmvp.config;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.ratelimit.AdaptiveConcurrencyLimit;
+import rebootedmvp.ratelimit.ClientRateLimiter;
+import rebootedmvp.ratelimit.RateLimitInterceptor;
+import rebootedmvp.ratelimit.TokenBucket;
+
+/**
+ * Admission control for the API (see RateLimitInterceptor). Each
+ * authenticated user may make 'clientRatePerSecond' requests a second with
+ * bursts of 'clientBurst'; other requests share that limit per remote address
+ * only when 'clientByAddress' is set. Each endpoint accepts
+ * 'routeRatePerSecond' / 'routeBurst' unless 'routes' lists its own limit,
+ * e.g. route "GET /api/course-memberships/user/{userId}/courses". On top of that,
+ * interactive requests are capped by an AIMD concurrency limit that backs
+ * off when requests take longer than 'latencyThresholdMillis' or threads are
+ * waiting for a database connection, so load is shed with 503 before the
+ * pool saturates.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "rate-limit")
+@ConditionalOnProperty(prefix = "rate-limit", name = "enabled", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private boolean enabled = true;
+    private double clientRatePerSecond = 20;
+    private int clientBurst = 40;
+    private boolean clientByAddress = false;
+    private double routeRatePerSecond = 1000;
+    private int routeBurst = 2000;
+    private List<RouteLimit> routes = new ArrayList<>();
+    private int initialConcurrency = 20;
+    private int minConcurrency = 4;
+    private int maxConcurrency = 100;
+    private long latencyThresholdMillis = 250;
+    private double backoffRatio = 0.9;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(initialConcurrency,
+                minConcurrency, maxConcurrency, latencyThresholdMillis, backoffRatio, poolSaturated(), System.nanoTime());
+        registry.addInterceptor(new RateLimitInterceptor(
+                new ClientRateLimiter(clientRatePerSecond, clientBurst),
+                clientByAddress ? new ClientRateLimiter(clientRatePerSecond, clientBurst) : null,
+                this::routeBucket, concurrencyLimit, meterRegistry))
+                .addPathPatterns("/api/**")
+                // Before the bulkhead, so rate-limited requests never wait for a permit
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    private TokenBucket routeBucket(String route) {
+        for (RouteLimit limit : routes) {
+            if (route.equals(limit.getRoute())) {
+                return new TokenBucket(limit.getRatePerSecond(), limit.getBurst(), System.nanoTime());
+            }
+        }
+        return new TokenBucket(routeRatePerSecond, routeBurst, System.nanoTime());
+    }
+
+    /**
+     * Reports whether requests are queueing for a connection of the primary pool
+     */
+    private BooleanSupplier poolSaturated() {
+        HikariDataSource hikari;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return () -> false;
+            }
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return () -> false;
+        }
+        return () -> {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null && pool.getThreadsAwaitingConnection() > 0;
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getClientRatePerSecond() {
+        return clientRatePerSecond;
+    }
+
+    public void setClientRatePerSecond(double clientRatePerSecond) {
+        this.clientRatePerSecond = clientRatePerSecond;
+    }
+
+    public int getClientBurst() {
+        return clientBurst;
+    }
+
+    public void setClientBurst(int clientBurst) {
+        this.clientBurst = clientBurst;
+    }
+
+    public boolean isClientByAddress() {
+        return clientByAddress;
+    }
+
+    public void setClientByAddress(boolean clientByAddress) {
+        this.clientByAddress = clientByAddress;
+    }
+
+    public double getRouteRatePerSecond() {
+        return routeRatePerSecond;
+    }
+
+    public void setRouteRatePerSecond(double routeRatePerSecond) {
+        this.routeRatePerSecond = routeRatePerSecond;
+    }
+
+    public int getRouteBurst() {
+        return routeBurst;
+    }
+
+    public void setRouteBurst(int routeBurst) {
+        this.routeBurst = routeBurst;
+    }
+
+    public List<RouteLimit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<RouteLimit> routes) {
+        this.routes = routes;
+    }
+
+    public int getInitialConcurrency() {
+        return initialConcurrency;
+    }
+
+    public void setInitialConcurrency(int initialConcurrency) {
+        this.initialConcurrency = initialConcurrency;
+    }
+
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    public void setMinConcurrency(int minConcurrency) {
+        this.minConcurrency = minConcurrency;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public long getLatencyThresholdMillis() {
+        return latencyThresholdMillis;
+    }
+
+    public void setLatencyThresholdMillis(long latencyThresholdMillis) {
+        this.latencyThresholdMillis = latencyThresholdMillis;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public void setBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * The limit of one endpoint, identified as "<method> <path pattern>"
+     */
+    public static class RouteLimit {
+
+        private String route;
+        private double ratePerSecond;
+        private int burst;
+
+        public String getRoute() {
+            return route;
+        }
+
+        public void setRoute(String route) {
+            this.route = route;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package rebootedmvp.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import rebootedmvp.reactive.ReactiveReadHandler;
+import rebootedmvp.reactive.ReactiveReadRepository;
+import rebootedmvp.reactive.ReactiveReadServer;
+
+/**
+ * Non-blocking read API. When enabled, the roster, course outline, module
+ * content and user course endpoints are also served from 'port' by WebFlux
+ * on 'eventLoopThreads' threads (0 for one per core), reading through an
+ * R2DBC pool on 'url'. The username and password default to those of
+ * spring.datasource. Writes and all other endpoints stay on the MVC server.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "reactive-read")
+public class ReactiveReadConfig {
+
+    private boolean enabled = false;
+    private int port = 8081;
+    private int eventLoopThreads = 0;
+    private String url;
+    private String username;
+    private String password;
+    private int initialPoolSize = 2;
+    private int maxPoolSize = 20;
+    private long maxAcquireMillis = 5000;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "reactive-read", name = "enabled", havingValue = "true")
+    public ReactiveReadServer reactiveReadServer(DataSourceProperties dataSourceProperties, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        String user = username != null ? username : dataSourceProperties.determineUsername();
+        if (user != null) {
+            options.option(ConnectionFactoryOptions.USER, user);
+        }
+        String secret = password != null ? password : dataSourceProperties.determinePassword();
+        if (secret != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, secret);
+        }
+        ConnectionPool connectionPool = new ConnectionPool(
+                ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                        .name("reactive-read")
+                        .initialSize(initialPoolSize)
+                        .maxSize(maxPoolSize)
+                        .maxAcquireTime(Duration.ofMillis(maxAcquireMillis))
+                        .build());
+        new ConnectionPoolMetrics(connectionPool, "reactive-read", Tags.empty()).bindTo(meterRegistry);
+
+        ReactiveReadHandler handler = new ReactiveReadHandler(
+                new ReactiveReadRepository(DatabaseClient.create(connectionPool)), meterRegistry);
+        return new ReactiveReadServer(port, eventLoopThreads, handler.routes(), corsFilter(), objectMapper,
+                connectionPool);
+    }
+
+    /**
+     * Same origins as SecurityConfig allows on the MVC server
+     */
+    private static CorsWebFilter corsFilter() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOriginPatterns(List.of("http://localhost:3000", "http://127.0.0.1:3000"));
+        configuration.setAllowedMethods(List.of("GET", "OPTIONS"));
+        configuration.setAllowedHeaders(List.of("*"));
+        configuration.setAllowCredentials(true);
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/**", configuration);
+        return new CorsWebFilter(source);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public void setEventLoopThreads(int eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getInitialPoolSize() {
+        return initialPoolSize;
+    }
+
+    public void setInitialPoolSize(int initialPoolSize) {
+        this.initialPoolSize = initialPoolSize;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getMaxAcquireMillis() {
+        return maxAcquireMillis;
+    }
+
+    public void setMaxAcquireMillis(long maxAcquireMillis) {
+        this.maxAcquireMillis = maxAcquireMillis;
+    }
+}
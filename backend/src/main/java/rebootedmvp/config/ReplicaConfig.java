@@ -0,0 +1,154 @@
+package rebootedmvp.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.replica.ReplicaLagMonitor;
+import rebootedmvp.replica.ReplicaRoutingDataSource;
+import rebootedmvp.replica.ReplicaStickiness;
+import rebootedmvp.replica.ReplicaStickinessInterceptor;
+import rebootedmvp.security.RequestUserResolver;
+
+/**
+ * Read-replica routing. When enabled, read-only transactions use a separate
+ * Hikari pool on 'url', configured under replica.hikari, while writes keep
+ * the spring.datasource pool. A user's reads stay on the primary for
+ * 'stickyWindowMillis' after they write (see ReplicaStickinessInterceptor). Reads also fall back to the primary
+ * while 'lagQuery' reports more than 'maxLagMillis' of lag or cannot run.
+ * The default lag query is for PostgreSQL streaming replicas and reports 0
+ * when the replica has replayed everything it received.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "replica")
+public class ReplicaConfig implements WebMvcConfigurer {
+
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private long stickyWindowMillis = 5000;
+    private long maxLagMillis = 2000;
+    private long lagCheckIntervalMillis = 1000;
+    private String lagQuery = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)::bigint END";
+
+    @Autowired
+    private RequestUserResolver userResolver;
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "replica", name = "enabled", havingValue = "true")
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+            MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setJdbcUrl(url);
+        replica.setUsername(username);
+        replica.setPassword(password);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        binder.bind("replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, lagQuery, maxLagMillis,
+                lagCheckIntervalMillis, meterRegistry);
+        lagMonitor.start();
+        return new ReplicaRoutingDataSource(primary, replica, lagMonitor, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (enabled) {
+            registry.addInterceptor(new ReplicaStickinessInterceptor(new ReplicaStickiness(stickyWindowMillis),
+                    userResolver)).addPathPatterns("/api/**");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public long getStickyWindowMillis() {
+        return stickyWindowMillis;
+    }
+
+    public void setStickyWindowMillis(long stickyWindowMillis) {
+        this.stickyWindowMillis = stickyWindowMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public void setMaxLagMillis(long maxLagMillis) {
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public long getLagCheckIntervalMillis() {
+        return lagCheckIntervalMillis;
+    }
+
+    public void setLagCheckIntervalMillis(long lagCheckIntervalMillis) {
+        this.lagCheckIntervalMillis = lagCheckIntervalMillis;
+    }
+
+    public String getLagQuery() {
+        return lagQuery;
+    }
+
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+}
@@ -0,0 +1,88 @@
+package rebootedmvp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import rebootedmvp.cache.ResponseCache;
+import rebootedmvp.cache.ResponseCacheFilter;
+
+/**
+ * Settings for the serialized response cache on hot catalog reads. The filter
+ * is registered after Spring Security, so CORS and security headers are still
+ * applied to cached responses. In 'paths', the variables courseId, moduleId
+ * and contentId tell which writes affect an entry; other names are ignored.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "response-cache")
+public class ResponseCacheConfig {
+
+    private boolean enabled = true;
+    private int maxEntries = 1000;
+    private int maxEntryBytes = 1024 * 1024;
+    private int minGzipBytes = 512;
+    private List<String> paths = new ArrayList<>(List.of(
+            "/api/roster",
+            "/api/roster/{courseId}",
+            "/api/courses/{courseId}",
+            "/api/courses/{courseId}/module/{moduleId}",
+            // Lists every content item whatever the module, so the id must not scope it
+            "/api/modules/{id}",
+            "/api/modules/{moduleId}/content/{contentId}",
+            "/api/content",
+            "/api/content/{contentId}",
+            "/api/content/module/{moduleId}"));
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseCache responseCache) {
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCacheFilter(responseCache, paths, maxEntryBytes));
+        registration.setEnabled(enabled);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public int getMinGzipBytes() {
+        return minGzipBytes;
+    }
+
+    public void setMinGzipBytes(int minGzipBytes) {
+        this.minGzipBytes = minGzipBytes;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+}
@@ -0,0 +1,42 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * CSV roster imports through POST /api/users/import. Rows are validated and
+ * merged 'batchSize' at a time, each batch in its own transaction. At most
+ * 'maxErrors' row errors are listed in the response; the rest are counted.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "roster-import")
+public class RosterImportConfig {
+
+    private int batchSize = 1000;
+    private int maxErrors = 1000;
+    private int maxRecordChars = 8192;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public int getMaxRecordChars() {
+        return maxRecordChars;
+    }
+
+    public void setMaxRecordChars(int maxRecordChars) {
+        this.maxRecordChars = maxRecordChars;
+    }
+}
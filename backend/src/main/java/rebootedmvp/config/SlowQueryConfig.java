@@ -0,0 +1,81 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for the slow-query log. Statements taking at least
+ * 'thresholdMillis' are logged with their bind values and calling repository
+ * method. A fraction 'explainSampleRate' of slow SELECTs is re-run under
+ * EXPLAIN ANALYZE in the background (read-only, rolled back), and the
+ * 'retained' slowest statements are kept for /api/admin/slow-queries, which
+ * is only registered when 'adminEnabled' is set.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "slow-query")
+public class SlowQueryConfig {
+
+    private boolean enabled = true;
+    private long thresholdMillis = 250;
+    private double explainSampleRate = 0.1;
+    private int explainTimeoutSeconds = 10;
+    private int retained = 50;
+    private int maxBindLength = 100;
+    private boolean adminEnabled = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    public double getExplainSampleRate() {
+        return explainSampleRate;
+    }
+
+    public void setExplainSampleRate(double explainSampleRate) {
+        this.explainSampleRate = explainSampleRate;
+    }
+
+    public int getExplainTimeoutSeconds() {
+        return explainTimeoutSeconds;
+    }
+
+    public void setExplainTimeoutSeconds(int explainTimeoutSeconds) {
+        this.explainTimeoutSeconds = explainTimeoutSeconds;
+    }
+
+    public int getRetained() {
+        return retained;
+    }
+
+    public void setRetained(int retained) {
+        this.retained = retained;
+    }
+
+    public int getMaxBindLength() {
+        return maxBindLength;
+    }
+
+    public void setMaxBindLength(int maxBindLength) {
+        this.maxBindLength = maxBindLength;
+    }
+
+    public boolean isAdminEnabled() {
+        return adminEnabled;
+    }
+
+    public void setAdminEnabled(boolean adminEnabled) {
+        this.adminEnabled = adminEnabled;
+    }
+}
@@ -0,0 +1,60 @@
+package rebootedmvp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import rebootedmvp.instrumentation.SqlMetricsFilter;
+import rebootedmvp.instrumentation.SqlMetricsRecorder;
+
+/**
+ * Settings for per-request and per-service-method SQL metrics. When enabled,
+ * the DataSource is wrapped to count statements, rows and execution time, and
+ * a statement run 'repeatedStatementThreshold' times within one scope is
+ * reported as a suspected N+1. 'debugHeaders' adds the counts to API responses.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sql-metrics")
+public class SqlMetricsConfig {
+
+    private boolean enabled = true;
+    private boolean debugHeaders = false;
+    private int repeatedStatementThreshold = 5;
+
+    @Bean
+    public FilterRegistrationBean<SqlMetricsFilter> sqlMetricsFilter(SqlMetricsRecorder recorder) {
+        FilterRegistrationBean<SqlMetricsFilter> registration = new FilterRegistrationBean<>(
+                new SqlMetricsFilter(recorder, debugHeaders, repeatedStatementThreshold));
+        registration.setEnabled(enabled);
+        // Outside the response cache, so debug headers are added to cached responses too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isDebugHeaders() {
+        return debugHeaders;
+    }
+
+    public void setDebugHeaders(boolean debugHeaders) {
+        this.debugHeaders = debugHeaders;
+    }
+
+    public int getRepeatedStatementThreshold() {
+        return repeatedStatementThreshold;
+    }
+
+    public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+}
@@ -0,0 +1,48 @@
+package rebootedmvp.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
+import rebootedmvp.dto.BatchRequestDTO;
+import rebootedmvp.dto.BatchResponseDTO;
+import rebootedmvp.service.BatchService;
+
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    @Autowired
+    private BatchService batchService;
+
+    /**
+     * Applies all operations in one transaction. Returns 200 when the batch was
+     * committed and 400 with the per-operation results when it was rolled back.
+     */
+    @WorkloadClass(Workload.BULK)
+    @PostMapping
+    public ResponseEntity<BatchResponseDTO> execute(@RequestBody BatchRequestDTO request) {
+        try {
+            BatchResponseDTO response = batchService.execute(request.getOperations());
+            if (!response.isCommitted()) {
+                return ResponseEntity.badRequest().body(response);
+            }
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new BatchResponseDTO(false, null, e.getMessage()));
+        }
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> handleException(Exception e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("An error occurred: " + e.getMessage());
+    }
+}
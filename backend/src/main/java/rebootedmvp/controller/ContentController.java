@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -13,11 +14,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
 import rebootedmvp.dto.ContentDTO;
 import rebootedmvp.dto.NewContentDTO;
 import rebootedmvp.service.ContentService;
+import rebootedmvp.service.ProjectionService;
+import rebootedmvp.web.NdjsonWriter;
 
 @RestController
 @RequestMapping("/api/content")
@@ -26,10 +35,33 @@ public class ContentController {
     @Autowired
     private ContentService contentService;
 
+    @Autowired
+    private ProjectionService projectionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public ResponseEntity<List<ContentDTO>> getAllContent() {
-        List<ContentDTO> content = contentService.findAll();
-        return ResponseEntity.ok(content);
+    public ResponseEntity<List<?>> getAllContent(@RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        if (fields == null && include == null) {
+            List<ContentDTO> content = contentService.findAll();
+            return ResponseEntity.ok(content);
+        }
+        try {
+            return ResponseEntity.ok(projectionService.findContents(fields, include));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Streams all content as newline delimited JSON, one item per line
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllContent() {
+        return NdjsonWriter.response(objectMapper, contentService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -42,9 +74,18 @@ public class ContentController {
     }
 
     @GetMapping("/module/{moduleId}")
-    public ResponseEntity<List<ContentDTO>> getContentByModuleId(@PathVariable Long moduleId) {
-        List<ContentDTO> content = contentService.findByModuleId(moduleId);
-        return ResponseEntity.ok(content);
+    public ResponseEntity<List<?>> getContentByModuleId(@PathVariable Long moduleId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        if (fields == null && include == null) {
+            List<ContentDTO> content = contentService.findByModuleId(moduleId);
+            return ResponseEntity.ok(content);
+        }
+        try {
+            return ResponseEntity.ok(projectionService.findContentsByModuleId(moduleId, fields, include));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
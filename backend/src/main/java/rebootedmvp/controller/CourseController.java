@@ -22,6 +22,7 @@ import rebootedmvp.Module;
 import rebootedmvp.dto.ModuleDTO;
 import rebootedmvp.dto.NewModuleDTO;
 import rebootedmvp.service.CourseService;
+import rebootedmvp.service.ProjectionService;
 
 @RestController
 @RequestMapping("/api/courses/{courseId}")
@@ -30,9 +31,21 @@ public class CourseController {
     @Autowired
     private CourseService courseService;
 
+    @Autowired
+    private ProjectionService projectionService;
+
     @GetMapping
-    public ResponseEntity<List<ModuleDTO>> getAllModules(@PathVariable Long courseId) {
-        return ResponseEntity.ok(courseService.getById(courseId));
+    public ResponseEntity<List<?>> getAllModules(@PathVariable Long courseId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        if (fields == null && include == null) {
+            return ResponseEntity.ok(courseService.getById(courseId));
+        }
+        try {
+            return ResponseEntity.ok(projectionService.findModulesByCourseId(courseId, fields, include));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/module/{moduleId}")
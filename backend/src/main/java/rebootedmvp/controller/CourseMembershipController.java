@@ -13,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
 import rebootedmvp.dto.CourseUserDTO;
 import rebootedmvp.dto.UserCourseDTO;
 import rebootedmvp.service.CourseMembershipService;
@@ -55,6 +57,7 @@ public class CourseMembershipController {
         }
     }
 
+    @WorkloadClass(Workload.BULK)
     @PostMapping("/course/{courseId}/teachers")
     public ResponseEntity<String> addTeachersToCourse(
             @PathVariable Long courseId,
@@ -73,6 +76,7 @@ public class CourseMembershipController {
         }
     }
 
+    @WorkloadClass(Workload.BULK)
     @PostMapping("/course/{courseId}/students")
     public ResponseEntity<String> addStudentsToCourse(
             @PathVariable Long courseId,
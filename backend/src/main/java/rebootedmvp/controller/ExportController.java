@@ -0,0 +1,108 @@
+package rebootedmvp.controller;
+
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
+import rebootedmvp.config.ExportConfig;
+import rebootedmvp.export.ExportFormat;
+import rebootedmvp.export.RowWriter;
+import rebootedmvp.service.RosterExportService;
+
+/**
+ * Streams learner completion exports as CSV or Parquet downloads. Responses
+ * have no length and are sent chunked while the rows are read; CSV is
+ * gzipped for clients that accept it.
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    @Autowired
+    private RosterExportService rosterExportService;
+
+    @Autowired
+    private ExportConfig config;
+
+    /**
+     * Exports the learners of one course
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @GetMapping("/courses/{courseId}/learners")
+    public ResponseEntity<StreamingResponseBody> exportCourseLearners(@PathVariable Long courseId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("course-" + courseId + "-learners", courseId, null, format, acceptEncoding);
+    }
+
+    /**
+     * Exports the learners of every course, optionally only those with an
+     * email address at 'domain'
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @GetMapping("/learners")
+    public ResponseEntity<StreamingResponseBody> exportLearners(@RequestParam(required = false) String domain,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export(domain != null ? domain + "-learners" : "learners", null, domain, format, acceptEncoding);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, Long courseId, String domain, String format,
+            String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        rosterExportService.checkScope(courseId, domain);
+        boolean gzip = !exportFormat.isCompressed() && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+            try (RowWriter writer = exportFormat.open(gzip ? compressed : out, RosterExportService.COLUMNS,
+                    config)) {
+                rosterExportService.exportLearners(courseId, domain, writer);
+            }
+            if (compressed != null) {
+                // Writes the gzip trailer without closing the response stream
+                compressed.finish();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + exportFormat.getExtension() + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> handleStatus(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).body(e.getReason());
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> handleException(Exception e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("An error occurred: " + e.getMessage());
+    }
+}
@@ -0,0 +1,123 @@
+package rebootedmvp.controller;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
+import rebootedmvp.config.JfrConfig;
+import rebootedmvp.dto.RecordingDTO;
+import rebootedmvp.jfr.FlightRecordings;
+import rebootedmvp.web.NdjsonWriter;
+
+/**
+ * Flight Recorder control for diagnosing latency spikes. Only registered when
+ * jfr.admin-enabled is set.
+ */
+@RestController
+@RequestMapping("/api/admin/jfr")
+@ConditionalOnProperty(prefix = "jfr", name = "admin-enabled", havingValue = "true")
+public class FlightRecorderController {
+
+    @Autowired
+    private FlightRecordings flightRecordings;
+
+    @Autowired
+    private JfrConfig jfrConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Starts a recording. 'settings' is a JDK settings file ("default" or
+     * "profile") to record alongside the domain events; domain events shorter
+     * than 'thresholdMillis' are dropped.
+     */
+    @PostMapping("/recordings")
+    public ResponseEntity<RecordingDTO> startRecording(@RequestParam(required = false) String name,
+            @RequestParam(required = false) String settings,
+            @RequestParam(defaultValue = "0") long thresholdMillis) {
+        if (thresholdMillis < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            RecordingDTO recording = flightRecordings.start(name, settings, Duration.ofMillis(thresholdMillis));
+            return ResponseEntity.status(HttpStatus.CREATED).body(recording);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/recordings")
+    public ResponseEntity<List<RecordingDTO>> getRecordings() {
+        return ResponseEntity.ok(flightRecordings.findAll());
+    }
+
+    @PostMapping("/recordings/{id}/stop")
+    public ResponseEntity<RecordingDTO> stopRecording(@PathVariable long id) {
+        RecordingDTO recording = flightRecordings.stop(id);
+        if (recording == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(recording);
+    }
+
+    /**
+     * Downloads the recording as a .jfr file for JDK Mission Control or the jfr
+     * tool. A running recording is dumped up to now.
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @GetMapping("/recordings/{id}/file")
+    public ResponseEntity<StreamingResponseBody> downloadRecording(@PathVariable long id) {
+        if (!flightRecordings.exists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> flightRecordings.dump(id, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recording-" + id + ".jfr\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    @DeleteMapping("/recordings/{id}")
+    public ResponseEntity<Void> deleteRecording(@PathVariable long id) {
+        if (!flightRecordings.delete(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Streams domain events as newline delimited JSON for 'seconds' seconds,
+     * one event per line, flushed about once a second
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEvents(@RequestParam(defaultValue = "30") int seconds,
+            @RequestParam(defaultValue = "0") long thresholdMillis) {
+        if (seconds <= 0 || seconds > jfrConfig.getMaxStreamSeconds() || thresholdMillis < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return NdjsonWriter.response(objectMapper, sink -> flightRecordings.stream(Duration.ofSeconds(seconds),
+                Duration.ofMillis(thresholdMillis), sink));
+    }
+}
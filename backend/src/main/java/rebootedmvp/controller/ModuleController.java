@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -14,12 +15,18 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
 import rebootedmvp.dto.ContentDTO;
 import rebootedmvp.dto.NewContentDTO;
 import rebootedmvp.dto.NewQuestionContentDTO;
 import rebootedmvp.dto.NewTextContentDTO;
 import rebootedmvp.service.ModuleService;
+import rebootedmvp.web.NdjsonWriter;
 
 @RestController
 @RequestMapping("/api/modules/{moduleId}")
@@ -28,11 +35,20 @@ public class ModuleController {
     @Autowired
     private ModuleService moduleService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
     public ResponseEntity<List<ContentDTO>> getAllContents(@PathVariable Long moduleId) {
         return ResponseEntity.ok(moduleService.findAll());
     }
 
+    @WorkloadClass(Workload.EXPORT)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllContents(@PathVariable Long moduleId) {
+        return NdjsonWriter.response(objectMapper, moduleService::streamAll);
+    }
+
     @GetMapping("/content/{contentId}")
     public ResponseEntity<ContentDTO> getContentById(@PathVariable Long moduleId, @PathVariable Long contentId) {
         ContentDTO con = moduleService.getById(moduleId, contentId);
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import rebootedmvp.domain.impl.RosterImpl;
@@ -20,6 +21,7 @@ import rebootedmvp.dto.CourseDTO;
 import rebootedmvp.dto.ModuleDTO;
 import rebootedmvp.dto.NewCourseDTO;
 import rebootedmvp.dto.NewRosterDTO;
+import rebootedmvp.service.ProjectionService;
 import rebootedmvp.service.RosterService;
 
 @RestController
@@ -29,6 +31,9 @@ public class RosterController {
     @Autowired
     private RosterService rosterService;
 
+    @Autowired
+    private ProjectionService projectionService;
+
     @PostMapping
     public ResponseEntity<Long> createRoster() {
         Long rosterId = rosterService.addToHigh(new NewRosterDTO("Main Roster", "Description"), RosterImpl::new);
@@ -36,8 +41,16 @@ public class RosterController {
     }
 
     @GetMapping
-    public ResponseEntity<List<CourseDTO>> getAllCourses() {
-        return ResponseEntity.ok(rosterService.findAll());
+    public ResponseEntity<List<?>> getAllCourses(@RequestParam(required = false) String fields,
+            @RequestParam(required = false) String include) {
+        if (fields == null && include == null) {
+            return ResponseEntity.ok(rosterService.findAll());
+        }
+        try {
+            return ResponseEntity.ok(projectionService.findCourses(fields, include));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{courseId}")
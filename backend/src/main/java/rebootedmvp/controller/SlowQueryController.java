@@ -0,0 +1,39 @@
+package rebootedmvp.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import rebootedmvp.dto.SlowQueryDTO;
+import rebootedmvp.instrumentation.SlowQueryLog;
+
+/**
+ * The slowest statements seen since startup (or the last clear), with bind
+ * values and sampled plans. Only registered when slow-query.admin-enabled is
+ * set.
+ */
+@RestController
+@RequestMapping("/api/admin/slow-queries")
+@ConditionalOnProperty(prefix = "slow-query", name = { "enabled", "admin-enabled" }, havingValue = "true")
+public class SlowQueryController {
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @GetMapping
+    public ResponseEntity<List<SlowQueryDTO>> getSlowQueries() {
+        return ResponseEntity.ok(slowQueryLog.getSlowest());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
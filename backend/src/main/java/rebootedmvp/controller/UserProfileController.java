@@ -1,9 +1,15 @@
 package rebootedmvp.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,11 +18,20 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
 import rebootedmvp.dto.NewUserDTO;
+import rebootedmvp.dto.RosterImportErrorDTO;
+import rebootedmvp.dto.RosterImportResultDTO;
 import rebootedmvp.dto.UserProfileDTO;
 import rebootedmvp.service.JwtService;
+import rebootedmvp.service.RosterImportService;
 import rebootedmvp.service.UserProfileService;
+import rebootedmvp.web.NdjsonWriter;
 
 @RestController
 @RequestMapping("/api/users")
@@ -26,6 +41,10 @@ public class UserProfileController {
     private final JwtService jwtService;
     @Autowired
     private final UserProfileService userProfileService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RosterImportService rosterImportService;
 
     // Constructor for dependency injection
     public UserProfileController(JwtService jwtService, UserProfileService userProfileService) {
@@ -39,6 +58,15 @@ public class UserProfileController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Streams all users as newline delimited JSON, one user per line
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return NdjsonWriter.response(objectMapper, userProfileService::streamAll);
+    }
+
     @PostMapping("/add")
     public ResponseEntity<Long> createUser(
             @RequestBody NewUserDTO newUserDTO,
@@ -51,6 +79,25 @@ public class UserProfileController {
         return ResponseEntity.ok(userId);
     }
 
+    /**
+     * Provisions and enrolls the users listed in a UTF-8 CSV body, streamed
+     * in batches. Returns 200 with per-row errors, or 400 if the header is
+     * invalid.
+     */
+    @WorkloadClass(Workload.BULK)
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<RosterImportResultDTO> importUsers(InputStream body) throws IOException, SQLException {
+        try {
+            return ResponseEntity.ok(rosterImportService.importCsv(
+                    new InputStreamReader(body, StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            RosterImportResultDTO result = new RosterImportResultDTO();
+            result.setComplete(false);
+            result.getErrors().add(new RosterImportErrorDTO(1, null, e.getMessage()));
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserProfileDTO> getUserById(@PathVariable String id) {
         UserProfileDTO user = userProfileService.findById(id);
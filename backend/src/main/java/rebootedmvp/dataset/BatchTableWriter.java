@@ -0,0 +1,61 @@
+package rebootedmvp.dataset;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes rows with a JDBC batched INSERT, executing every 'batchSize' rows.
+ * Works on any database, including the embedded one.
+ */
+public class BatchTableWriter implements TableWriter {
+
+    private final PreparedStatement statement;
+    private final int columns;
+    private final int batchSize;
+    private int pending;
+    private long rows;
+
+    public BatchTableWriter(Connection connection, String table, List<String> columns, int batchSize)
+            throws SQLException {
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        this.statement = connection.prepareStatement(sql);
+        this.columns = columns.size();
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void row(Object... values) throws SQLException {
+        for (int i = 0; i < columns; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+        statement.addBatch();
+        rows++;
+        if (++pending >= batchSize) {
+            statement.executeBatch();
+            pending = 0;
+        }
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (statement.isClosed()) {
+            return;
+        }
+        try {
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package rebootedmvp.dataset;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Streams rows into PostgreSQL with COPY ... FROM STDIN in CSV format. Rows are
+ * encoded into a reusable buffer that is handed to the driver whenever it
+ * fills, so memory use is constant however many rows are written.
+ */
+public class CopyTableWriter implements TableWriter {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final CopyIn copy;
+    private final int columns;
+    private final StringBuilder line = new StringBuilder(512);
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private long rows;
+
+    public CopyTableWriter(Connection connection, String table, List<String> columns) throws SQLException {
+        this.copy = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT csv)");
+        this.columns = columns.size();
+    }
+
+    @Override
+    public void row(Object... values) throws SQLException {
+        line.setLength(0);
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            append(values[i]);
+        }
+        line.append('\n');
+        write(line.toString().getBytes(StandardCharsets.UTF_8));
+        rows++;
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            // An unquoted empty field is NULL in CSV format
+            return;
+        }
+        String text = value.toString();
+        if (value instanceof String && (text.isEmpty() || needsQuoting(text))) {
+            line.append('"').append(text.replace("\"", "\"\"")).append('"');
+        } else {
+            line.append(text);
+        }
+    }
+
+    private static boolean needsQuoting(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(byte[] bytes) throws SQLException {
+        if (position + bytes.length > buffer.length) {
+            flush();
+            if (bytes.length > buffer.length) {
+                buffer = new byte[bytes.length];
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void flush() throws SQLException {
+        if (position > 0) {
+            copy.writeToCopy(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!copy.isActive()) {
+            return;
+        }
+        try {
+            flush();
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+}
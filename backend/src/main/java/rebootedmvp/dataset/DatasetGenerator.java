@@ -0,0 +1,426 @@
+package rebootedmvp.dataset;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import rebootedmvp.User;
+import rebootedmvp.config.DatasetConfig;
+import rebootedmvp.config.DatasetConfig.BulkMode;
+
+/**
+ * Fills the schema with a synthetic catalog: users, courses, modules, content
+ * with question options, and course memberships whose popularity follows a
+ * Zipf distribution. Rows are written straight to the tables created by
+ * Hibernate, through COPY on PostgreSQL or batched inserts elsewhere, never
+ * through the services.
+ *
+ * The output depends only on the configuration: every table draws from its own
+ * random stream derived from the seed, so the same seed and sizes produce the
+ * same rows and ids on every database.
+ */
+@Component
+public class DatasetGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int TWO_YEARS_IN_MINUTES = 2 * 365 * 24 * 60;
+    private static final int MAX_COURSES_PER_STUDENT = 20;
+
+    // Dependants first, in the order they must be cleared
+    private static final List<String> TABLES = List.of(
+            "content_options", "content_entity_impl", "question_content_impl", "text_content_impl", "contents",
+            "module_entity_impl", "modules", "course_students", "course_teachers", "course_entity_impl", "courses",
+            "user_profile_impl", "users");
+
+    private static final String[] FIRST_NAMES = { "Ada", "Grace", "Alan", "Edsger", "Barbara", "Donald", "Margaret",
+            "Ken", "Frances", "Linus", "Radia", "Tim", "Anita", "Guido", "Katherine", "Dennis" };
+    private static final String[] LAST_NAMES = { "Lovelace", "Hopper", "Turing", "Dijkstra", "Liskov", "Knuth",
+            "Hamilton", "Thompson", "Allen", "Torvalds", "Perlman", "Berners-Lee", "Borg", "van Rossum", "Johnson" };
+    private static final String[] TOPICS = { "Workplace Safety", "Data Privacy", "Customer Service", "Leadership",
+            "Project Management", "Python", "SQL", "Negotiation", "Accessibility", "Cloud Security", "Onboarding",
+            "Sales Fundamentals", "Incident Response", "Financial Literacy", "Public Speaking", "Code Review" };
+    private static final String[] LEVELS = { "Basics", "Essentials", "in Practice", "Deep Dive", "for Managers",
+            "Refresher", "Advanced", "Certification Prep" };
+    private static final String[] WORDS = { "policy", "team", "process", "customer", "risk", "report", "review",
+            "system", "goal", "feedback", "budget", "schedule", "quality", "training", "access", "incident",
+            "record", "plan", "request", "standard" };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatasetConfig config;
+
+    /**
+     * Generates the dataset into the configured database and returns the number
+     * of rows written per table. Throws: IllegalStateException if the database
+     * already contains users and dataset.truncate is not set.
+     */
+    public Map<String, Long> generate() throws SQLException {
+        int users = config.scaled(config.getUsers());
+        int courses = config.scaled(config.getCourses());
+        int modules = config.scaled(config.getModules());
+        int contents = config.scaled(config.getContents());
+        logger.info("Generating dataset with seed {}: {} users, {} courses, {} modules, {} content items",
+                config.getSeed(), users, courses, modules, contents);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            boolean copy = useCopy(connection);
+            logger.info("Writing with {}", copy ? "COPY" : "batched inserts");
+            prepare(connection, copy);
+
+            BitSet teachers = new BitSet(users + 1);
+            int[] teacherIds = writeUsers(connection, copy, users, teachers, counts);
+            writeCourses(connection, copy, courses, counts);
+            int[] modulesPerCourse = distribute(modules, courses, random("modules-layout"));
+            writeModules(connection, copy, modulesPerCourse, counts);
+            int[] contentsPerModule = distribute(contents, modules, random("contents-layout"));
+            writeContents(connection, copy, contentsPerModule, counts);
+            writeTeachers(connection, copy, courses, teacherIds, counts);
+            writeStudents(connection, copy, users, courses, teachers, counts);
+
+            restartIdentity(connection, "users", users);
+            restartIdentity(connection, "courses", courses);
+            restartIdentity(connection, "modules", modules);
+            restartIdentity(connection, "contents", contents);
+            connection.commit();
+        }
+        logger.info("Dataset complete: {}", counts);
+        return counts;
+    }
+
+    private boolean useCopy(Connection connection) throws SQLException {
+        boolean postgres = connection.isWrapperFor(PGConnection.class);
+        if (config.getBulkMode() == BulkMode.COPY && !postgres) {
+            throw new IllegalStateException("dataset.bulk-mode=copy requires PostgreSQL");
+        }
+        return config.getBulkMode() == BulkMode.COPY || (config.getBulkMode() == BulkMode.AUTO && postgres);
+    }
+
+    private void prepare(Connection connection, boolean postgres) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            long existing;
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM users")) {
+                rs.next();
+                existing = rs.getLong(1);
+            }
+            if (existing == 0) {
+                return;
+            }
+            if (!config.isTruncate()) {
+                throw new IllegalStateException("The database already contains " + existing
+                        + " users. Set dataset.truncate=true to replace its data.");
+            }
+            logger.info("Clearing existing data");
+            if (postgres) {
+                statement.execute("TRUNCATE TABLE " + String.join(", ", TABLES) + " CASCADE");
+            } else {
+                for (String table : TABLES) {
+                    statement.executeUpdate("DELETE FROM " + table);
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    private int[] writeUsers(Connection connection, boolean copy, int users, BitSet teachers,
+            Map<String, Long> counts) throws SQLException {
+        SplittableRandom random = random("users");
+        int[] teacherIds = new int[users];
+        int teacherCount = 0;
+        long started = System.nanoTime();
+        try (TableWriter writer = open(connection, copy, "users",
+                List.of("id", "username", "user_type", "full_name", "email", "created_at", "updated_at",
+                        "supabase_user_id"))) {
+            for (int id = 1; id <= users; id++) {
+                boolean teacher = random.nextDouble() < config.getTeacherRatio();
+                if (teacher) {
+                    teachers.set(id);
+                    teacherIds[teacherCount++] = id;
+                }
+                String username = String.format("user%07d", id);
+                LocalDateTime createdAt = timestamp(random);
+                writer.row(id, username,
+                        (teacher ? User.UserType.LDUser : User.UserType.EmployeeUser).ordinal(),
+                        pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES),
+                        username + "@example.com", createdAt, createdAt,
+                        new UUID(random.nextLong(), random.nextLong()).toString());
+            }
+            finish(connection, writer, "users", started, counts);
+        }
+        writeIds(connection, copy, "user_profile_impl", users, counts);
+        return Arrays.copyOf(teacherIds, teacherCount);
+    }
+
+    private void writeCourses(Connection connection, boolean copy, int courses, Map<String, Long> counts)
+            throws SQLException {
+        SplittableRandom random = random("courses");
+        long started = System.nanoTime();
+        try (TableWriter writer = open(connection, copy, "courses",
+                List.of("id", "title", "body", "created_at", "updated_at"))) {
+            for (int id = 1; id <= courses; id++) {
+                LocalDateTime createdAt = timestamp(random);
+                writer.row(id, pick(random, TOPICS) + " " + pick(random, LEVELS), sentence(random, 30),
+                        createdAt, createdAt);
+            }
+            finish(connection, writer, "courses", started, counts);
+        }
+        writeIds(connection, copy, "course_entity_impl", courses, counts);
+    }
+
+    private void writeModules(Connection connection, boolean copy, int[] modulesPerCourse,
+            Map<String, Long> counts) throws SQLException {
+        SplittableRandom random = random("modules");
+        long started = System.nanoTime();
+        int id = 0;
+        try (TableWriter writer = open(connection, copy, "modules",
+                List.of("id", "course_id", "title", "body", "weight", "created_at", "updated_at"))) {
+            for (int course = 0; course < modulesPerCourse.length; course++) {
+                for (int i = 0; i < modulesPerCourse[course]; i++) {
+                    LocalDateTime createdAt = timestamp(random);
+                    writer.row(++id, course + 1, "Module " + (i + 1) + ": " + capitalize(pick(random, WORDS)),
+                            sentence(random, 20), 1.0, createdAt, createdAt);
+                }
+            }
+            finish(connection, writer, "modules", started, counts);
+        }
+        writeIds(connection, copy, "module_entity_impl", id, counts);
+    }
+
+    /**
+     * Writes content in module order, then replays the same random stream to
+     * write the options of question content. The two passes are needed because
+     * a connection can only run one COPY at a time.
+     */
+    private void writeContents(Connection connection, boolean copy, int[] contentsPerModule,
+            Map<String, Long> counts) throws SQLException {
+        long started = System.nanoTime();
+        int[] total = new int[1];
+        try (TableWriter writer = open(connection, copy, "contents",
+                List.of("id", "module_id", "title", "body", "question_text", "correct_answer", "is_complete",
+                        "created_at", "updated_at"))) {
+            forEachContent(contentsPerModule, (id, moduleId, question, title, text, options, correct, createdAt) -> {
+                writer.row(id, moduleId, title, question ? null : text, question ? text : null,
+                        question ? correct : null, false, createdAt, createdAt);
+                total[0] = id;
+            });
+            finish(connection, writer, "contents", started, counts);
+        }
+        writeIds(connection, copy, "content_entity_impl", total[0], counts);
+
+        started = System.nanoTime();
+        try (TableWriter writer = open(connection, copy, "content_options", List.of("content_id", "option_text"))) {
+            forEachContent(contentsPerModule, (id, moduleId, question, title, text, options, correct, createdAt) -> {
+                if (question) {
+                    for (String option : options) {
+                        writer.row(id, option);
+                    }
+                }
+            });
+            finish(connection, writer, "content_options", started, counts);
+        }
+    }
+
+    private void forEachContent(int[] contentsPerModule, ContentVisitor visitor) throws SQLException {
+        SplittableRandom random = random("contents");
+        int id = 0;
+        int optionCount = config.getOptionsPerQuestion();
+        for (int module = 0; module < contentsPerModule.length; module++) {
+            for (int i = 0; i < contentsPerModule[module]; i++) {
+                boolean question = random.nextDouble() < config.getQuestionRatio();
+                LocalDateTime createdAt = timestamp(random);
+                if (question) {
+                    String[] options = new String[optionCount];
+                    for (int o = 0; o < optionCount; o++) {
+                        options[o] = capitalize(pick(random, WORDS)) + " " + pick(random, WORDS) + " " + (o + 1);
+                    }
+                    String correct = options[random.nextInt(optionCount)];
+                    visitor.visit(++id, module + 1, true, "Check your understanding " + (i + 1),
+                            "Which " + pick(random, WORDS) + " applies to the " + pick(random, WORDS) + "?",
+                            options, correct, createdAt);
+                } else {
+                    visitor.visit(++id, module + 1, false, capitalize(pick(random, WORDS)) + " overview " + (i + 1),
+                            sentence(random, 60), null, null, createdAt);
+                }
+            }
+        }
+    }
+
+    private void writeTeachers(Connection connection, boolean copy, int courses, int[] teacherIds,
+            Map<String, Long> counts) throws SQLException {
+        SplittableRandom random = random("course_teachers");
+        long started = System.nanoTime();
+        try (TableWriter writer = open(connection, copy, "course_teachers",
+                List.of("course_id", "supabase_user_id"))) {
+            if (teacherIds.length > 0) {
+                int[] chosen = new int[3];
+                for (int course = 1; course <= courses; course++) {
+                    int wanted = Math.min(1 + random.nextInt(3), teacherIds.length);
+                    int count = 0;
+                    while (count < wanted) {
+                        int teacher = teacherIds[random.nextInt(teacherIds.length)];
+                        if (!contains(chosen, count, teacher)) {
+                            chosen[count++] = teacher;
+                            writer.row(course, teacher);
+                        }
+                    }
+                }
+            }
+            finish(connection, writer, "course_teachers", started, counts);
+        }
+    }
+
+    /**
+     * Enrolls every non-teacher in a geometrically distributed number of
+     * courses, chosen by Zipf popularity over a shuffled course order
+     */
+    private void writeStudents(Connection connection, boolean copy, int users, int courses, BitSet teachers,
+            Map<String, Long> counts) throws SQLException {
+        SplittableRandom random = random("course_students");
+        int[] courseByRank = new int[courses];
+        for (int i = 0; i < courses; i++) {
+            courseByRank[i] = i + 1;
+        }
+        for (int i = courses - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = courseByRank[i];
+            courseByRank[i] = courseByRank[j];
+            courseByRank[j] = swap;
+        }
+        ZipfSampler popularity = new ZipfSampler(courses, config.getZipfExponent());
+        double p = 1.0 / (config.getMeanCoursesPerStudent() + 1.0);
+        int cap = Math.min(MAX_COURSES_PER_STUDENT, courses);
+        int[] chosen = new int[cap];
+
+        long started = System.nanoTime();
+        try (TableWriter writer = open(connection, copy, "course_students",
+                List.of("course_id", "supabase_user_id"))) {
+            for (int user = 1; user <= users; user++) {
+                if (teachers.get(user)) {
+                    continue;
+                }
+                int wanted = Math.min(cap, (int) (Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p)));
+                int count = 0;
+                while (count < wanted) {
+                    int course = courseByRank[popularity.sample(random)];
+                    if (!contains(chosen, count, course)) {
+                        chosen[count++] = course;
+                        writer.row(course, user);
+                    }
+                }
+            }
+            finish(connection, writer, "course_students", started, counts);
+        }
+    }
+
+    private void writeIds(Connection connection, boolean copy, String table, int count, Map<String, Long> counts)
+            throws SQLException {
+        long started = System.nanoTime();
+        try (TableWriter writer = open(connection, copy, table, List.of("id"))) {
+            for (int id = 1; id <= count; id++) {
+                writer.row(id);
+            }
+            finish(connection, writer, table, started, counts);
+        }
+    }
+
+    private TableWriter open(Connection connection, boolean copy, String table, List<String> columns)
+            throws SQLException {
+        return copy ? new CopyTableWriter(connection, table, columns)
+                : new BatchTableWriter(connection, table, columns, config.getBatchSize());
+    }
+
+    private static void finish(Connection connection, TableWriter writer, String table, long started,
+            Map<String, Long> counts) throws SQLException {
+        writer.close();
+        connection.commit();
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        logger.info("Wrote {} rows to {} in {} ms ({} rows/s)", writer.getRows(), table, millis,
+                writer.getRows() * 1000 / millis);
+        counts.put(table, writer.getRows());
+    }
+
+    /**
+     * Moves the identity column past the generated ids so rows created through
+     * the API do not collide with them
+     */
+    private static void restartIdentity(Connection connection, String table, int maxId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+        }
+    }
+
+    /**
+     * Spreads 'total' items over 'buckets' uniformly at random
+     */
+    private static int[] distribute(int total, int buckets, SplittableRandom random) {
+        int[] counts = new int[buckets];
+        for (int i = 0; i < total; i++) {
+            counts[random.nextInt(buckets)]++;
+        }
+        return counts;
+    }
+
+    private SplittableRandom random(String stream) {
+        return new SplittableRandom(config.getSeed() ^ (stream.hashCode() * 0x9E3779B97F4A7C15L));
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime timestamp(SplittableRandom random) {
+        return EPOCH.plusMinutes(random.nextInt(TWO_YEARS_IN_MINUTES));
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String sentence(SplittableRandom random, int words) {
+        StringBuilder sentence = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(pick(random, WORDS));
+        }
+        return capitalize(sentence.append('.').toString());
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    @FunctionalInterface
+    private interface ContentVisitor {
+        void visit(int id, int moduleId, boolean question, String title, String text, String[] options,
+                String correct, LocalDateTime createdAt) throws SQLException;
+    }
+}
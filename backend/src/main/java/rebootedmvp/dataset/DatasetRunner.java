@@ -0,0 +1,40 @@
+package rebootedmvp.dataset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the dataset generator when the application is started with the
+ * "dataset" profile and exits once it has finished
+ */
+@Component
+@Profile("dataset")
+public class DatasetRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetRunner.class);
+
+    @Autowired
+    private DatasetGenerator generator;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Override
+    public void run(String... args) throws Exception {
+        int exitCode = 0;
+        try {
+            generator.generate();
+        } catch (Exception e) {
+            logger.error("Dataset generation failed: {}", e.getMessage(), e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
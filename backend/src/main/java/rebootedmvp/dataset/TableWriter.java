@@ -0,0 +1,18 @@
+package rebootedmvp.dataset;
+
+import java.sql.SQLException;
+
+/**
+ * Bulk writer for the rows of one table. Values are passed in the column order
+ * given when the writer was opened. close() writes any buffered rows and may be
+ * called more than once; the caller commits.
+ */
+public interface TableWriter extends AutoCloseable {
+
+    void row(Object... values) throws SQLException;
+
+    long getRows();
+
+    @Override
+    void close() throws SQLException;
+}
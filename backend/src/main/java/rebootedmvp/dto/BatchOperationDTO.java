@@ -0,0 +1,106 @@
+package rebootedmvp.dto;
+
+import java.util.List;
+
+/**
+ * A single sub-operation of a batch request. 'op' selects the operation (for
+ * example "createModule") and the remaining fields carry its arguments. The id
+ * fields accept either a numeric id or "$name" to refer to the id created by an
+ * earlier operation in the same batch that declared 'ref' as "name".
+ */
+public class BatchOperationDTO {
+
+    private String op;
+    private String ref;
+    private String id;
+    private String courseId;
+    private String moduleId;
+    private String type;
+    private String title;
+    private String body;
+    private List<String> options;
+    private String correctAnswer;
+
+    public BatchOperationDTO() {
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public void setRef(String ref) {
+        this.ref = ref;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getModuleId() {
+        return moduleId;
+    }
+
+    public void setModuleId(String moduleId) {
+        this.moduleId = moduleId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+
+    public String getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    public void setCorrectAnswer(String correctAnswer) {
+        this.correctAnswer = correctAnswer;
+    }
+}
@@ -0,0 +1,24 @@
+package rebootedmvp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchRequestDTO {
+
+    private List<BatchOperationDTO> operations = new ArrayList<>();
+
+    public BatchRequestDTO() {
+    }
+
+    public BatchRequestDTO(List<BatchOperationDTO> operations) {
+        this.operations = operations;
+    }
+
+    public List<BatchOperationDTO> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperationDTO> operations) {
+        this.operations = operations;
+    }
+}
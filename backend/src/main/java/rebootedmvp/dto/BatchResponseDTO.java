@@ -0,0 +1,48 @@
+package rebootedmvp.dto;
+
+import java.util.List;
+
+public class BatchResponseDTO {
+
+    private boolean committed;
+    private List<BatchResultDTO> results;
+    private String error;
+
+    public BatchResponseDTO() {
+    }
+
+    public BatchResponseDTO(boolean committed, List<BatchResultDTO> results) {
+        this.committed = committed;
+        this.results = results;
+    }
+
+    public BatchResponseDTO(boolean committed, List<BatchResultDTO> results, String error) {
+        this.committed = committed;
+        this.results = results;
+        this.error = error;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public List<BatchResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchResultDTO> results) {
+        this.results = results;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,75 @@
+package rebootedmvp.dto;
+
+/**
+ * The outcome of one operation in a batch. 'status' is one of "ok", "failed"
+ * or "skipped" (not attempted because an earlier operation failed).
+ */
+public class BatchResultDTO {
+
+    private int index;
+    private String op;
+    private String ref;
+    private String status;
+    private Long id;
+    private String error;
+
+    public BatchResultDTO() {
+    }
+
+    public BatchResultDTO(int index, String op, String ref, String status, Long id, String error) {
+        this.index = index;
+        this.op = op;
+        this.ref = ref;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public void setOp(String op) {
+        this.op = op;
+    }
+
+    public String getRef() {
+        return ref;
+    }
+
+    public void setRef(String ref) {
+        this.ref = ref;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
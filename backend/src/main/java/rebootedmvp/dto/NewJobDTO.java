@@ -0,0 +1,36 @@
+package rebootedmvp.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A job to run in the background. 'params' depends on the type.
+ */
+public class NewJobDTO {
+
+    private String type;
+    private JsonNode params;
+
+    public NewJobDTO() {
+    }
+
+    public NewJobDTO(String type, JsonNode params) {
+        this.type = type;
+        this.params = params;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public JsonNode getParams() {
+        return params;
+    }
+
+    public void setParams(JsonNode params) {
+        this.params = params;
+    }
+}
@@ -0,0 +1,77 @@
+package rebootedmvp.dto;
+
+import java.time.Instant;
+
+/**
+ * A Flight Recorder recording started through the admin endpoint. 'state' is
+ * the jdk.jfr.RecordingState name (RUNNING, STOPPED, ...).
+ */
+public class RecordingDTO {
+
+    private long id;
+    private String name;
+    private String state;
+    private Instant startTime;
+    private Instant stopTime;
+    private long size;
+
+    public RecordingDTO() {
+    }
+
+    public RecordingDTO(long id, String name, String state, Instant startTime, Instant stopTime, long size) {
+        this.id = id;
+        this.name = name;
+        this.state = state;
+        this.startTime = startTime;
+        this.stopTime = stopTime;
+        this.size = size;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Instant getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Instant startTime) {
+        this.startTime = startTime;
+    }
+
+    public Instant getStopTime() {
+        return stopTime;
+    }
+
+    public void setStopTime(Instant stopTime) {
+        this.stopTime = stopTime;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+}
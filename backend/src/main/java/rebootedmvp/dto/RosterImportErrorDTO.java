@@ -0,0 +1,45 @@
+package rebootedmvp.dto;
+
+/**
+ * A CSV row that was not imported. 'line' is the line the row starts on,
+ * counting the header as line 1.
+ */
+public class RosterImportErrorDTO {
+
+    private long line;
+    private String username;
+    private String error;
+
+    public RosterImportErrorDTO() {
+    }
+
+    public RosterImportErrorDTO(long line, String username, String error) {
+        this.line = line;
+        this.username = username;
+        this.error = error;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,77 @@
+package rebootedmvp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a CSV roster import. 'rows' counts the data rows read, of
+ * which 'failed' were skipped; 'errors' lists the first of them. 'complete'
+ * is false if the file could not be read to the end, in which case the rows
+ * before the error are still imported.
+ */
+public class RosterImportResultDTO {
+
+    private long rows;
+    private long created;
+    private long existing;
+    private long enrolled;
+    private long failed;
+    private boolean complete = true;
+    private List<RosterImportErrorDTO> errors = new ArrayList<>();
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getExisting() {
+        return existing;
+    }
+
+    public void setExisting(long existing) {
+        this.existing = existing;
+    }
+
+    public long getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(long enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public List<RosterImportErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RosterImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
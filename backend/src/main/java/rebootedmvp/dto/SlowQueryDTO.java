@@ -0,0 +1,99 @@
+package rebootedmvp.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement retained by the slow-query log. 'plan' is the EXPLAIN ANALYZE
+ * output if the statement was sampled for a plan, otherwise null.
+ */
+public class SlowQueryDTO {
+
+    private String sql;
+    private List<String> binds;
+    private long durationMillis;
+    private Instant executedAt;
+    private String repositoryMethod;
+    private String caller;
+    private String thread;
+    private String plan;
+
+    public SlowQueryDTO() {
+    }
+
+    public SlowQueryDTO(String sql, List<String> binds, long durationMillis, Instant executedAt,
+            String repositoryMethod, String caller, String thread, String plan) {
+        this.sql = sql;
+        this.binds = binds;
+        this.durationMillis = durationMillis;
+        this.executedAt = executedAt;
+        this.repositoryMethod = repositoryMethod;
+        this.caller = caller;
+        this.thread = thread;
+        this.plan = plan;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public List<String> getBinds() {
+        return binds;
+    }
+
+    public void setBinds(List<String> binds) {
+        this.binds = binds;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public Instant getExecutedAt() {
+        return executedAt;
+    }
+
+    public void setExecutedAt(Instant executedAt) {
+        this.executedAt = executedAt;
+    }
+
+    public String getRepositoryMethod() {
+        return repositoryMethod;
+    }
+
+    public void setRepositoryMethod(String repositoryMethod) {
+        this.repositoryMethod = repositoryMethod;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public void setCaller(String caller) {
+        this.caller = caller;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public void setThread(String thread) {
+        this.thread = thread;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
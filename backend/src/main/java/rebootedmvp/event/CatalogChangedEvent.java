@@ -0,0 +1,138 @@
+package rebootedmvp.event;
+
+/**
+ * Published by the services whenever a course, module, content item, user or
+ * course membership is created, updated or deleted. Listeners that depend on
+ * the committed state should use @TransactionalEventListener.
+ *
+ * A module change carries its course, and a content change its module and,
+ * when known, its course, so caches can drop only the entries it affects.
+ *
+ * Remote events describe a change committed on another instance and are
+ * published by the InvalidationBus. A flush event has no entity type and means
+ * that any cached state may be stale.
+ */
+public class CatalogChangedEvent {
+
+    public enum EntityType {
+        COURSE,
+        MODULE,
+        CONTENT,
+        // 'id' is null when several users were created at once
+        USER,
+        // 'id' is the course's
+        MEMBERSHIP
+    }
+
+    private final EntityType entityType;
+    private final Long id;
+    private final Long courseId;
+    private final Long moduleId;
+    private final boolean remote;
+
+    public CatalogChangedEvent(EntityType entityType, Long id) {
+        this(entityType, id, null, null, false);
+    }
+
+    /**
+     * 'courseId' and 'moduleId' are the changed entity's course and module,
+     * or null when unknown. For courses and memberships the course is 'id'.
+     */
+    public CatalogChangedEvent(EntityType entityType, Long id, Long courseId, Long moduleId, boolean remote) {
+        this.entityType = entityType;
+        this.id = id;
+        this.courseId = entityType == EntityType.COURSE || entityType == EntityType.MEMBERSHIP ? id : courseId;
+        this.moduleId = moduleId;
+        this.remote = remote;
+    }
+
+    public static CatalogChangedEvent module(Long courseId, Long moduleId) {
+        return new CatalogChangedEvent(EntityType.MODULE, moduleId, courseId, null, false);
+    }
+
+    /**
+     * 'courseId' may be null when only the module is known
+     */
+    public static CatalogChangedEvent content(Long courseId, Long moduleId, Long contentId) {
+        return new CatalogChangedEvent(EntityType.CONTENT, contentId, courseId, moduleId, false);
+    }
+
+    /**
+     * Returns a remote event for changes that were missed, e.g. while the
+     * invalidation bus was disconnected
+     */
+    public static CatalogChangedEvent flush() {
+        return new CatalogChangedEvent(null, null, null, null, true);
+    }
+
+    /**
+     * Returns true if this change may alter a result about 'scope'. The ids
+     * are compared on every level where both the change and the scope name
+     * one, so a result that names nothing, like a list of every course, is
+     * always affected. A course or module change therefore also reaches
+     * results below it that do not name their parent, e.g. GET
+     * /api/content/{id} after its module was deleted.
+     *
+     * Membership changes only reach results that name no module or content,
+     * since only course summaries count teachers and students. User changes
+     * reach nothing: catalog results only show users through their
+     * enrollments, which are published as membership changes.
+     */
+    public boolean affects(CatalogScope scope) {
+        if (isFlush()) {
+            return true;
+        }
+        if (entityType == EntityType.USER) {
+            return false;
+        }
+        if (entityType == EntityType.MEMBERSHIP) {
+            return scope.moduleId() == null && scope.contentId() == null && matches(courseId, scope.courseId());
+        }
+        Long changedModule = entityType == EntityType.MODULE ? id : moduleId;
+        Long changedContent = entityType == EntityType.CONTENT ? id : null;
+        return matches(courseId, scope.courseId()) && matches(changedModule, scope.moduleId())
+                && matches(changedContent, scope.contentId());
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the course the changed entity belongs to, or null when unknown
+     */
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    /**
+     * Returns the module of a changed content item, or null
+     */
+    public Long getModuleId() {
+        return moduleId;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    public boolean isFlush() {
+        return entityType == null;
+    }
+
+    @Override
+    public String toString() {
+        if (isFlush()) {
+            return "CatalogChangedEvent{flush}";
+        }
+        return "CatalogChangedEvent{" + entityType + " " + id + (remote ? " remote" : "") + "}";
+    }
+
+    private static boolean matches(Long changed, Long named) {
+        return changed == null || named == null || changed.equals(named);
+    }
+}
@@ -0,0 +1,30 @@
+package rebootedmvp.event;
+
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+
+/**
+ * The course, module and content item a cached result is about, as named by
+ * its request path or arguments. A null id means the result does not name
+ * one: a module's content list names no content item, and a list of every
+ * course names nothing at all.
+ */
+public record CatalogScope(Long courseId, Long moduleId, Long contentId) {
+
+    /**
+     * A result that names nothing, e.g. a list of every course
+     */
+    public static final CatalogScope GLOBAL = new CatalogScope(null, null, null);
+
+    /**
+     * Returns the scope of a result about the course, module or content item
+     * 'id', or GLOBAL for other entity types
+     */
+    public static CatalogScope of(EntityType entityType, Long id) {
+        return switch (entityType) {
+            case COURSE -> new CatalogScope(id, null, null);
+            case MODULE -> new CatalogScope(null, id, null);
+            case CONTENT -> new CatalogScope(null, null, id);
+            default -> GLOBAL;
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package rebootedmvp.event;
+
+/**
+ * Published by the services, next to CatalogChangedEvent, for changes that
+ * are pushed to the course's live event stream: course edits, membership
+ * changes, module and content edits, and content completion. 'courseId' is
+ * null when only the module is known; subscribers resolve it from 'moduleId'.
+ */
+public class CourseActivityEvent {
+
+    public enum Type {
+        COURSE,
+        MEMBERSHIP,
+        MODULE,
+        CONTENT,
+        PROGRESS
+    }
+
+    private final Type type;
+    private final String action;
+    private final Long courseId;
+    private final Long moduleId;
+    private final Long contentId;
+    private final String userId;
+    private final String role;
+
+    private CourseActivityEvent(Type type, String action, Long courseId, Long moduleId, Long contentId,
+            String userId, String role) {
+        this.type = type;
+        this.action = action;
+        this.courseId = courseId;
+        this.moduleId = moduleId;
+        this.contentId = contentId;
+        this.userId = userId;
+        this.role = role;
+    }
+
+    public static CourseActivityEvent course(Long courseId, String action) {
+        return new CourseActivityEvent(Type.COURSE, action, courseId, null, null, null, null);
+    }
+
+    /**
+     * 'userId' is null when several users were added at once
+     */
+    public static CourseActivityEvent membership(Long courseId, String action, String userId, String role) {
+        return new CourseActivityEvent(Type.MEMBERSHIP, action, courseId, null, null, userId, role);
+    }
+
+    public static CourseActivityEvent module(Long courseId, Long moduleId, String action) {
+        return new CourseActivityEvent(Type.MODULE, action, courseId, moduleId, null, null, null);
+    }
+
+    public static CourseActivityEvent content(Long courseId, Long moduleId, Long contentId, String action) {
+        return new CourseActivityEvent(Type.CONTENT, action, courseId, moduleId, contentId, null, null);
+    }
+
+    public static CourseActivityEvent progress(Long moduleId, Long contentId, boolean complete) {
+        return new CourseActivityEvent(Type.PROGRESS, complete ? "completed" : "reopened", null, moduleId,
+                contentId, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public Long getModuleId() {
+        return moduleId;
+    }
+
+    public Long getContentId() {
+        return contentId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String toString() {
+        return "CourseActivityEvent{" + type + " " + action + " course " + courseId + "}";
+    }
+}
@@ -0,0 +1,78 @@
+package rebootedmvp.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes rows as RFC 4180 CSV in UTF-8, with a header line of column names.
+ * Fields are quoted only when they contain a comma, quote or line break.
+ * Output is buffered in BUFFER_SIZE chunks, so a streamed response is sent as
+ * it fills up rather than row by row.
+ */
+public class CsvRowWriter implements RowWriter {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final Writer writer;
+    private long rows;
+
+    public CsvRowWriter(OutputStream out, List<ExportColumn> columns) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        Object[] header = new Object[columns.size()];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = columns.get(i).getName();
+        }
+        writeRecord(header);
+    }
+
+    @Override
+    public void write(Object[] row) throws IOException {
+        writeRecord(row);
+        rows++;
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Flushes the buffered rows; the stream belongs to the caller
+     */
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void writeRecord(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeField(values[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
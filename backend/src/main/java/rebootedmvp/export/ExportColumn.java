@@ -0,0 +1,45 @@
+package rebootedmvp.export;
+
+/**
+ * A named, typed column of an export. The type decides how values are
+ * encoded in columnar formats; CSV writes every value as text.
+ */
+public class ExportColumn {
+
+    public enum Type {
+        // Long values
+        INTEGER,
+        // Double values
+        DECIMAL,
+        // String values
+        TEXT
+    }
+
+    private final String name;
+    private final Type type;
+
+    public ExportColumn(String name, Type type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public static ExportColumn integer(String name) {
+        return new ExportColumn(name, Type.INTEGER);
+    }
+
+    public static ExportColumn decimal(String name) {
+        return new ExportColumn(name, Type.DECIMAL);
+    }
+
+    public static ExportColumn text(String name) {
+        return new ExportColumn(name, Type.TEXT);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
@@ -0,0 +1,63 @@
+package rebootedmvp.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+
+import rebootedmvp.config.ExportConfig;
+
+/**
+ * The file formats exports are written in
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv", false),
+    PARQUET("application/vnd.apache.parquet", "parquet", true);
+
+    private final String mediaType;
+    private final String extension;
+    private final boolean compressed;
+
+    ExportFormat(String mediaType, String extension, boolean compressed) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Returns the format named 'name', e.g. csv. Throws:
+     * IllegalArgumentException if there is none.
+     */
+    public static ExportFormat of(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equals(name.toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + name + ", expected csv or parquet");
+    }
+
+    public RowWriter open(OutputStream out, List<ExportColumn> columns, ExportConfig config) throws IOException {
+        return switch (this) {
+            case CSV -> new CsvRowWriter(out, columns);
+            case PARQUET -> new ParquetRowWriter(out, columns, config.getParquetRowGroupBytes());
+        };
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns whether the format compresses its own data, so gzip would not
+     * make it smaller
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+}
@@ -0,0 +1,208 @@
+package rebootedmvp.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+
+/**
+ * Writes rows as a Snappy-compressed Parquet file, straight to a stream. Rows
+ * are buffered column by column until a row group of about 'rowGroupBytes'
+ * is full, then written out, so memory use is bounded by the row group size
+ * rather than the number of rows. The file's footer is written on close.
+ *
+ * Every column is optional: INTEGER as INT64, DECIMAL as DOUBLE and TEXT as
+ * UTF-8 strings.
+ */
+public class ParquetRowWriter implements RowWriter {
+
+    private final ParquetWriter<Object[]> writer;
+    private long rows;
+
+    public ParquetRowWriter(OutputStream out, List<ExportColumn> columns, long rowGroupBytes) throws IOException {
+        this.writer = new Builder(new StreamOutputFile(out), columns)
+                .withConf(new PlainParquetConfiguration())
+                .withCompressionCodec(CompressionCodecName.SNAPPY)
+                .withRowGroupSize(rowGroupBytes)
+                .build();
+    }
+
+    @Override
+    public void write(Object[] row) throws IOException {
+        writer.write(row);
+        rows++;
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static MessageType schema(List<ExportColumn> columns) {
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (ExportColumn column : columns) {
+            switch (column.getType()) {
+                case INTEGER -> builder.optional(PrimitiveTypeName.INT64).named(column.getName());
+                case DECIMAL -> builder.optional(PrimitiveTypeName.DOUBLE).named(column.getName());
+                case TEXT -> builder.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType())
+                        .named(column.getName());
+            }
+        }
+        return builder.named("row");
+    }
+
+    private static class Builder extends ParquetWriter.Builder<Object[], Builder> {
+
+        private final List<ExportColumn> columns;
+
+        Builder(OutputFile file, List<ExportColumn> columns) {
+            super(file);
+            this.columns = columns;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Object[]> getWriteSupport(Configuration conf) {
+            return new RowWriteSupport(columns);
+        }
+
+        @Override
+        protected WriteSupport<Object[]> getWriteSupport(ParquetConfiguration conf) {
+            return new RowWriteSupport(columns);
+        }
+    }
+
+    private static class RowWriteSupport extends WriteSupport<Object[]> {
+
+        private final List<ExportColumn> columns;
+        private final MessageType schema;
+        private RecordConsumer consumer;
+
+        RowWriteSupport(List<ExportColumn> columns) {
+            this.columns = columns;
+            this.schema = schema(columns);
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(schema, new HashMap<>());
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration configuration) {
+            return new WriteContext(schema, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Object[] row) {
+            consumer.startMessage();
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null) {
+                    // Optional fields are left out rather than written as null
+                    continue;
+                }
+                ExportColumn column = columns.get(i);
+                consumer.startField(column.getName(), i);
+                switch (column.getType()) {
+                    case INTEGER -> consumer.addLong(((Number) row[i]).longValue());
+                    case DECIMAL -> consumer.addDouble(((Number) row[i]).doubleValue());
+                    case TEXT -> consumer.addBinary(Binary.fromString(row[i].toString()));
+                }
+                consumer.endField(column.getName(), i);
+            }
+            consumer.endMessage();
+        }
+    }
+
+    /**
+     * A Parquet output file over a stream that cannot seek, such as a
+     * response body. Closing it flushes the stream but leaves it open.
+     */
+    private static class StreamOutputFile implements OutputFile {
+
+        private final OutputStream out;
+
+        StreamOutputFile(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                    position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    out.flush();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package rebootedmvp.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes export rows to a stream in one file format. Rows hold one value per
+ * column, of the column's type, or null. Closing the writer completes the
+ * file but leaves the underlying stream open.
+ */
+public interface RowWriter extends Closeable {
+
+    void write(Object[] row) throws IOException;
+
+    /**
+     * Returns the number of rows written so far
+     */
+    long getRows();
+}
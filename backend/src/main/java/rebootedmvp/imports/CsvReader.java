@@ -0,0 +1,162 @@
+package rebootedmvp.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time: fields separated by commas,
+ * optionally quoted with '"', with "" for a quote and line breaks allowed
+ * inside quotes. A byte order mark at the start of the input is skipped. Only
+ * the current record is held in memory, and records
+ * longer than 'maxRecordChars' are rejected, so reading a file of any size
+ * needs constant memory.
+ */
+public class CsvReader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final int maxRecordChars;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+
+    public CsvReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    /**
+     * Returns the fields of the next record, or null at the end of the input.
+     * Blank lines are skipped. Throws: CsvException if the record is malformed
+     * or too long; the rest of the input cannot be read after that.
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        while (c == '\r' || c == '\n') {
+            newline(c);
+            c = read();
+        }
+        if (c < 0) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        int length = 0;
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            // The line break or end of input that ends the record is not counted
+            if (c >= 0 && (quoted || (c != '\r' && c != '\n')) && ++length > maxRecordChars) {
+                throw new CsvException(recordLine, "Record is longer than " + maxRecordChars + " characters");
+            }
+            if (quoted) {
+                if (c < 0) {
+                    throw new CsvException(recordLine, "Quoted field is not closed");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                        c = read();
+                    } else {
+                        quoted = false;
+                    }
+                    continue;
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+                c = read();
+                continue;
+            }
+            if (c == ',' || c == '\r' || c == '\n' || c < 0) {
+                fields.add(field.toString());
+                field.setLength(0);
+                if (c != ',') {
+                    if (c >= 0) {
+                        newline(c);
+                    }
+                    return fields;
+                }
+                wasQuoted = false;
+            } else if (c == '"' && field.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (wasQuoted) {
+                throw new CsvException(recordLine, "Unexpected character after a quoted field");
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Returns the line the last record returned by next() started on
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Consumes the line break that starts with 'c', which may be \r\n
+     */
+    private void newline(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = read();
+            if (next >= 0 && next != '\n') {
+                position--;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            int count = reader.read(buffer, 0, buffer.length);
+            if (count <= 0) {
+                return -1;
+            }
+            position = 0;
+            limit = count;
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * A record that is not valid CSV
+     */
+    public static class CsvException extends IOException {
+
+        private final long line;
+
+        public CsvException(long line, String message) {
+            super("Line " + line + ": " + message);
+            this.line = line;
+        }
+
+        public long getLine() {
+            return line;
+        }
+    }
+}
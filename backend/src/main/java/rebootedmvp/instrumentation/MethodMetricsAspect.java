@@ -0,0 +1,56 @@
+package rebootedmvp.instrumentation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Times every public method of the catalog and membership services and every
+ * repository query with MethodTimer
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "method-metrics", name = "enabled", matchIfMissing = true)
+public class MethodMetricsAspect {
+
+    @Autowired
+    private MethodTimer methodTimer;
+
+    // Repository calls are made through proxies; this resolves the proxy class
+    // to the application's repository interface, e.g. ContentRepository
+    private final Map<Class<?>, Class<?>> repositories = new ConcurrentHashMap<>();
+
+    @Around("execution(public * *(..)) && ("
+            + "within(rebootedmvp.service.ContentService) || within(rebootedmvp.service.ModuleService) || "
+            + "within(rebootedmvp.service.CourseService) || within(rebootedmvp.service.RosterService) || "
+            + "within(rebootedmvp.service.CourseMembershipService) || within(rebootedmvp.service.UserProfileService))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        return methodTimer.time("service", signature.getDeclaringType(), signature.getMethod(),
+                joinPoint::proceed);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..)) && this(proxy)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint, Object proxy) throws Throwable {
+        Class<?> repository = repositories.computeIfAbsent(proxy.getClass(), MethodMetricsAspect::repositoryInterface);
+        return methodTimer.time("repository", repository, ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                joinPoint::proceed);
+    }
+
+    private static Class<?> repositoryInterface(Class<?> proxyClass) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(proxyClass)) {
+            if (type.getName().startsWith("rebootedmvp.repository.")) {
+                return type;
+            }
+        }
+        return proxyClass;
+    }
+}
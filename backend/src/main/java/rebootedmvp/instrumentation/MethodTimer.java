@@ -0,0 +1,107 @@
+package rebootedmvp.instrumentation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times method calls into the "method.calls" timer, tagged with layer, class,
+ * method, entity, outcome (SUCCESS, CLIENT_ERROR or SERVER_ERROR) and
+ * exception. Timers are created once per class, method and exception type, so
+ * a call only pays for two clock reads and a histogram update.
+ */
+public class MethodTimer {
+
+    /**
+     * The call being timed
+     */
+    @FunctionalInterface
+    public interface Invocation {
+        Object proceed() throws Throwable;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final boolean percentileHistogram;
+    private final Map<Class<?>, Map<Method, Meters>> meters = new ConcurrentHashMap<>();
+
+    public MethodTimer(MeterRegistry meterRegistry, boolean percentileHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /**
+     * Runs 'invocation' and records its duration against 'method' of 'type'
+     */
+    public Object time(String layer, Class<?> type, Method method, Invocation invocation) throws Throwable {
+        Meters methodMeters = meters.computeIfAbsent(type, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, k -> new Meters(layer, type, method));
+        long started = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            methodMeters.success.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            methodMeters.failure(e).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * Derives the entity tag from a class name, e.g. "CourseMembershipService"
+     * becomes "course_membership"
+     */
+    static String entity(Class<?> type) {
+        String name = type.getSimpleName().replaceFirst("(Service|Repository)$", "");
+        return name.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            return "CLIENT_ERROR";
+        }
+        if (e instanceof ResponseStatusException && ((ResponseStatusException) e).getStatusCode().is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        return "SERVER_ERROR";
+    }
+
+    private class Meters {
+
+        private final String layer;
+        private final String type;
+        private final String method;
+        private final String entity;
+        private final Timer success;
+        private final Map<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+
+        Meters(String layer, Class<?> type, Method method) {
+            this.layer = layer;
+            this.type = type.getSimpleName();
+            this.method = method.getName();
+            this.entity = entity(type);
+            this.success = timer("SUCCESS", "none");
+        }
+
+        Timer failure(Throwable e) {
+            return failures.computeIfAbsent(e.getClass(), k -> timer(outcome(e), k.getSimpleName()));
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder("method.calls")
+                    .tag("layer", layer)
+                    .tag("class", type)
+                    .tag("method", method)
+                    .tag("entity", entity)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(meterRegistry);
+        }
+    }
+}
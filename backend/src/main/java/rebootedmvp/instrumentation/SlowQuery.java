@@ -0,0 +1,74 @@
+package rebootedmvp.instrumentation;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One statement that exceeded the slow-query threshold. 'plan' is filled in
+ * later by the background EXPLAIN when the statement was sampled.
+ */
+public class SlowQuery {
+
+    private final String sql;
+    private final List<String> binds;
+    private final long durationMillis;
+    private final Instant executedAt;
+    private final String repositoryMethod;
+    private final String caller;
+    private final String thread;
+    private volatile String plan;
+
+    SlowQuery(String sql, List<String> binds, long durationMillis, String repositoryMethod, String caller,
+            String thread) {
+        this.sql = sql;
+        this.binds = binds;
+        this.durationMillis = durationMillis;
+        this.executedAt = Instant.now();
+        this.repositoryMethod = repositoryMethod;
+        this.caller = caller;
+        this.thread = thread;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<String> getBinds() {
+        return binds;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public Instant getExecutedAt() {
+        return executedAt;
+    }
+
+    /**
+     * The Spring Data repository method that ran the statement, e.g.
+     * "CourseRepository.findById", or null if it did not come from one
+     */
+    public String getRepositoryMethod() {
+        return repositoryMethod;
+    }
+
+    /**
+     * The innermost application frame, e.g. "RosterService.findAll:57"
+     */
+    public String getCaller() {
+        return caller;
+    }
+
+    public String getThread() {
+        return thread;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,306 @@
+package rebootedmvp.instrumentation;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import rebootedmvp.config.SlowQueryConfig;
+import rebootedmvp.dto.SlowQueryDTO;
+
+/**
+ * Logs JDBC statements that take at least slow-query.threshold-millis, with
+ * their bind values and the repository method and application frame that ran
+ * them. The stack is only walked for slow statements, so fast ones cost one
+ * comparison.
+ *
+ * A sample of slow SELECTs is re-run as EXPLAIN ANALYZE (with BUFFERS on
+ * PostgreSQL) on a single background thread, in a read-only transaction that
+ * is rolled back. When the explain queue is full the sample is dropped rather
+ * than making the request wait. The slowest statements are retained in memory
+ * for the admin endpoint.
+ */
+@Component
+@ConditionalOnProperty(prefix = "slow-query", name = "enabled", matchIfMissing = true)
+public class SlowQueryLog implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final String REPOSITORY_PACKAGE = "rebootedmvp.repository.";
+    private static final String APPLICATION_PACKAGE = "rebootedmvp.";
+    private static final String INSTRUMENTATION_PACKAGE = "rebootedmvp.instrumentation.";
+
+    private static final StackWalker STACK_WALKER = StackWalker
+            .getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    // Statements run by the explain thread are not themselves logged
+    private static final ThreadLocal<Boolean> EXPLAINING = new ThreadLocal<>();
+
+    @Autowired
+    private SlowQueryConfig config;
+
+    // Lazy: this bean is looked up while the DataSource is being wrapped
+    @Autowired
+    @Lazy
+    private DataSource dataSource;
+
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    // The slowest statements seen, in no particular order; guarded by 'lock'.
+    // Recorded from JDBC calls, so this is not a monitor a virtual thread could pin on.
+    private final List<SlowQuery> retained = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile String explainPrefix;
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= config.getThresholdMillis() * 1_000_000L && EXPLAINING.get() == null;
+    }
+
+    /**
+     * Records a statement that took 'elapsedNanos'. 'binds' holds the bound
+     * values by parameter index (index 0 unused) and may be null.
+     */
+    void record(String sql, Object[] binds, long elapsedNanos) {
+        String[] origin = origin();
+        SlowQuery query = new SlowQuery(sql, formatBinds(binds), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                origin[0], origin[1], Thread.currentThread().getName());
+        logger.warn("Slow query {} ms in {}: {} binds {}", query.getDurationMillis(), describe(query), sql,
+                query.getBinds());
+        retain(query);
+
+        if (isSelect(sql) && ThreadLocalRandom.current().nextDouble() < config.getExplainSampleRate()) {
+            explainExecutor.execute(() -> explain(query, binds));
+        }
+    }
+
+    /**
+     * Returns the retained statements, slowest first
+     */
+    public List<SlowQueryDTO> getSlowest() {
+        List<SlowQuery> queries;
+        lock.lock();
+        try {
+            queries = new ArrayList<>(retained);
+        } finally {
+            lock.unlock();
+        }
+        queries.sort(Comparator.comparingLong(SlowQuery::getDurationMillis).reversed());
+        List<SlowQueryDTO> result = new ArrayList<>(queries.size());
+        for (SlowQuery query : queries) {
+            result.add(new SlowQueryDTO(query.getSql(), query.getBinds(), query.getDurationMillis(),
+                    query.getExecutedAt(), query.getRepositoryMethod(), query.getCaller(), query.getThread(),
+                    query.getPlan()));
+        }
+        return result;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            retained.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+
+    /**
+     * Keeps 'query' if there is room or it is slower than the fastest one
+     * retained, which it then replaces
+     */
+    private void retain(SlowQuery query) {
+        lock.lock();
+        try {
+            if (retained.size() < config.getRetained()) {
+                retained.add(query);
+                return;
+            }
+            int fastest = -1;
+            for (int i = 0; i < retained.size(); i++) {
+                if (fastest < 0 || retained.get(i).getDurationMillis() < retained.get(fastest).getDurationMillis()) {
+                    fastest = i;
+                }
+            }
+            if (fastest >= 0 && query.getDurationMillis() > retained.get(fastest).getDurationMillis()) {
+                retained.set(fastest, query);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void explain(SlowQuery query, Object[] binds) {
+        EXPLAINING.set(Boolean.TRUE);
+        try (Connection connection = dataSource.getConnection()) {
+            String prefix = explainPrefix(connection);
+            if (prefix.isEmpty()) {
+                return;
+            }
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(prefix + stripComment(query.getSql()))) {
+                statement.setQueryTimeout(config.getExplainTimeoutSeconds());
+                if (binds != null) {
+                    for (int i = 1; i < binds.length; i++) {
+                        statement.setObject(i, binds[i]);
+                    }
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                query.setPlan(plan.toString());
+                logger.info("Plan for slow query {} ms in {}:\n{}", query.getDurationMillis(), describe(query),
+                        plan);
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.debug("Could not explain slow query {}: {}", query.getSql(), e.getMessage());
+        } finally {
+            EXPLAINING.remove();
+        }
+    }
+
+    /**
+     * Returns the EXPLAIN prefix for the database, or "" if plans are not
+     * captured for it
+     */
+    private String explainPrefix(Connection connection) throws SQLException {
+        String prefix = explainPrefix;
+        if (prefix == null) {
+            String product = connection.getMetaData().getDatabaseProductName();
+            if ("PostgreSQL".equals(product)) {
+                prefix = "EXPLAIN (ANALYZE, BUFFERS) ";
+            } else if ("H2".equals(product)) {
+                prefix = "EXPLAIN ANALYZE ";
+            } else {
+                prefix = "";
+            }
+            explainPrefix = prefix;
+        }
+        return prefix;
+    }
+
+    /**
+     * Returns the calling repository method and innermost application frame
+     */
+    private static String[] origin() {
+        String[] origin = new String[2];
+        STACK_WALKER.walk(frames -> {
+            frames.forEach(frame -> {
+                Class<?> type = frame.getDeclaringClass();
+                if (origin[0] == null && Proxy.isProxyClass(type)) {
+                    repositoryInterface(type).ifPresent(
+                            repository -> origin[0] = repository.getSimpleName() + "." + frame.getMethodName());
+                }
+                String name = type.getName();
+                if (origin[1] == null && name.startsWith(APPLICATION_PACKAGE)
+                        && !name.startsWith(INSTRUMENTATION_PACKAGE) && !name.contains("$$")) {
+                    origin[1] = type.getSimpleName() + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                }
+            });
+            return null;
+        });
+        return origin;
+    }
+
+    private static String describe(SlowQuery query) {
+        if (query.getRepositoryMethod() == null) {
+            return query.getCaller();
+        }
+        return query.getRepositoryMethod() + " (" + query.getCaller() + ")";
+    }
+
+    private static Optional<Class<?>> repositoryInterface(Class<?> proxyClass) {
+        for (Class<?> candidate : proxyClass.getInterfaces()) {
+            if (candidate.getName().startsWith(REPOSITORY_PACKAGE)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private List<String> formatBinds(Object[] binds) {
+        if (binds == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(binds.length);
+        for (int i = 1; i < binds.length; i++) {
+            result.add(formatBind(binds[i]));
+        }
+        return result;
+    }
+
+    private String formatBind(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        if (value instanceof InputStream || value instanceof Reader || value instanceof java.sql.Blob
+                || value instanceof java.sql.Clob) {
+            return "<stream>";
+        }
+        String text = value.toString();
+        if (text.length() > config.getMaxBindLength()) {
+            text = text.substring(0, config.getMaxBindLength()) + "...";
+        }
+        return value instanceof CharSequence ? "'" + text + "'" : text;
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql != null && stripComment(sql).regionMatches(true, 0, "select", 0, 6);
+    }
+
+    /**
+     * Drops the leading comment Hibernate adds with use_sql_comments
+     */
+    private static String stripComment(String sql) {
+        String trimmed = sql.strip();
+        if (trimmed.startsWith("/*")) {
+            int end = trimmed.indexOf("*/");
+            if (end >= 0) {
+                return trimmed.substring(end + 2).strip();
+            }
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,143 @@
+package rebootedmvp.instrumentation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Opens an SQL scope around each API request and publishes it when the request
+ * completes. The operation tag is the method and matched controller pattern,
+ * e.g. "GET /api/roster/{courseId}".
+ *
+ * In debug mode the counts are also returned as X-Sql-Statements, X-Sql-Rows,
+ * X-Sql-Time-Ms and X-Sql-N-Plus-One response headers. Headers cannot change
+ * once the body starts, so they cover the statements executed before the
+ * first byte of the response was written.
+ */
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlMetricsRecorder recorder;
+    private final boolean debugHeaders;
+    private final int repeatedStatementThreshold;
+
+    public SqlMetricsFilter(SqlMetricsRecorder recorder, boolean debugHeaders, int repeatedStatementThreshold) {
+        this.recorder = recorder;
+        this.debugHeaders = debugHeaders;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlScope scope = SqlTracker.open("http", request.getMethod() + " " + request.getRequestURI());
+        DebugHeaderResponse debugResponse = debugHeaders ? new DebugHeaderResponse(response, scope) : null;
+        try {
+            chain.doFilter(request, debugResponse != null ? debugResponse : response);
+        } finally {
+            if (debugResponse != null) {
+                // Responses without a body are committed after this filter returns
+                debugResponse.writeHeaders();
+            }
+            boolean outermost = SqlTracker.close(scope);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            scope.setOperation(request.getMethod() + " " + (pattern != null ? pattern : "UNMATCHED"));
+            recorder.record(scope, outermost);
+        }
+    }
+
+    private class DebugHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlScope scope;
+        private boolean written;
+
+        DebugHeaderResponse(HttpServletResponse response, SqlScope scope) {
+            super(response);
+            this.scope = scope;
+        }
+
+        private void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader("X-Sql-Statements", Long.toString(scope.getStatements()));
+            setHeader("X-Sql-Rows", Long.toString(scope.getRows()));
+            setHeader("X-Sql-Time-Ms", String.format("%.3f", scope.getNanos() / 1_000_000.0));
+            setHeader("X-Sql-N-Plus-One", Integer.toString(scope.repeatedStatements(repeatedStatementThreshold).size()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            ServletOutputStream out = super.getOutputStream();
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    writeHeaders();
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    writeHeaders();
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    writeHeaders();
+                    out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    writeHeaders();
+                    out.close();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return out.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    out.setWriteListener(listener);
+                }
+            };
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package rebootedmvp.instrumentation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import rebootedmvp.config.SqlMetricsConfig;
+
+/**
+ * Publishes closed SQL scopes as Micrometer meters tagged with the layer
+ * ("http" or "service") and operation:
+ *
+ * sql.statements, sql.rows - distribution summaries per scope
+ * sql.time - timer of time spent executing statements per scope
+ * sql.nplusone - counter of statements repeated at least the configured
+ * threshold within one scope
+ *
+ * Suspected N+1 statements are also logged once, from the outermost scope.
+ */
+@Component
+public class SqlMetricsRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlMetricsRecorder.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SqlMetricsConfig config;
+
+    // Meter lookups allocate, so each layer/operation pair is registered once
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public void record(SqlScope scope, boolean outermost) {
+        String operation = scope.getOperation();
+        Meters scopeMeters = meters.computeIfAbsent(scope.getLayer() + " " + operation,
+                k -> new Meters(scope.getLayer(), operation));
+        scopeMeters.statements.record(scope.getStatements());
+        scopeMeters.rows.record(scope.getRows());
+        scopeMeters.time.record(scope.getNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = scope.repeatedStatements(config.getRepeatedStatementThreshold());
+        if (repeated.isEmpty()) {
+            return;
+        }
+        scopeMeters.nPlusOne.increment(repeated.size());
+        if (outermost) {
+            repeated.forEach((sql, count) -> logger.warn("Suspected N+1 in {}: {} executions of {}", operation,
+                    count, sql));
+        }
+    }
+
+    private class Meters {
+
+        private final DistributionSummary statements;
+        private final DistributionSummary rows;
+        private final Timer time;
+        private final Counter nPlusOne;
+
+        Meters(String layer, String operation) {
+            statements = DistributionSummary.builder("sql.statements").tag("layer", layer)
+                    .tag("operation", operation).register(meterRegistry);
+            rows = DistributionSummary.builder("sql.rows").tag("layer", layer).tag("operation", operation)
+                    .register(meterRegistry);
+            time = Timer.builder("sql.time").tag("layer", layer).tag("operation", operation)
+                    .register(meterRegistry);
+            nPlusOne = Counter.builder("sql.nplusone").tag("layer", layer).tag("operation", operation)
+                    .register(meterRegistry);
+        }
+    }
+}
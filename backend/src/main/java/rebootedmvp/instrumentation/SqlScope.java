@@ -0,0 +1,85 @@
+package rebootedmvp.instrumentation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SQL activity of one HTTP request or service method call: statements
+ * executed, rows read from their result sets and time spent executing them.
+ * Executions are also counted per SQL string, which is how repeated
+ * statements with different parameters (N+1 loads) are found.
+ */
+public class SqlScope {
+
+    private final String layer;
+    private String operation;
+    private final Map<String, Integer> executions = new HashMap<>(4);
+    private long statements;
+    private long rows;
+    private long nanos;
+
+    SqlScope(String layer, String operation) {
+        this.layer = layer;
+        this.operation = operation;
+    }
+
+    void statement(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        if (sql != null) {
+            executions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void rows(long count) {
+        rows += count;
+    }
+
+    /**
+     * Returns the statements executed at least 'threshold' times in this scope,
+     * with their execution counts
+     */
+    public Map<String, Integer> repeatedStatements(int threshold) {
+        if (statements < threshold) {
+            return Map.of();
+        }
+        Map<String, Integer> repeated = new HashMap<>();
+        executions.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * "http" for a request, "service" for a service method
+     */
+    public String getLayer() {
+        return layer;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Replaces the operation name, e.g. with the route matched after the scope
+     * was opened
+     */
+    void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,41 @@
+package rebootedmvp.instrumentation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens an SQL scope around every public service method, so statement counts
+ * and N+1 suspects can be traced to e.g. "CourseMembershipService.addUsersByCourse"
+ * as well as to the request that called it
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "sql-metrics", name = "enabled", matchIfMissing = true)
+public class SqlServiceAspect {
+
+    @Autowired
+    private SqlMetricsRecorder recorder;
+
+    private final Map<Method, String> operations = new ConcurrentHashMap<>();
+
+    @Around("within(rebootedmvp.service..*) && execution(public * *(..))")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SqlScope scope = SqlTracker.open("service", operations.computeIfAbsent(method,
+                m -> m.getDeclaringClass().getSimpleName() + "." + m.getName()));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            recorder.record(scope, SqlTracker.close(scope));
+        }
+    }
+}
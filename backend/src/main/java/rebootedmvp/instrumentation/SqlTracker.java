@@ -0,0 +1,60 @@
+package rebootedmvp.instrumentation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Thread-bound stack of open SQL scopes. A statement is attributed to every
+ * scope that is open on the executing thread, so a request scope includes the
+ * statements of the service methods it calls. Statements executed outside any
+ * scope, e.g. on an async streaming thread, are not counted.
+ */
+public final class SqlTracker {
+
+    private static final ThreadLocal<Deque<SqlScope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SqlTracker() {
+    }
+
+    public static SqlScope open(String layer, String operation) {
+        SqlScope scope = new SqlScope(layer, operation);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    /**
+     * Closes 'scope' and returns true if it was the outermost one on this thread
+     */
+    public static boolean close(SqlScope scope) {
+        Deque<SqlScope> scopes = SCOPES.get();
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the innermost open scope, or null
+     */
+    public static SqlScope current() {
+        return SCOPES.get().peek();
+    }
+
+    static boolean isActive() {
+        return !SCOPES.get().isEmpty();
+    }
+
+    static void statement(String sql, long elapsedNanos) {
+        for (SqlScope scope : SCOPES.get()) {
+            scope.statement(sql, elapsedNanos);
+        }
+    }
+
+    static void rows(long count) {
+        for (SqlScope scope : SCOPES.get()) {
+            scope.rows(count);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package rebootedmvp.instrumentation;
+
+import java.sql.Connection;
+
+import javax.sql.DataSource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps every DataSource bean so the connections it hands out report their
+ * statements to SqlTracker and, when the slow-query log is enabled, to
+ * SlowQueryLog. The DataSource keeps its class (e.g. HikariDataSource), so
+ * pool metrics and shutdown are unaffected.
+ */
+@Component
+@ConditionalOnExpression("${sql-metrics.enabled:true} or ${slow-query.enabled:true}")
+public class SqlTrackingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+    private volatile SlowQueryLog slowQueryLog;
+
+    public SqlTrackingDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource)) {
+            return bean;
+        }
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (result instanceof Connection && invocation.getMethod().getName().equals("getConnection")) {
+                return SqlTrackingProxies.connection((Connection) result, slowQueryLog());
+            }
+            return result;
+        });
+        return factory.getProxy();
+    }
+
+    /**
+     * Resolves the slow-query log on first use; a BeanPostProcessor is created
+     * before regular beans and cannot have them injected
+     */
+    private SlowQueryLog slowQueryLog() {
+        SlowQueryLog log = slowQueryLog;
+        if (log == null) {
+            log = slowQueryLogProvider.getIfAvailable();
+            slowQueryLog = log;
+        }
+        return log;
+    }
+}
@@ -0,0 +1,136 @@
+package rebootedmvp.instrumentation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * JDK proxies around JDBC connections, statements and result sets that report
+ * executions and fetched rows to SqlTracker, and statements over the slow-query
+ * threshold to SlowQueryLog. Everything else is passed through to the driver
+ * unchanged, including unwrap() to driver-specific types.
+ */
+final class SqlTrackingProxies {
+
+    private SqlTrackingProxies() {
+    }
+
+    /**
+     * Wraps 'target'. 'slowQueryLog' may be null, in which case bind values are
+     * not captured.
+     */
+    static Connection connection(Connection target, SlowQueryLog slowQueryLog) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return statement(Statement.class, (Statement) result, null, slowQueryLog);
+                case "prepareStatement":
+                    return statement(PreparedStatement.class, (Statement) result, (String) args[0], slowQueryLog);
+                case "prepareCall":
+                    return statement(CallableStatement.class, (Statement) result, (String) args[0], slowQueryLog);
+                default:
+                    return result;
+            }
+        });
+    }
+
+    private static <T extends Statement> T statement(Class<T> type, Statement target, String preparedSql,
+            SlowQueryLog slowQueryLog) {
+        Binds binds = slowQueryLog != null && preparedSql != null ? new Binds() : null;
+        return proxy(type, (proxy, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = invoke(target, method, args);
+                if (binds != null) {
+                    binds.capture(name, args);
+                }
+                return name.equals("getResultSet") ? resultSet((ResultSet) result) : result;
+            }
+            String sql = preparedSql;
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+            }
+            long started = System.nanoTime();
+            try {
+                Object result = invoke(target, method, args);
+                return name.equals("executeQuery") ? resultSet((ResultSet) result) : result;
+            } finally {
+                long elapsed = System.nanoTime() - started;
+                SqlTracker.statement(sql, elapsed);
+                if (slowQueryLog != null && slowQueryLog.isSlow(elapsed)) {
+                    slowQueryLog.record(sql, binds != null ? binds.snapshot() : null, elapsed);
+                }
+            }
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet target) {
+        if (target == null) {
+            return null;
+        }
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                SqlTracker.rows(1);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * The values bound to a prepared statement by parameter index. For a batch
+     * these are the values of the last row added.
+     */
+    private static final class Binds {
+
+        private Object[] values;
+        private int highest;
+
+        void capture(String method, Object[] args) {
+            if (method.equals("clearParameters")) {
+                values = null;
+                highest = 0;
+                return;
+            }
+            if (!method.startsWith("set") || args == null || args.length < 2 || !(args[0] instanceof Integer)) {
+                return;
+            }
+            int index = (Integer) args[0];
+            if (values == null || index >= values.length) {
+                values = Arrays.copyOf(values != null ? values : new Object[0], Math.max(index + 1, 8));
+            }
+            values[index] = method.equals("setNull") ? null : args[1];
+            highest = Math.max(highest, index);
+        }
+
+        /**
+         * Returns a copy indexed like the parameters (index 0 unused), or null if
+         * nothing was bound
+         */
+        Object[] snapshot() {
+            return values != null ? Arrays.copyOf(values, highest + 1) : null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlTrackingProxies.class.getClassLoader(), new Class<?>[] { type },
+                handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package rebootedmvp.invalidation;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.config.InvalidationBusConfig;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+
+/**
+ * Keeps the local caches of several instances consistent. Every committed
+ * local CatalogChangedEvent is sent to the other instances with PostgreSQL
+ * NOTIFY, and the changes they send are published here as remote
+ * CatalogChangedEvents, which the caches handle like local ones.
+ *
+ * One thread owns a dedicated connection: it LISTENs on 'channel', sends the
+ * queued changes as one NOTIFY per batch, and waits up to 'pollMillis' for
+ * notifications. The changes received in one poll are de-duplicated and
+ * published together, or as a single flush when there are more than
+ * 'maxBatchEntries'.
+ *
+ * A message is "node;incarnation;TYPE:id:course:module:version;...", where
+ * course and module are the change's parents (empty when unknown) and
+ * version is the sending node's sequence number. The incarnation is random
+ * per process, so a node restarted under the same node id starts a new
+ * sequence rather than repeating versions its peers have already seen. User
+ * changes are not sent, since no cache depends on them. A gap in a node's
+ * sequence, a dropped outgoing message, a reconnect or a node's restart
+ * (changes it committed but had not sent are lost) means changes may have
+ * been missed, and the local caches are flushed.
+ *
+ * A node not heard from for 'peerExpirySeconds' is forgotten, so nodes that
+ * went away do not pile up; its next message starts a new sequence.
+ *
+ * Published as invalidation.bus.sent, invalidation.bus.received,
+ * invalidation.bus.dropped, invalidation.bus.flushes (tagged with the
+ * reason) and invalidation.bus.connected.
+ */
+public class InvalidationBus implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    // NOTIFY payloads must be shorter than 8000 bytes
+    private static final int MAX_PAYLOAD_CHARS = 7500;
+
+    private final InvalidationBusConfig config;
+    private final String url;
+    private final Properties connectionProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+    private final String incarnation = UUID.randomUUID().toString().substring(0, 8);
+    private final ArrayDeque<String> outgoing = new ArrayDeque<>();
+    private final ReentrantLock outgoingLock = new ReentrantLock();
+    private final Map<String, Peer> peers = new HashMap<>();
+    private final AtomicBoolean connected = new AtomicBoolean();
+    private final Counter sent;
+    private final Counter received;
+    private final Counter dropped;
+    private final Counter gapFlushes;
+    private final Counter batchFlushes;
+    private final Counter reconnectFlushes;
+    private final Counter restartFlushes;
+
+    private long version;
+    private long validatedAt;
+    private volatile boolean running;
+    private Thread thread;
+    private Connection connection;
+
+    public InvalidationBus(InvalidationBusConfig config, String url, Properties connectionProperties,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = config.getNodeId() != null ? config.getNodeId()
+                : UUID.randomUUID().toString().substring(0, 8);
+
+        Gauge.builder("invalidation.bus.connected", connected, c -> c.get() ? 1 : 0)
+                .description("1 while the invalidation bus is listening").register(meterRegistry);
+        this.sent = Counter.builder("invalidation.bus.sent")
+                .description("Changes sent to the other instances").register(meterRegistry);
+        this.received = Counter.builder("invalidation.bus.received")
+                .description("Changes received from the other instances").register(meterRegistry);
+        this.dropped = Counter.builder("invalidation.bus.dropped")
+                .description("Changes not sent because the outgoing queue was full").register(meterRegistry);
+        this.gapFlushes = flushCounter(meterRegistry, "gap");
+        this.batchFlushes = flushCounter(meterRegistry, "batch");
+        this.reconnectFlushes = flushCounter(meterRegistry, "reconnect");
+        this.restartFlushes = flushCounter(meterRegistry, "restart");
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "invalidation-bus");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.isRemote() || event.getId() == null || event.getEntityType() == EntityType.USER) {
+            return;
+        }
+        outgoingLock.lock();
+        try {
+            // Versions are assigned in queue order, so receivers see them in order
+            version++;
+            if (outgoing.size() >= config.getQueueSize()) {
+                // Receivers see the gap in the versions and flush
+                dropped.increment();
+                return;
+            }
+            outgoing.addLast(event.getEntityType().name() + ":" + event.getId() + ":" + text(event.getCourseId())
+                    + ":" + text(event.getModuleId()) + ":" + version);
+        } finally {
+            outgoingLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            listen();
+        } finally {
+            disconnect();
+        }
+    }
+
+    private void listen() {
+        long backoff = config.getReconnectMillis();
+        // Set while changes may have been sent that we did not receive
+        boolean missed = false;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connect();
+                    if (missed) {
+                        peers.clear();
+                        flush(reconnectFlushes, "reconnected");
+                        missed = false;
+                    }
+                    backoff = config.getReconnectMillis();
+                }
+                send();
+                receive();
+                validate();
+            } catch (SQLException e) {
+                logger.warn("Invalidation bus connection failed, reconnecting in {} ms: {}", backoff,
+                        e.getMessage());
+                disconnect();
+                missed = true;
+                if (!sleep(backoff)) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, config.getMaxReconnectMillis());
+            } catch (IllegalStateException e) {
+                logger.error("Invalidation bus stopped: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void connect() throws SQLException {
+        Connection opened = DriverManager.getConnection(url, connectionProperties);
+        if (!opened.isWrapperFor(PGConnection.class)) {
+            opened.close();
+            throw new IllegalStateException("LISTEN/NOTIFY requires PostgreSQL, not " + url);
+        }
+        opened.setAutoCommit(true);
+        try (Statement statement = opened.createStatement()) {
+            statement.execute("LISTEN " + quotedChannel());
+        }
+        connection = opened;
+        validatedAt = System.nanoTime();
+        connected.set(true);
+        logger.info("Invalidation bus listening on channel {} as node {} ({})", config.getChannel(), nodeId,
+                incarnation);
+    }
+
+    private void disconnect() {
+        connected.set(false);
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Could not close invalidation bus connection: {}", e.getMessage());
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Checks the connection every 'validationSeconds', since a connection
+     * that died without closing never reports notifications or errors
+     */
+    private void validate() throws SQLException {
+        long now = System.nanoTime();
+        if (now - validatedAt < TimeUnit.SECONDS.toNanos(config.getValidationSeconds())) {
+            return;
+        }
+        validatedAt = now;
+        if (!connection.isValid(5)) {
+            throw new SQLException("Connection is no longer valid");
+        }
+    }
+
+    /**
+     * Sends the queued changes, as many per NOTIFY as fit in a payload
+     */
+    private void send() throws SQLException {
+        while (true) {
+            StringBuilder payload = new StringBuilder(nodeId).append(';').append(incarnation);
+            int count = 0;
+            outgoingLock.lock();
+            try {
+                while (!outgoing.isEmpty()
+                        && payload.length() + 1 + outgoing.peekFirst().length() <= MAX_PAYLOAD_CHARS) {
+                    payload.append(';').append(outgoing.pollFirst());
+                    count++;
+                }
+            } finally {
+                outgoingLock.unlock();
+            }
+            if (count == 0) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, config.getChannel());
+                statement.setString(2, payload.toString());
+                statement.execute();
+            }
+            sent.increment(count);
+        }
+    }
+
+    /**
+     * Waits up to 'pollMillis' for notifications and publishes the changes
+     * they carry
+     */
+    private void receive() throws SQLException {
+        PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                .getNotifications((int) config.getPollMillis());
+        if (notifications == null || notifications.length == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long expiry = TimeUnit.SECONDS.toNanos(config.getPeerExpirySeconds());
+        peers.values().removeIf(peer -> now - peer.heardAt > expiry);
+        Set<String> changes = new LinkedHashSet<>();
+        boolean gap = false;
+        String restarted = null;
+        for (PGNotification notification : notifications) {
+            String[] parts = notification.getParameter().split(";");
+            String sender = parts[0];
+            if (sender.equals(nodeId) || parts.length < 2) {
+                continue;
+            }
+            Peer peer = peers.get(sender);
+            if (peer == null || !peer.incarnation.equals(parts[1])) {
+                if (peer != null) {
+                    restarted = sender;
+                }
+                peer = new Peer(parts[1]);
+                peers.put(sender, peer);
+            }
+            peer.heardAt = now;
+            for (int i = 2; i < parts.length; i++) {
+                String change = parts[i];
+                int versionStart = change.lastIndexOf(':');
+                long changeVersion;
+                try {
+                    changeVersion = Long.parseLong(change.substring(versionStart + 1));
+                    parse(change.substring(0, versionStart));
+                } catch (RuntimeException e) {
+                    logger.warn("Ignoring malformed invalidation '{}' from node {}", change, sender);
+                    gap = true;
+                    continue;
+                }
+                if (peer.version != 0 && changeVersion <= peer.version) {
+                    continue;
+                }
+                if (peer.version != 0 && changeVersion > peer.version + 1) {
+                    gap = true;
+                }
+                peer.version = changeVersion;
+                changes.add(change.substring(0, versionStart));
+                received.increment();
+            }
+        }
+        if (restarted != null) {
+            flush(restartFlushes, "node " + restarted + " restarted");
+        } else if (gap) {
+            flush(gapFlushes, "missed changes");
+        } else if (changes.size() > config.getMaxBatchEntries()) {
+            flush(batchFlushes, changes.size() + " changes");
+        } else {
+            for (String change : changes) {
+                eventPublisher.publishEvent(parse(change));
+            }
+            logger.debug("Invalidation bus applied {} remote changes", changes.size());
+        }
+    }
+
+    /**
+     * Returns the remote event for 'change', "TYPE:id:course:module"
+     */
+    private static CatalogChangedEvent parse(String change) {
+        String[] fields = change.split(":", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Expected 4 fields in " + change);
+        }
+        return new CatalogChangedEvent(EntityType.valueOf(fields[0]), Long.valueOf(fields[1]), id(fields[2]),
+                id(fields[3]), true);
+    }
+
+    private static String text(Long id) {
+        return id != null ? id.toString() : "";
+    }
+
+    private static Long id(String text) {
+        return text.isEmpty() ? null : Long.valueOf(text);
+    }
+
+    private void flush(Counter counter, String reason) {
+        counter.increment();
+        logger.info("Invalidation bus flushing local caches: {}", reason);
+        eventPublisher.publishEvent(CatalogChangedEvent.flush());
+    }
+
+    private String quotedChannel() {
+        return "\"" + config.getChannel().replace("\"", "\"\"") + "\"";
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * The last version received from another node's current incarnation, or
+     * 0 before its first change
+     */
+    private static class Peer {
+
+        private final String incarnation;
+        private long version;
+        private long heardAt;
+
+        Peer(String incarnation) {
+            this.incarnation = incarnation;
+        }
+    }
+
+    private static Counter flushCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("invalidation.bus.flushes").tag("reason", reason)
+                .description("Local cache flushes after changes may have been missed").register(meterRegistry);
+    }
+}
@@ -0,0 +1,67 @@
+package rebootedmvp.jfr;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creation or update of one content item. Ids that the write path does not
+ * load are recorded as 0.
+ */
+@Name("rebootedmvp.ContentWrite")
+@Label("Content Write")
+@Category({ "Rebooted", "Content" })
+@StackTrace(false)
+public class ContentWriteEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("create or update")
+    private String operation;
+
+    @Label("Content Id")
+    private long contentId;
+
+    @Label("Module Id")
+    private long moduleId;
+
+    @Label("Course Id")
+    private long courseId;
+
+    @Label("Content Type")
+    private String contentType;
+
+    @Label("Option Rows")
+    @Description("Question options written to content_options")
+    private int optionRows;
+
+    public static ContentWriteEvent start(String operation) {
+        ContentWriteEvent event = new ContentWriteEvent();
+        event.begin();
+        event.operation = operation;
+        return event;
+    }
+
+    /**
+     * Records the written content. 'options' are the options supplied by the
+     * request, null when none were.
+     */
+    public void finish(Long contentId, Long moduleId, Long courseId, String contentType, List<String> options) {
+        end();
+        if (shouldCommit()) {
+            this.contentId = orZero(contentId);
+            this.moduleId = orZero(moduleId);
+            this.courseId = orZero(courseId);
+            this.contentType = contentType;
+            this.optionRows = options != null ? options.size() : 0;
+            commit();
+        }
+    }
+
+    private static long orZero(Long id) {
+        return id != null ? id : 0;
+    }
+}
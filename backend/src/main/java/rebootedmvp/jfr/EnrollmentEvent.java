@@ -0,0 +1,61 @@
+package rebootedmvp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Adding users to, or removing a user from, a course roster
+ */
+@Name("rebootedmvp.Enrollment")
+@Label("Enrollment")
+@Category({ "Rebooted", "Course" })
+@StackTrace(false)
+public class EnrollmentEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    @Description("add or remove")
+    private String operation;
+
+    @Label("Course Id")
+    private long courseId;
+
+    @Label("User")
+    @Description("User id of a single-user change, null for bulk adds")
+    private String user;
+
+    @Label("Role")
+    private String role;
+
+    @Label("Users")
+    @Description("Number of users the request asked to change")
+    private int users;
+
+    @Label("Success")
+    private boolean success;
+
+    public static EnrollmentEvent start(String operation) {
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.begin();
+        event.operation = operation;
+        return event;
+    }
+
+    /**
+     * Records the change. 'user' is the id of a single user, null for bulk
+     * adds; 'users' the number of users the request asked to change.
+     */
+    public void finish(Long courseId, Object user, String role, int users, boolean success) {
+        end();
+        if (shouldCommit()) {
+            this.courseId = courseId != null ? courseId : 0;
+            this.user = user != null ? user.toString() : null;
+            this.role = role;
+            this.users = users;
+            this.success = success;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package rebootedmvp.jfr;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import rebootedmvp.config.JfrConfig;
+import rebootedmvp.dto.RecordingDTO;
+
+/**
+ * Starts, stops and dumps Flight Recorder recordings on behalf of the admin
+ * endpoint, and streams the domain events live. Only recordings started here
+ * are visible; ones started with -XX:StartFlightRecording or jcmd are left
+ * alone.
+ */
+@Component
+@ConditionalOnProperty(prefix = "jfr", name = "admin-enabled", havingValue = "true")
+public class FlightRecordings implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordings.class);
+
+    public static final List<String> DOMAIN_EVENTS = List.of("rebootedmvp.JwtValidation", "rebootedmvp.UserSync",
+            "rebootedmvp.Enrollment", "rebootedmvp.ContentWrite");
+
+    // Every event carries these; the rest of the fields are written under their own names
+    private static final List<String> COMMON_FIELDS = List.of("startTime", "duration", "eventThread", "stackTrace");
+
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JfrConfig config;
+
+    /**
+     * Starts a recording of the domain events on top of the JDK settings file
+     * 'settings' ("default" or "profile", or null for domain events only).
+     * Throws: IllegalArgumentException if the settings file is unknown,
+     * IllegalStateException if maxRecordings are already held.
+     */
+    public synchronized RecordingDTO start(String name, String settings, Duration threshold) {
+        if (recordings.size() >= config.getMaxRecordings()) {
+            throw new IllegalStateException("At most " + config.getMaxRecordings()
+                    + " recordings can be held; delete one first");
+        }
+        Recording recording;
+        try {
+            recording = settings == null ? new Recording()
+                    : new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+        // The environment and system properties can hold credentials
+        recording.disable("jdk.InitialEnvironmentVariable");
+        recording.disable("jdk.InitialSystemProperty");
+        for (String event : DOMAIN_EVENTS) {
+            recording.enable(event).withThreshold(threshold);
+        }
+        recording.setName(name != null ? name : "rebooted-" + System.currentTimeMillis());
+        recording.setToDisk(true);
+        recording.setMaxAge(Duration.ofMinutes(config.getMaxAgeMinutes()));
+        recording.setMaxSize(config.getMaxSizeMegabytes() * 1024 * 1024);
+        recording.start();
+        recordings.put(recording.getId(), recording);
+        logger.info("Started JFR recording {} '{}' with settings {}", recording.getId(), recording.getName(),
+                settings);
+        return toDTO(recording);
+    }
+
+    public List<RecordingDTO> findAll() {
+        List<RecordingDTO> result = new ArrayList<>();
+        for (Recording recording : recordings.values()) {
+            result.add(toDTO(recording));
+        }
+        return result;
+    }
+
+    /**
+     * Stops the recording with id 'id' and keeps its data for download. Returns
+     * null if there is no such recording.
+     */
+    public RecordingDTO stop(long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return null;
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            logger.info("Stopped JFR recording {} '{}'", id, recording.getName());
+        }
+        return toDTO(recording);
+    }
+
+    /**
+     * Discards the recording with id 'id' and its data
+     */
+    public boolean delete(long id) {
+        Recording recording = recordings.remove(id);
+        if (recording == null) {
+            return false;
+        }
+        recording.close();
+        return true;
+    }
+
+    public boolean exists(long id) {
+        return recordings.containsKey(id);
+    }
+
+    /**
+     * Writes the recording with id 'id' to 'out' in the .jfr format. A running
+     * recording is dumped up to now and keeps running.
+     */
+    public void dump(long id, OutputStream out) throws IOException {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return;
+        }
+        Recording source = recording.getState() == RecordingState.RUNNING ? recording.copy(true) : recording;
+        try (InputStream in = source.getStream(null, null)) {
+            if (in != null) {
+                in.transferTo(out);
+            }
+        } finally {
+            if (source != recording) {
+                source.close();
+            }
+        }
+    }
+
+    /**
+     * Passes each domain event taking at least 'threshold' to 'sink' as a map of
+     * its fields until 'duration' has passed or the sink fails (the client went
+     * away). Runs on the calling thread.
+     */
+    public void stream(Duration duration, Duration threshold, Consumer<Object> sink) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (RecordingStream stream = new RecordingStream()) {
+            // Subscribe by name: the stream also sees events of other running recordings
+            for (String event : DOMAIN_EVENTS) {
+                stream.enable(event).withThreshold(threshold);
+                stream.onEvent(event, recorded -> sink.accept(toMap(recorded)));
+            }
+            stream.onFlush(() -> {
+                if (sink instanceof Flushable flushable) {
+                    try {
+                        flushable.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    stream.close();
+                }
+            });
+            stream.onError(e -> {
+                logger.debug("Closing JFR event stream: {}", e.getMessage());
+                stream.close();
+            });
+            stream.start();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+
+    private static Map<String, Object> toMap(RecordedEvent event) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("event", event.getEventType().getName());
+        values.put("startTime", event.getStartTime());
+        values.put("durationNanos", event.getDuration().toNanos());
+        if (event.getThread() != null) {
+            values.put("thread", event.getThread().getJavaName());
+        }
+        for (ValueDescriptor field : event.getFields()) {
+            if (!COMMON_FIELDS.contains(field.getName())) {
+                values.put(field.getName(), event.getValue(field.getName()));
+            }
+        }
+        return values;
+    }
+
+    private static RecordingDTO toDTO(Recording recording) {
+        return new RecordingDTO(recording.getId(), recording.getName(), recording.getState().name(),
+                recording.getStartTime(), recording.getStopTime(), recording.getSize());
+    }
+}
@@ -0,0 +1,43 @@
+package rebootedmvp.jfr;
+
+import io.jsonwebtoken.Claims;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Parsing and signature check of one bearer token
+ */
+@Name("rebootedmvp.JwtValidation")
+@Label("JWT Validation")
+@Category({ "Rebooted", "Security" })
+@StackTrace(false)
+public class JwtValidationEvent extends jdk.jfr.Event {
+
+    @Label("Valid")
+    private boolean valid;
+
+    @Label("Subject")
+    @Description("Supabase user id of a valid token")
+    private String subject;
+
+    public static JwtValidationEvent start() {
+        JwtValidationEvent event = new JwtValidationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Records the outcome; 'claims' is null when the token was rejected
+     */
+    public void finish(Claims claims) {
+        end();
+        if (shouldCommit()) {
+            valid = claims != null;
+            subject = claims != null ? claims.getSubject() : null;
+            commit();
+        }
+    }
+}
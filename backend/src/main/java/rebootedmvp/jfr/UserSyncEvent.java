@@ -0,0 +1,50 @@
+package rebootedmvp.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Lookup or creation of the backend user for a Supabase token
+ */
+@Name("rebootedmvp.UserSync")
+@Label("User Sync")
+@Category({ "Rebooted", "Security" })
+@StackTrace(false)
+public class UserSyncEvent extends jdk.jfr.Event {
+
+    @Label("Supabase User Id")
+    private String supabaseUserId;
+
+    @Label("Outcome")
+    @Description("existing, created or failed")
+    private String outcome = "failed";
+
+    @Label("Attempts")
+    @Description("Lookups of the user; 2 when it was not found without the provisioning lock")
+    private int attempts;
+
+    public static UserSyncEvent start() {
+        UserSyncEvent event = new UserSyncEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Notes how the user was resolved. The last call before finish() wins.
+     */
+    public void resolved(String supabaseUserId, String outcome, int attempts) {
+        this.supabaseUserId = supabaseUserId;
+        this.outcome = outcome;
+        this.attempts = attempts;
+    }
+
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
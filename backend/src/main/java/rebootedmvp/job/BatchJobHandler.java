@@ -0,0 +1,82 @@
+package rebootedmvp.job;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import rebootedmvp.dto.BatchOperationDTO;
+import rebootedmvp.service.BatchService;
+
+/**
+ * Runs a batch too large for POST /api/batch, e.g. importing a generated
+ * course with all its modules and content. Params: 'operations', in the
+ * format of the batch endpoint and with no limit on their number. Each chunk
+ * is applied in its own transaction; "$ref" ids created by earlier chunks are
+ * kept in the result as 'refs'. The first failing operation fails the job,
+ * keeping the chunks before it.
+ */
+@Component
+public class BatchJobHandler implements JobHandler {
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public String getType() {
+        return "batch";
+    }
+
+    @Override
+    public Long prepare(JsonNode params) {
+        JsonNode operations = params.path("operations");
+        if (!operations.isArray() || operations.isEmpty()) {
+            throw new IllegalArgumentException("'operations' must be a non-empty list");
+        }
+        for (int i = 0; i < operations.size(); i++) {
+            toOperation(operations.get(i), i);
+        }
+        return (long) operations.size();
+    }
+
+    @Override
+    public void process(JobChunk chunk) {
+        JsonNode operations = chunk.getParams().path("operations");
+        int from = (int) chunk.getCheckpoint();
+        int to = Math.min(operations.size(), from + chunk.getLimit());
+        List<BatchOperationDTO> batch = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            batch.add(toOperation(operations.get(i), i));
+        }
+
+        ObjectNode savedRefs = chunk.getState().withObjectProperty("refs");
+        Map<String, Long> refs = new HashMap<>();
+        savedRefs.properties().forEach(ref -> refs.put(ref.getKey(), ref.getValue().asLong()));
+        batchService.applyAll(batch, refs, from);
+        refs.forEach(savedRefs::put);
+
+        chunk.completed(batch.size());
+        if (to == operations.size()) {
+            chunk.done("Applied " + operations.size() + " operations");
+        }
+    }
+
+    private BatchOperationDTO toOperation(JsonNode operation, int index) {
+        try {
+            return objectMapper.treeToValue(operation, BatchOperationDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Operation " + index + " is invalid: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package rebootedmvp.job;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rebootedmvp.repository.CourseRepository;
+import rebootedmvp.service.RosterService;
+
+/**
+ * Deletes a course. Deleting is a single soft-delete statement however large
+ * the course is, after which CoursePurger removes its rows in the
+ * background; kept as a job type so existing clients keep working. Params:
+ * 'courseId'. The course is the only item.
+ */
+@Component
+public class CourseDeleteJobHandler implements JobHandler {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private RosterService rosterService;
+
+    @Override
+    public String getType() {
+        return "delete-course";
+    }
+
+    @Override
+    public Long prepare(JsonNode params) {
+        long courseId = params.path("courseId").asLong();
+        if (!courseRepository.existsById(courseId)) {
+            throw new IllegalArgumentException("Course not found with id: " + params.path("courseId").asText());
+        }
+        return 1L;
+    }
+
+    @Override
+    public void process(JobChunk chunk) {
+        Long courseId = chunk.getParams().path("courseId").asLong();
+        if (rosterService.delete(0L, courseId)) {
+            chunk.completed(1);
+            chunk.done("Deleted course " + courseId);
+        } else {
+            chunk.done("Course " + courseId + " was already deleted");
+        }
+    }
+}
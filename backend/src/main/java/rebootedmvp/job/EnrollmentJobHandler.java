@@ -0,0 +1,77 @@
+package rebootedmvp.job;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import rebootedmvp.repository.CourseRepository;
+import rebootedmvp.service.CourseMembershipService;
+
+/**
+ * Enrolls a large list of users in one course. Params: 'courseId', 'role'
+ * ("teacher" or "student") and 'usernames'. Usernames without a profile are
+ * counted as failed items and listed in the result as 'unknown'.
+ */
+@Component
+public class EnrollmentJobHandler implements JobHandler {
+
+    @Autowired
+    private CourseMembershipService courseMembershipService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Override
+    public String getType() {
+        return "enroll";
+    }
+
+    @Override
+    public Long prepare(JsonNode params) {
+        long courseId = params.path("courseId").asLong();
+        if (!courseRepository.existsById(courseId)) {
+            throw new IllegalArgumentException("Course not found with id: " + params.path("courseId").asText());
+        }
+        String role = params.path("role").asText();
+        if (!"teacher".equals(role) && !"student".equals(role)) {
+            throw new IllegalArgumentException("'role' must be teacher or student, got: " + role);
+        }
+        if (!params.path("usernames").isArray() || params.path("usernames").isEmpty()) {
+            throw new IllegalArgumentException("'usernames' must be a non-empty list");
+        }
+        return (long) params.path("usernames").size();
+    }
+
+    @Override
+    public void process(JobChunk chunk) {
+        JsonNode usernames = chunk.getParams().path("usernames");
+        int from = (int) chunk.getCheckpoint();
+        int to = Math.min(usernames.size(), from + chunk.getLimit());
+        List<String> batch = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            batch.add(usernames.get(i).asText());
+        }
+
+        Set<String> found = new HashSet<>(courseMembershipService.enrollUsers(
+                chunk.getParams().path("courseId").asLong(), batch, chunk.getParams().path("role").asText()));
+        for (String username : batch) {
+            if (found.contains(username)) {
+                chunk.completed(1);
+            } else {
+                chunk.failed(1);
+                chunk.getState().withArrayProperty("unknown").add(username);
+            }
+        }
+        chunk.getState().put("enrolled", chunk.getState().path("enrolled").asLong() + chunk.getCompleted());
+        if (to == usernames.size()) {
+            chunk.done("Enrolled " + chunk.getState().path("enrolled").asLong() + " of " + usernames.size()
+                    + " users");
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package rebootedmvp.job;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+/**
+ * A queued or running background job. 'checkpoint' is the number of items
+ * already handled; it is saved in the same transaction as each chunk, so a
+ * job taken over by another worker resumes after the last committed chunk.
+ * A running job belongs to 'owner' until 'leaseUntil', which the owner
+ * extends after every chunk.
+ */
+@Entity
+@Table(name = "jobs", indexes = @Index(name = "idx_jobs_status", columnList = "status, id"))
+public class Job {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_type", nullable = false, length = 50)
+    private String jobType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(columnDefinition = "TEXT")
+    private String params;
+
+    // Handler state carried from chunk to chunk, reported as the job's result
+    @Column(columnDefinition = "TEXT")
+    private String state;
+
+    @Column(name = "total_items")
+    private Long totalItems;
+
+    @Column(nullable = false)
+    private long checkpoint;
+
+    @Column(name = "failed_items", nullable = false)
+    private long failedItems;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "cancel_requested", nullable = false)
+    private boolean cancelRequested;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    protected Job() {
+        // JPA only
+    }
+
+    public Job(String jobType, String params, Long totalItems) {
+        this.jobType = jobType;
+        this.params = params;
+        this.totalItems = totalItems;
+        this.status = Status.QUEUED;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Hands the job to 'owner' until 'leaseUntil'
+     */
+    public void claim(String owner, LocalDateTime leaseUntil) {
+        this.status = Status.RUNNING;
+        this.owner = owner;
+        this.leaseUntil = leaseUntil;
+        this.attempts++;
+        if (startedAt == null) {
+            startedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Puts a running job back in the queue, to be resumed from its checkpoint
+     */
+    public void release() {
+        this.status = Status.QUEUED;
+        this.owner = null;
+        this.leaseUntil = null;
+    }
+
+    public void finish(Status status, String message) {
+        this.status = status;
+        this.message = message;
+        this.owner = null;
+        this.leaseUntil = null;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    public boolean isOwnedBy(String owner) {
+        return status == Status.RUNNING && owner.equals(this.owner);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getParams() {
+        return params;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getTotalItems() {
+        return totalItems;
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(long checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public long getFailedItems() {
+        return failedItems;
+    }
+
+    public void setFailedItems(long failedItems) {
+        this.failedItems = failedItems;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void setCancelRequested(boolean cancelRequested) {
+        this.cancelRequested = cancelRequested;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
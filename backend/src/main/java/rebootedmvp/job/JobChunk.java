@@ -0,0 +1,88 @@
+package rebootedmvp.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * One chunk of a job, as seen by its JobHandler. The handler reports the
+ * items it handled with completed() and failed(), which together advance the
+ * checkpoint, and calls done() when no items are left. 'state' is kept with
+ * the job between chunks and reported as its result.
+ */
+public class JobChunk {
+
+    private final JsonNode params;
+    private final ObjectNode state;
+    private final long checkpoint;
+    private final int limit;
+
+    private int completed;
+    private int failed;
+    private boolean done;
+    private String message;
+
+    public JobChunk(JsonNode params, ObjectNode state, long checkpoint, int limit) {
+        this.params = params;
+        this.state = state;
+        this.checkpoint = checkpoint;
+        this.limit = limit;
+    }
+
+    public JsonNode getParams() {
+        return params;
+    }
+
+    public ObjectNode getState() {
+        return state;
+    }
+
+    /**
+     * Returns the number of items handled by earlier chunks
+     */
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Returns the most items this chunk should handle
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public void completed(int count) {
+        completed += count;
+    }
+
+    /**
+     * Counts 'count' items that were skipped because they could not be
+     * handled, e.g. unknown usernames
+     */
+    public void failed(int count) {
+        failed += count;
+    }
+
+    /**
+     * Marks the job as finished, with 'message' as its summary
+     */
+    public void done(String message) {
+        this.done = true;
+        this.message = message;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
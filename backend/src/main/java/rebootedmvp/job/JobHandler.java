@@ -0,0 +1,30 @@
+package rebootedmvp.job;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Runs one type of background job. Handlers are Spring beans; JobService
+ * finds them by getType().
+ */
+public interface JobHandler {
+
+    /**
+     * The type clients submit the job as, e.g. "enroll"
+     */
+    String getType();
+
+    /**
+     * Checks 'params' when the job is submitted and returns the number of
+     * items it will handle, or null if that is not known up front. Throws:
+     * IllegalArgumentException if the job cannot run with 'params'.
+     */
+    Long prepare(JsonNode params);
+
+    /**
+     * Handles the next chunk of the job, starting after chunk.getCheckpoint()
+     * items. Runs in a transaction that also saves the new checkpoint, so
+     * either the whole chunk is applied and recorded or none of it is. A
+     * thrown exception rolls the chunk back and fails the job.
+     */
+    void process(JobChunk chunk);
+}
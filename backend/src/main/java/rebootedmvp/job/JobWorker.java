@@ -0,0 +1,172 @@
+package rebootedmvp.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import rebootedmvp.bulkhead.Bulkhead;
+import rebootedmvp.bulkhead.BulkheadFullException;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadContext;
+import rebootedmvp.config.JobsConfig;
+import rebootedmvp.service.JobService;
+
+/**
+ * Runs background jobs on 'workers' threads. Each thread claims a job from
+ * the shared queue and runs it chunk by chunk until it finishes, is
+ * cancelled, or the worker stops. Workers on several instances share the
+ * queue; a job whose worker died is taken over once its lease runs out.
+ *
+ * Chunks are bulk work: they take their connections from the bulk pool and,
+ * when a bulk bulkhead is given, wait for one of its permits, so jobs back off
+ * while interactive requests are slow.
+ *
+ * Published as jobs.chunks, a timer tagged with the job type, and
+ * jobs.running.
+ */
+public class JobWorker implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobWorker.class);
+
+    private final JobService jobService;
+    private final JobsConfig config;
+    private final Bulkhead bulkhead;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    private volatile boolean stopped;
+
+    public JobWorker(JobService jobService, JobsConfig config, Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        this.jobService = jobService;
+        this.config = config;
+        this.bulkhead = bulkhead;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("jobs.running", running, AtomicInteger::get)
+                .description("Jobs running on this instance").register(meterRegistry);
+    }
+
+    public void start() {
+        for (int i = 1; i <= config.getWorkers(); i++) {
+            String owner = nodeId + "-" + i;
+            Thread thread = new Thread(() -> work(owner), "job-worker-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        logger.info("Started {} job workers as {}", config.getWorkers(), nodeId);
+    }
+
+    /**
+     * Stops the workers. A job in progress is put back in the queue after its
+     * current chunk and resumed from its checkpoint by the next worker.
+     */
+    @Override
+    public void close() {
+        // Not interrupted: that would fail the chunk a worker is running
+        stopped = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getLeaseSeconds());
+        for (Thread thread : threads) {
+            try {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void work(String owner) {
+        while (!stopped) {
+            Optional<Job> claimed;
+            try {
+                claimed = jobService.claim(owner);
+            } catch (RuntimeException e) {
+                logger.warn("Could not claim a job: {}", e.getMessage());
+                claimed = Optional.empty();
+            }
+            if (claimed.isEmpty()) {
+                sleep(config.getPollMillis());
+                continue;
+            }
+            Job job = claimed.get();
+            running.incrementAndGet();
+            try {
+                run(job.getId(), job.getJobType(), owner);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    private void run(Long id, String type, String owner) {
+        Timer chunks = Timer.builder("jobs.chunks").tag("type", type)
+                .description("Job chunks run, each in its own transaction").register(meterRegistry);
+        boolean more = true;
+        while (more) {
+            if (stopped) {
+                quietly(id, () -> jobService.release(id, owner));
+                logger.info("Released job {} for another worker", id);
+                return;
+            }
+            if (bulkhead != null) {
+                try {
+                    bulkhead.acquire();
+                } catch (BulkheadFullException e) {
+                    quietly(id, () -> jobService.renew(id, owner));
+                    sleep(config.getPollMillis());
+                    continue;
+                }
+            }
+            WorkloadContext.set(Workload.BULK);
+            long start = System.nanoTime();
+            try {
+                more = jobService.runChunk(id, owner);
+            } catch (RuntimeException e) {
+                fail(id, owner, e);
+                more = false;
+            } finally {
+                chunks.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                WorkloadContext.clear();
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
+        }
+    }
+
+    private void fail(Long id, String owner, RuntimeException cause) {
+        quietly(id, () -> jobService.fail(id, owner, cause.getMessage()));
+    }
+
+    /**
+     * Runs 'update' on job 'id', logging failures. If it was lost, the lease
+     * runs out and the job is resumed from its checkpoint.
+     */
+    private void quietly(Long id, Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException e) {
+            logger.warn("Could not update job {}: {}", id, e.getMessage());
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+}
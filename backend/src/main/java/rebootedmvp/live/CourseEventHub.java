@@ -0,0 +1,278 @@
+package rebootedmvp.live;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.config.CourseEventsConfig;
+import rebootedmvp.event.CourseActivityEvent;
+
+/**
+ * In-process pub/sub behind the per-course event streams. Committed
+ * CourseActivityEvents are numbered, kept in a per-course history of
+ * 'replaySize' events and fanned out to the course's subscribers.
+ *
+ * Event ids are seeded from the clock, so they keep increasing across
+ * restarts. A client that reconnects with a Last-Event-ID is sent the events
+ * it missed from the history, or a resync event when they are no longer
+ * there and it has to reload.
+ *
+ * Published as course.events.subscribers, course.events.published,
+ * course.events.dropped (events replaced by a resync for slow clients) and
+ * course.events.resyncs, tagged with the reason.
+ */
+public class CourseEventHub implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseEventHub.class);
+
+    private final CourseEventsConfig config;
+    private final Predicate<Long> courseExists;
+    private final Function<Long, Optional<Long>> moduleCourse;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final long firstId = System.currentTimeMillis() * 1000;
+    private final AtomicLong lastId = new AtomicLong(firstId);
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "course-events-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter overflowResyncs;
+    private final Counter replayResyncs;
+
+    public CourseEventHub(CourseEventsConfig config, Predicate<Long> courseExists,
+            Function<Long, Optional<Long>> moduleCourse, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.courseExists = courseExists;
+        this.moduleCourse = moduleCourse;
+        this.objectMapper = objectMapper;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(config.getSenderThreads(), config.getSenderThreads(), 0,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "course-events-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("course.events.subscribers", subscribers, AtomicInteger::get)
+                .description("Open course event streams").register(meterRegistry);
+        this.published = Counter.builder("course.events.published")
+                .description("Course events published").register(meterRegistry);
+        this.dropped = Counter.builder("course.events.dropped")
+                .description("Events replaced by a resync because a subscriber fell behind").register(meterRegistry);
+        this.overflowResyncs = Counter.builder("course.events.resyncs").tag("reason", "overflow")
+                .description("Resync events sent to subscribers").register(meterRegistry);
+        this.replayResyncs = Counter.builder("course.events.resyncs").tag("reason", "replay")
+                .description("Resync events sent to subscribers").register(meterRegistry);
+    }
+
+    public void start() {
+        long interval = config.getHeartbeatSeconds();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a stream of the events of the course with id 'courseId', starting
+     * after 'lastEventId' when it is not null. Returns null when
+     * 'maxSubscribers' streams are already open. Throws:
+     * ResponseStatusException if the course does not exist.
+     */
+    public SseEmitter subscribe(Long courseId, Long lastEventId) {
+        if (!courseExists.test(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found with id: " + courseId);
+        }
+        if (subscribers.incrementAndGet() > config.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(config.getTimeoutMillis());
+        CourseEventSubscriber subscriber = new CourseEventSubscriber(emitter, config.getBufferSize(), senders,
+                count -> {
+                    dropped.increment(count);
+                    overflowResyncs.increment();
+                });
+        Channel channel = channels.computeIfAbsent(courseId, id -> new Channel());
+        subscriber.onClose(() -> {
+            channel.subscribers.remove(subscriber);
+            subscribers.decrementAndGet();
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            emitter.complete();
+        });
+
+        channel.lock.lock();
+        try {
+            if (lastEventId != null) {
+                channel.replay(subscriber, lastEventId);
+            }
+            channel.subscribers.add(subscriber);
+        } finally {
+            channel.lock.unlock();
+        }
+        // Sends the response headers right away
+        subscriber.heartbeat();
+        logger.debug("Subscribed to course {} after event {}", courseId, lastEventId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCourseActivity(CourseActivityEvent event) {
+        Long courseId = event.getCourseId();
+        if (courseId == null && event.getModuleId() != null) {
+            courseId = moduleCourse.apply(event.getModuleId()).orElse(null);
+        }
+        if (courseId == null) {
+            logger.debug("Dropping {}: its course is unknown", event);
+            return;
+        }
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload(event, courseId));
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize {}: {}", event, e.getMessage());
+            return;
+        }
+        channels.computeIfAbsent(courseId, id -> new Channel())
+                .publish(event.getType().name().toLowerCase(), data);
+        published.increment();
+    }
+
+    @Override
+    public void close() {
+        heartbeats.shutdownNow();
+        for (Channel channel : channels.values()) {
+            for (CourseEventSubscriber subscriber : channel.subscribers) {
+                subscriber.getEmitter().complete();
+            }
+        }
+        senders.shutdownNow();
+    }
+
+    private void heartbeat() {
+        for (Channel channel : channels.values()) {
+            for (CourseEventSubscriber subscriber : channel.subscribers) {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    private static Map<String, Object> payload(CourseActivityEvent event, Long courseId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", event.getType().name().toLowerCase());
+        payload.put("action", event.getAction());
+        payload.put("courseId", courseId);
+        putIfPresent(payload, "moduleId", event.getModuleId());
+        putIfPresent(payload, "contentId", event.getContentId());
+        putIfPresent(payload, "userId", event.getUserId());
+        putIfPresent(payload, "role", event.getRole());
+        return payload;
+    }
+
+    private static void putIfPresent(Map<String, Object> payload, String name, Object value) {
+        if (value != null) {
+            payload.put(name, value);
+        }
+    }
+
+    /**
+     * A message on an event stream. Heartbeats are sent as SSE comments.
+     */
+    record Message(long id, String name, String data) {
+
+        static final Message HEARTBEAT = new Message(-1, null, null);
+
+        static Message resync(long id, String reason) {
+            return new Message(id, "resync", "{\"reason\":\"" + reason + "\"}");
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().id(Long.toString(id)).name(name).data(data);
+        }
+    }
+
+    /**
+     * The subscribers and recent history of one course. Ids are assigned
+     * under the lock, so history and fan-out are in id order.
+     */
+    private class Channel {
+
+        private final Set<CourseEventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private final ArrayDeque<Message> history = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        // Events up to this id may be missing from the history
+        private long floor = firstId;
+
+        void publish(String name, String data) {
+            lock.lock();
+            try {
+                Message message = new Message(lastId.incrementAndGet(), name, data);
+                history.addLast(message);
+                if (history.size() > config.getReplaySize()) {
+                    floor = history.removeFirst().id();
+                }
+                for (CourseEventSubscriber subscriber : subscribers) {
+                    subscriber.offer(message);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Queues the events after 'lastEventId' for 'subscriber', or a resync
+         * when some of them are gone. Called with the lock held.
+         */
+        void replay(CourseEventSubscriber subscriber, long lastEventId) {
+            if (lastEventId < floor) {
+                long latest = history.isEmpty() ? floor : history.peekLast().id();
+                subscriber.offer(Message.resync(latest, "replay"));
+                replayResyncs.increment();
+                return;
+            }
+            for (Message message : history) {
+                if (message.id() > lastEventId) {
+                    subscriber.offer(message);
+                }
+            }
+        }
+    }
+}
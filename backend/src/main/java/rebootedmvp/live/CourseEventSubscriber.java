@@ -0,0 +1,130 @@
+package rebootedmvp.live;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One open event stream. Messages are queued and written by a sender thread,
+ * so a slow client never blocks the publisher. When more than 'capacity'
+ * messages are waiting, the queue is replaced by a single resync message and
+ * the client reloads instead of receiving every missed change.
+ */
+class CourseEventSubscriber {
+
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final Executor sender;
+    private final IntConsumer onDropped;
+    private final ArrayDeque<CourseEventHub.Message> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private Runnable onClose;
+
+    CourseEventSubscriber(SseEmitter emitter, int capacity, Executor sender, IntConsumer onDropped) {
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.sender = sender;
+        this.onDropped = onDropped;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    void onClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    /**
+     * Queues 'message', coalescing the queue into a resync when it is full
+     */
+    void offer(CourseEventHub.Message message) {
+        if (closed.get()) {
+            return;
+        }
+        int dropped = 0;
+        lock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                dropped = queue.size() + 1;
+                queue.clear();
+                queue.add(CourseEventHub.Message.resync(message.id(), "overflow"));
+            } else {
+                queue.add(message);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (dropped > 0) {
+            onDropped.accept(dropped);
+        }
+        schedule();
+    }
+
+    /**
+     * Queues a heartbeat unless other messages are already waiting
+     */
+    void heartbeat() {
+        lock.lock();
+        try {
+            if (!queue.isEmpty()) {
+                return;
+            }
+            queue.add(CourseEventHub.Message.HEARTBEAT);
+        } finally {
+            lock.unlock();
+        }
+        schedule();
+    }
+
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            lock.lock();
+            try {
+                queue.clear();
+            } finally {
+                lock.unlock();
+            }
+            if (onClose != null) {
+                onClose.run();
+            }
+        }
+    }
+
+    private void schedule() {
+        if (!closed.get() && scheduled.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            CourseEventHub.Message message;
+            lock.lock();
+            try {
+                message = queue.poll();
+                if (message == null) {
+                    scheduled.set(false);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                emitter.send(message.toEvent());
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone or the stream has completed
+                close();
+                return;
+            }
+        }
+    }
+}
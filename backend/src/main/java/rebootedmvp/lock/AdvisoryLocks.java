@@ -0,0 +1,169 @@
+package rebootedmvp.lock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Cluster-wide mutual exclusion for critical sections on one entity, e.g.
+ * creating the profile of a user on first login. Locks are taken with
+ * pg_try_advisory_xact_lock on the current transaction's connection and are
+ * released when it commits or rolls back, so they must be taken inside a
+ * transaction. 'scope' names the kind of critical section; 'key' is hashed,
+ * so two keys may occasionally share a lock.
+ *
+ * On databases other than PostgreSQL the locks are only held within this JVM.
+ *
+ * Published as advisory.locks, tagged with the scope and outcome (acquired,
+ * waited, timeout, or busy for a failed tryLock), and advisory.locks.wait,
+ * the time spent waiting for a lock that was held.
+ */
+@Component
+public class AdvisoryLocks {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdvisoryLocks.class);
+
+    private static final long MIN_BACKOFF_MILLIS = 5;
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    private final Map<String, ReentrantLock> localLocks = new ConcurrentHashMap<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile Boolean postgres;
+
+    /**
+     * Takes the lock for 'key' in 'scope' if it is free. Returns whether the
+     * lock is now held by the current transaction. Throws:
+     * IllegalStateException if no transaction is active.
+     */
+    public boolean tryLock(String scope, String key) {
+        boolean acquired = acquire(scope, key);
+        Meters meter = meters(scope);
+        (acquired ? meter.acquired : meter.busy).increment();
+        return acquired;
+    }
+
+    /**
+     * Takes the lock for 'key' in 'scope', waiting up to 'maxWaitMillis' for
+     * the transaction holding it to end. Returns false if it did not.
+     * Throws: IllegalStateException if no transaction is active.
+     */
+    public boolean lock(String scope, String key, long maxWaitMillis) {
+        Meters meter = meters(scope);
+        if (acquire(scope, key)) {
+            meter.acquired.increment();
+            return true;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        long backoff = MIN_BACKOFF_MILLIS;
+        boolean acquired = false;
+        try {
+            while (!acquired && System.nanoTime() < deadline) {
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                acquired = acquire(scope, key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        meter.waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        (acquired ? meter.waited : meter.timeout).increment();
+        if (!acquired) {
+            logger.warn("Timed out after {} ms waiting for the {} lock on {}", maxWaitMillis, scope, key);
+        }
+        return acquired;
+    }
+
+    private boolean acquire(String scope, String key) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Advisory locks must be taken inside a transaction");
+        }
+        if (isPostgres()) {
+            Object result = entityManager.createNativeQuery("SELECT pg_try_advisory_xact_lock(?1, ?2)")
+                    .setParameter(1, scope.hashCode())
+                    .setParameter(2, key.hashCode())
+                    .getSingleResult();
+            return Boolean.TRUE.equals(result);
+        }
+        return acquireLocal(scope + ":" + key);
+    }
+
+    /**
+     * Same semantics within this JVM: held by the current thread until its
+     * transaction ends
+     */
+    private boolean acquireLocal(String name) {
+        ReentrantLock lock;
+        while (true) {
+            lock = localLocks.computeIfAbsent(name, k -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                return false;
+            }
+            if (localLocks.get(name) == lock) {
+                break;
+            }
+            // Removed by its last holder after we looked it up
+            lock.unlock();
+        }
+        ReentrantLock held = lock;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.unlock();
+                if (!held.isLocked()) {
+                    localLocks.remove(name, held);
+                }
+            }
+        });
+        return true;
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+
+    private Meters meters(String scope) {
+        return meters.computeIfAbsent(scope, s -> new Meters(counter(s, "acquired"), counter(s, "waited"),
+                counter(s, "timeout"), counter(s, "busy"), Timer.builder("advisory.locks.wait").tag("scope", s)
+                        .description("Time spent waiting for an advisory lock held by another transaction")
+                        .register(meterRegistry)));
+    }
+
+    private Counter counter(String scope, String outcome) {
+        return Counter.builder("advisory.locks").tag("scope", scope).tag("outcome", outcome)
+                .description("Advisory lock attempts; all but acquired mean the lock was contended")
+                .register(meterRegistry);
+    }
+
+    private record Meters(Counter acquired, Counter waited, Counter timeout, Counter busy, Timer waitTime) {
+    }
+}
@@ -0,0 +1,85 @@
+package rebootedmvp.projection;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The resources that support sparse fieldsets. Each one maps the JSON property
+ * names of its DTO onto the JPQL expression that produces them, so a request
+ * for a subset of fields only ever selects the matching columns. Counts are
+ * expressed as SIZE() sub-selects and are only evaluated when asked for.
+ *
+ * 'includes' are the collections that can be expanded with include=. They are
+ * never read unless requested.
+ */
+public enum ProjectedResource {
+
+    COURSE("CourseEntityImpl", "c",
+            fields("id", "c.id",
+                    "title", "c.title",
+                    "body", "c.body",
+                    "teacherCount", "SIZE(c.teachers)",
+                    "studentCount", "SIZE(c.students)",
+                    "moduleCount", "SIZE(c.modules)"),
+            Set.of("teachers", "students")),
+
+    MODULE("ModuleEntityImpl", "m",
+            fields("id", "m.id",
+                    "title", "m.title",
+                    "body", "m.body",
+                    "courseId", "m.courseId",
+                    "contentCount", "SIZE(m.contentItems)"),
+            Set.of()),
+
+    CONTENT("ContentEntityImpl", "c",
+            fields("id", "c.id",
+                    "type", "c.contentType",
+                    "title", "c.title",
+                    "body", "c.body",
+                    "complete", "c.isComplete",
+                    "moduleId", "c.moduleId",
+                    "correctAnswer", "c.correctAnswer"),
+            Set.of("options"));
+
+    private final String entityName;
+    private final String alias;
+    private final Map<String, String> fields;
+    private final Set<String> includes;
+
+    ProjectedResource(String entityName, String alias, Map<String, String> fields, Set<String> includes) {
+        this.entityName = entityName;
+        this.alias = alias;
+        this.fields = fields;
+        this.includes = includes;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Returns the selectable fields in their canonical (DTO) order, keyed by JSON
+     * property name
+     */
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    public Set<String> getIncludes() {
+        return includes;
+    }
+
+    private static Map<String, String> fields(String... namesAndExpressions) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndExpressions.length; i += 2) {
+            result.put(namesAndExpressions[i], namesAndExpressions[i + 1]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+}
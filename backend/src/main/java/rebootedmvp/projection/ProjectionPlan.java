@@ -0,0 +1,147 @@
+package rebootedmvp.projection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compiled projection for one combination of resource, fields= and include=.
+ * Plans are immutable and cached by their raw request parameters so parsing and
+ * JPQL generation are only paid the first time a field set is seen.
+ */
+public final class ProjectionPlan {
+
+    // Upper bound on cached plans so arbitrary parameter spellings cannot grow
+    // the cache without limit. Plans beyond it are still compiled, just not kept.
+    private static final int MAX_CACHED_PLANS = 512;
+
+    private static final Map<String, ProjectionPlan> cache = new ConcurrentHashMap<>();
+
+    private final ProjectedResource resource;
+    private final List<String> fields;
+    private final Set<String> includes;
+    private final boolean idSelected;
+    private final String selectClause;
+
+    private ProjectionPlan(ProjectedResource resource, List<String> fields, Set<String> includes) {
+        this.resource = resource;
+        this.fields = Collections.unmodifiableList(fields);
+        this.includes = Collections.unmodifiableSet(includes);
+        this.idSelected = fields.contains("id");
+
+        // The id is needed to attach included collections to their rows, so it is
+        // selected whenever something is included, but only emitted if requested.
+        List<String> expressions = new ArrayList<>();
+        if (!idSelected && !includes.isEmpty()) {
+            expressions.add(resource.getFields().get("id"));
+        }
+        for (String field : fields) {
+            expressions.add(resource.getFields().get(field));
+        }
+        this.selectClause = "SELECT " + String.join(", ", expressions)
+                + " FROM " + resource.getEntityName() + " " + resource.getAlias();
+    }
+
+    /**
+     * Returns the plan for 'resource' restricted to 'fields' and expanded with
+     * 'include'. Either parameter may be null; a null 'fields' selects every field.
+     *
+     * @throws IllegalArgumentException if a field or include is not supported by
+     *                                  the resource
+     */
+    public static ProjectionPlan of(ProjectedResource resource, String fields, String include) {
+        String key = resource.name() + '|' + fields + '|' + include;
+        ProjectionPlan plan = cache.get(key);
+        if (plan != null) {
+            return plan;
+        }
+        plan = compile(resource, fields, include);
+        if (cache.size() < MAX_CACHED_PLANS) {
+            cache.putIfAbsent(key, plan);
+        }
+        return plan;
+    }
+
+    private static ProjectionPlan compile(ProjectedResource resource, String fields, String include) {
+        Set<String> requested = parse(fields);
+        List<String> selected = new ArrayList<>();
+        if (requested.isEmpty()) {
+            selected.addAll(resource.getFields().keySet());
+        } else {
+            for (String field : requested) {
+                if (!resource.getFields().containsKey(field)) {
+                    throw new IllegalArgumentException("Unknown field '" + field + "' for "
+                            + resource.name().toLowerCase() + ". Supported: " + resource.getFields().keySet());
+                }
+            }
+            // Keep the DTO's property order regardless of how the client listed them
+            for (String field : resource.getFields().keySet()) {
+                if (requested.contains(field)) {
+                    selected.add(field);
+                }
+            }
+        }
+
+        Set<String> includes = parse(include);
+        for (String name : includes) {
+            if (!resource.getIncludes().contains(name)) {
+                throw new IllegalArgumentException("Unknown include '" + name + "' for "
+                        + resource.name().toLowerCase() + ". Supported: " + resource.getIncludes());
+            }
+        }
+        return new ProjectionPlan(resource, selected, includes);
+    }
+
+    private static Set<String> parse(String csv) {
+        Set<String> result = new LinkedHashSet<>();
+        if (csv == null) {
+            return result;
+        }
+        for (String part : csv.split(",")) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(trimmed);
+            }
+        }
+        return result;
+    }
+
+    public ProjectedResource getResource() {
+        return resource;
+    }
+
+    /**
+     * Returns the selected fields in output order
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public Set<String> getIncludes() {
+        return includes;
+    }
+
+    public boolean includes(String name) {
+        return includes.contains(name);
+    }
+
+    /**
+     * Returns whether the id column leads each result row without having been
+     * requested (it is then used only to attach includes)
+     */
+    public boolean hasHiddenId() {
+        return !idSelected && !includes.isEmpty();
+    }
+
+    /**
+     * Returns the JPQL select and from clauses for this plan. Callers append their
+     * own where and order by clauses using the resource alias.
+     */
+    public String getSelectClause() {
+        return selectClause;
+    }
+}
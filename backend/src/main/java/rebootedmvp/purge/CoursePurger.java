@@ -0,0 +1,100 @@
+package rebootedmvp.purge;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rebootedmvp.bulkhead.Bulkhead;
+import rebootedmvp.bulkhead.BulkheadFullException;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadContext;
+import rebootedmvp.config.PurgeConfig;
+import rebootedmvp.service.CoursePurgeService;
+
+/**
+ * Removes soft-deleted courses on a background thread, one batch per
+ * transaction with a pause after each, so a large course is purged
+ * gradually instead of in one long transaction. Purgers on several instances
+ * work on different courses.
+ *
+ * Batches are bulk work: they take their connections from the bulk pool and,
+ * when a bulk bulkhead is given, wait for one of its permits, so purging
+ * backs off while interactive requests are slow.
+ */
+public class CoursePurger implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoursePurger.class);
+
+    private final CoursePurgeService coursePurgeService;
+    private final PurgeConfig config;
+    private final Bulkhead bulkhead;
+
+    private volatile boolean stopped;
+    private Thread thread;
+
+    public CoursePurger(CoursePurgeService coursePurgeService, PurgeConfig config, Bulkhead bulkhead) {
+        this.coursePurgeService = coursePurgeService;
+        this.config = config;
+        this.bulkhead = bulkhead;
+    }
+
+    public void start() {
+        thread = new Thread(this::run, "course-purger");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops after the current batch; the rest is purged by the next purger
+     * to run
+     */
+    @Override
+    public void close() {
+        // Not interrupted: that would roll back the batch in progress
+        stopped = true;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (!stopped) {
+            if (bulkhead != null) {
+                try {
+                    bulkhead.acquire();
+                } catch (BulkheadFullException e) {
+                    sleep(config.getPauseMillis());
+                    continue;
+                }
+            }
+            WorkloadContext.set(Workload.BULK);
+            boolean purged;
+            try {
+                purged = coursePurgeService.purgeBatch(config.getBatchSize());
+            } catch (RuntimeException e) {
+                logger.warn("Could not purge deleted courses: {}", e.getMessage());
+                purged = false;
+            } finally {
+                WorkloadContext.clear();
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
+            sleep(purged ? config.getPauseMillis() : config.getPollMillis());
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package rebootedmvp.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A concurrency limit adjusted by additive increase / multiplicative
+ * decrease. A request that completes within 'latencyThresholdMillis' while
+ * the limit was at least half used raises the limit by 1/limit, i.e. by about
+ * one per limit's worth of requests. A slower request, or one that finishes
+ * while 'overloaded' reports threads waiting for a database connection,
+ * multiplies it by 'backoffRatio', at most once per threshold so a burst of
+ * slow requests counts as one signal. The limit stays within
+ * ['minLimit', 'maxLimit'].
+ *
+ * Lock-free: the limit is a double kept in an AtomicLong and both it and the
+ * in-flight count are updated with compare-and-set.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final BooleanSupplier overloaded;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong lastDecrease;
+
+    /**
+     * 'now' is the System.nanoTime() of creation; the limit can first be
+     * decreased right away
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMillis,
+            double backoffRatio, BooleanSupplier overloaded, long now) {
+        if (minLimit < 1 || minLimit > maxLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max and 0 < backoff < 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.backoffRatio = backoffRatio;
+        this.overloaded = overloaded;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(
+                Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+        this.lastDecrease = new AtomicLong(now - latencyThresholdNanos);
+    }
+
+    /**
+     * Returns true and counts the request as in flight if the limit allows it;
+     * the caller must then call release()
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends a request that took 'latencyNanos', finishing at System.nanoTime()
+     * 'now', and adjusts the limit
+     */
+    public void release(long latencyNanos, long now) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos > latencyThresholdNanos || overloaded.getAsBoolean()) {
+            decrease(now);
+        } else if (current * 2 >= getLimit()) {
+            increase();
+        }
+    }
+
+    public double getLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void increase() {
+        while (true) {
+            long bits = limitBits.get();
+            double limit = Double.longBitsToDouble(bits);
+            if (limit >= maxLimit) {
+                return;
+            }
+            double raised = Math.min(maxLimit, limit + 1 / limit);
+            if (limitBits.compareAndSet(bits, Double.doubleToRawLongBits(raised))) {
+                return;
+            }
+        }
+    }
+
+    private void decrease(long now) {
+        long last = lastDecrease.get();
+        if (now - last < latencyThresholdNanos || !lastDecrease.compareAndSet(last, now)) {
+            return;
+        }
+        while (true) {
+            long bits = limitBits.get();
+            double lowered = Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio);
+            if (limitBits.compareAndSet(bits, Double.doubleToRawLongBits(lowered))) {
+                return;
+            }
+        }
+    }
+}
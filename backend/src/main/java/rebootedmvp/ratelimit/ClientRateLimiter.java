@@ -0,0 +1,51 @@
+package rebootedmvp.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A token bucket per client key. Looking up an existing client does not
+ * allocate; a bucket is only created on a client's first request or after it
+ * was purged. Full buckets are purged every PURGE_EVERY new buckets.
+ */
+public class ClientRateLimiter {
+
+    private static final int PURGE_EVERY = 1024;
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger createdSincePurge = new AtomicInteger();
+
+    public ClientRateLimiter(double ratePerSecond, int burst) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+    }
+
+    /**
+     * Takes a token from the bucket of 'client'. Returns 0 if one was taken,
+     * otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(String client, long now) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = create(client, now);
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private TokenBucket create(String client, long now) {
+        if (createdSincePurge.incrementAndGet() >= PURGE_EVERY) {
+            createdSincePurge.set(0);
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        TokenBucket created = new TokenBucket(ratePerSecond, burst, now);
+        TokenBucket existing = buckets.putIfAbsent(client, created);
+        return existing != null ? existing : created;
+    }
+}
@@ -0,0 +1,164 @@
+package rebootedmvp.ratelimit;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import rebootedmvp.bulkhead.WorkloadClass;
+
+/**
+ * Admission control in front of every API handler, checked in this order:
+ *
+ * 1. the client's token bucket - 429 with Retry-After when empty. Clients are
+ *    authenticated users, the request's principal. Unverified identities such
+ *    as a token's subject or a {userId} path variable are not used: anyone
+ *    could drain another user's bucket with them, or claim a new identity per
+ *    request to get a full one. Requests without a principal get a bucket per
+ *    remote address only if 'addresses' is set, since clients behind one NAT
+ *    or proxy share an address; otherwise they skip this check.
+ * 2. the route's token bucket, one per handler method - 429 with Retry-After
+ * 3. the adaptive concurrency limit - 503 with Retry-After when reached
+ *
+ * Bulk and export handlers (see WorkloadClass) are limited by their own
+ * bulkheads and skip the concurrency limit, so long exports do not count as
+ * slow interactive requests.
+ *
+ * Rejections are counted in ratelimit.rejected, tagged with the limit that
+ * was hit (client, route or concurrency).
+ */
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String START = RateLimitInterceptor.class.getName() + ".start";
+
+    private final ClientRateLimiter users;
+    // Null unless anonymous clients are limited by address
+    private final ClientRateLimiter addresses;
+    private final Function<String, TokenBucket> routeBucketFactory;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    // Keyed by the handler's Method, which is the same instance on every request
+    private final Map<Method, TokenBucket> routes = new ConcurrentHashMap<>();
+    private final Counter rejectedClient;
+    private final Counter rejectedRoute;
+    private final Counter rejectedConcurrency;
+
+    public RateLimitInterceptor(ClientRateLimiter users, ClientRateLimiter addresses,
+            Function<String, TokenBucket> routeBucketFactory, AdaptiveConcurrencyLimit concurrencyLimit,
+            MeterRegistry meterRegistry) {
+        this.users = users;
+        this.addresses = addresses;
+        this.routeBucketFactory = routeBucketFactory;
+        this.concurrencyLimit = concurrencyLimit;
+        this.rejectedClient = rejected(meterRegistry, "client");
+        this.rejectedRoute = rejected(meterRegistry, "route");
+        this.rejectedConcurrency = rejected(meterRegistry, "concurrency");
+        Gauge.builder("ratelimit.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit").register(meterRegistry);
+        Gauge.builder("ratelimit.concurrency.in.flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests counted against the concurrency limit").register(meterRegistry);
+        Gauge.builder("ratelimit.clients", this, interceptor -> interceptor.users.size()
+                + (interceptor.addresses != null ? interceptor.addresses.size() : 0))
+                .description("Clients with a token bucket").register(meterRegistry);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("ratelimit.rejected").tag("limit", limit)
+                .description("Requests rejected by admission control").register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        long now = System.nanoTime();
+
+        Principal user = request.getUserPrincipal();
+        long wait = 0;
+        if (user != null) {
+            wait = users.tryAcquire(user.getName(), now);
+        } else if (addresses != null) {
+            wait = addresses.tryAcquire(request.getRemoteAddr(), now);
+        }
+        if (wait > 0) {
+            rejectedClient.increment();
+            return reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "Too many requests from this client");
+        }
+
+        TokenBucket route = routes.get(method.getMethod());
+        if (route == null) {
+            route = routes.computeIfAbsent(method.getMethod(), m -> routeBucketFactory.apply(route(request)));
+        }
+        wait = route.tryAcquire(now);
+        if (wait > 0) {
+            rejectedRoute.increment();
+            return reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, "Too many requests to this endpoint");
+        }
+
+        if (method.hasMethodAnnotation(WorkloadClass.class)
+                || method.getBeanType().isAnnotationPresent(WorkloadClass.class)) {
+            return true;
+        }
+        if (!concurrencyLimit.tryAcquire()) {
+            rejectedConcurrency.increment();
+            return reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1),
+                    "Server is at its concurrency limit");
+        }
+        request.setAttribute(START, now);
+        return true;
+    }
+
+    /**
+     * Releases the slot once an async response such as an event stream has
+     * started, since it no longer holds a request thread
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        afterCompletion(request, response, handler, null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        Object start = request.getAttribute(START);
+        if (start != null) {
+            request.removeAttribute(START);
+            long now = System.nanoTime();
+            concurrencyLimit.release(now - (Long) start, now);
+        }
+    }
+
+    /**
+     * Returns e.g. "GET /api/content/{id}", the form used to configure route
+     * limits
+     */
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    private static boolean reject(HttpServletResponse response, HttpStatus status, long waitNanos, String reason)
+            throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(status.value(), reason);
+        return false;
+    }
+}
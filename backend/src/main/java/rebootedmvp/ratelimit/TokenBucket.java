@@ -0,0 +1,51 @@
+package rebootedmvp.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket holding up to 'burst' tokens that refills at
+ * 'ratePerSecond', implemented as a generic cell rate algorithm: the only
+ * state is the theoretical arrival time of the next request, updated with a
+ * compare-and-set. Taking a token neither locks nor allocates.
+ */
+public final class TokenBucket {
+
+    private final long emissionNanos;
+    private final long burstNanos;
+    private final AtomicLong arrival;
+
+    public TokenBucket(double ratePerSecond, int burst, long now) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.burstNanos = emissionNanos * burst;
+        this.arrival = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token at System.nanoTime() 'now'. Returns 0 if one was taken,
+     * otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + emissionNanos;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the bucket is full at 'now', so dropping it loses nothing
+     */
+    public boolean isFull(long now) {
+        return arrival.get() <= now;
+    }
+}
@@ -0,0 +1,78 @@
+package rebootedmvp.reactive;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves the learner read paths (roster, course outline, module content and
+ * a user's courses) on the same URLs and with the same JSON as the MVC
+ * controllers, without blocking a thread per request
+ */
+public class ReactiveReadHandler {
+
+    private final ReactiveReadRepository repository;
+    private final MeterRegistry meterRegistry;
+
+    public ReactiveReadHandler(ReactiveReadRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the routes, timed as reactive.read.requests by route and status
+     */
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/api/roster", request -> ok(repository.findCourses()))
+                .GET("/api/courses/{courseId}", this::getModules)
+                .GET("/api/content/module/{moduleId}", request -> id(request, "moduleId")
+                        .flatMap(moduleId -> ok(repository.findContentsByModuleId(moduleId))))
+                .GET("/api/course-memberships/user/{userId}/courses",
+                        request -> ok(repository.findUserCourses(request.pathVariable("userId"))))
+                .onError(NumberFormatException.class, (e, request) -> ServerResponse.badRequest().build())
+                .filter((request, next) -> {
+                    long start = System.nanoTime();
+                    return next.handle(request).doOnSuccess(response -> record(request, response.statusCode(),
+                            start));
+                })
+                .build();
+    }
+
+    private Mono<ServerResponse> getModules(ServerRequest request) {
+        return id(request, "courseId")
+                .flatMap(courseId -> repository.courseExists(courseId)
+                        .flatMap(exists -> exists ? ok(repository.findModulesByCourseId(courseId))
+                                : ServerResponse.notFound().build()));
+    }
+
+    private static Mono<ServerResponse> ok(Flux<?> rows) {
+        return rows.collectList()
+                .flatMap(list -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(list));
+    }
+
+    private static Mono<Long> id(ServerRequest request, String name) {
+        return Mono.fromCallable(() -> Long.valueOf(request.pathVariable(name)));
+    }
+
+    private void record(ServerRequest request, HttpStatusCode status, long start) {
+        String route = request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE)
+                .map(Object::toString)
+                .orElse("UNKNOWN");
+        Timer.builder("reactive.read.requests")
+                .tag("route", route)
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
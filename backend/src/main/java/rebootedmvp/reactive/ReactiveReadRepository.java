@@ -0,0 +1,113 @@
+package rebootedmvp.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import rebootedmvp.User;
+import rebootedmvp.dto.ContentDTO;
+import rebootedmvp.dto.CourseDTO;
+import rebootedmvp.dto.ModuleDTO;
+import rebootedmvp.dto.TextContentDTO;
+import rebootedmvp.dto.UserCourseDTO;
+
+/**
+ * R2DBC queries behind the reactive read API. Each method returns the same
+ * DTOs, in the same order, as the service the MVC endpoint uses. Counts are
+ * selected as subqueries instead of loading the collections.
+ */
+public class ReactiveReadRepository {
+
+    private static final String COURSES = "SELECT c.id, c.title, c.body,"
+            + " (SELECT COUNT(*) FROM course_teachers t WHERE t.course_id = c.id) AS teacher_count,"
+            + " (SELECT COUNT(*) FROM course_students s WHERE s.course_id = c.id) AS student_count,"
+            + " (SELECT COUNT(*) FROM modules m WHERE m.course_id = c.id) AS module_count"
+            + " FROM courses c WHERE c.deleted_at IS NULL ORDER BY c.id";
+
+    private static final String MODULES = "SELECT m.id, m.title, m.body, m.course_id,"
+            + " (SELECT COUNT(*) FROM contents x WHERE x.module_id = m.id) AS content_count"
+            + " FROM modules m WHERE m.course_id = :courseId ORDER BY m.created_at ASC";
+
+    // Empty once the module's course is soft-deleted, as through the Content entity
+    private static final String CONTENTS = "SELECT id, title, body, is_complete, module_id FROM contents"
+            + " WHERE module_id = :moduleId AND EXISTS (SELECT 1 FROM modules m JOIN courses c ON c.id = m.course_id"
+            + " WHERE m.id = :moduleId AND c.deleted_at IS NULL) ORDER BY created_at ASC";
+
+    private static final String USER_COURSES = "SELECT c.id, c.title, c.body,"
+            + " EXISTS (SELECT 1 FROM course_students s WHERE s.course_id = c.id AND s.supabase_user_id = u.id)"
+            + " AS student"
+            + " FROM users u JOIN courses c"
+            + " ON EXISTS (SELECT 1 FROM course_teachers t WHERE t.course_id = c.id AND t.supabase_user_id = u.id)"
+            + " OR EXISTS (SELECT 1 FROM course_students s WHERE s.course_id = c.id AND s.supabase_user_id = u.id)"
+            + " WHERE u.supabase_user_id = :userId AND c.deleted_at IS NULL ORDER BY c.id";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Returns every course, as RosterService.findAll does
+     */
+    public Flux<CourseDTO> findCourses() {
+        return databaseClient.sql(COURSES)
+                .map(row -> {
+                    CourseDTO course = new CourseDTO(row.get("id", Long.class), row.get("title", String.class),
+                            row.get("body", String.class), row.get("module_count", Long.class).intValue());
+                    course.setTeacherCount(row.get("teacher_count", Long.class).intValue());
+                    course.setStudentCount(row.get("student_count", Long.class).intValue());
+                    return course;
+                })
+                .all();
+    }
+
+    public Mono<Boolean> courseExists(Long courseId) {
+        return databaseClient.sql("SELECT 1 FROM courses WHERE id = :courseId AND deleted_at IS NULL")
+                .bind("courseId", courseId)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    /**
+     * Returns the modules of the course with id 'courseId', as
+     * CourseService.getById does
+     */
+    public Flux<ModuleDTO> findModulesByCourseId(Long courseId) {
+        return databaseClient.sql(MODULES)
+                .bind("courseId", courseId)
+                .map(row -> new ModuleDTO(row.get("id", Long.class), row.get("title", String.class),
+                        row.get("body", String.class), row.get("course_id", Long.class),
+                        row.get("content_count", Long.class).intValue()))
+                .all();
+    }
+
+    /**
+     * Returns the content of the module with id 'moduleId'. ContentService reads
+     * every row as a ContentEntityImpl, whose type is always Text, so every row
+     * is returned as a TextContentDTO here too.
+     */
+    public Flux<ContentDTO> findContentsByModuleId(Long moduleId) {
+        return databaseClient.sql(CONTENTS)
+                .bind("moduleId", moduleId)
+                .map(row -> (ContentDTO) new TextContentDTO(row.get("id", Long.class),
+                        row.get("title", String.class), row.get("body", String.class),
+                        Boolean.TRUE.equals(row.get("is_complete", Boolean.class)), row.get("module_id", Long.class)))
+                .all();
+    }
+
+    /**
+     * Returns the courses the user with Supabase id 'userId' teaches or is
+     * enrolled in, with the user's role in each
+     */
+    public Flux<UserCourseDTO> findUserCourses(String userId) {
+        return databaseClient.sql(USER_COURSES)
+                .bind("userId", userId)
+                .map(row -> new UserCourseDTO(row.get("id", Long.class), row.get("title", String.class),
+                        row.get("body", String.class),
+                        Boolean.TRUE.equals(row.get("student", Boolean.class)) ? User.UserType.EmployeeUser
+                                : User.UserType.LDUser))
+                .all();
+    }
+}
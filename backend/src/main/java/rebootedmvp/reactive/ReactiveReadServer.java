@@ -0,0 +1,101 @@
+package rebootedmvp.reactive;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.handler.WebFluxResponseStatusExceptionHandler;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.r2dbc.pool.ConnectionPool;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Runs the reactive read API on its own Reactor Netty server next to Tomcat.
+ * Requests are served by 'eventLoopThreads' event-loop threads and the R2DBC
+ * pool, so open connections do not hold threads or JDBC connections. The
+ * server and the pool are shut down before the application context closes.
+ */
+public class ReactiveReadServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+    private final int port;
+    private final int eventLoopThreads;
+    private final RouterFunction<ServerResponse> routes;
+    private final CorsWebFilter corsFilter;
+    private final ObjectMapper objectMapper;
+    private final ConnectionPool connectionPool;
+
+    private LoopResources loops;
+    private DisposableServer server;
+
+    public ReactiveReadServer(int port, int eventLoopThreads, RouterFunction<ServerResponse> routes,
+            CorsWebFilter corsFilter, ObjectMapper objectMapper, ConnectionPool connectionPool) {
+        this.port = port;
+        this.eventLoopThreads = eventLoopThreads;
+        this.routes = routes;
+        this.corsFilter = corsFilter;
+        this.objectMapper = objectMapper;
+        this.connectionPool = connectionPool;
+    }
+
+    @Override
+    public void start() {
+        // Same ObjectMapper as the MVC controllers, so the JSON is identical
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        HttpHandler httpHandler = WebHttpHandlerBuilder.webHandler(RouterFunctions.toWebHandler(routes, strategies))
+                .filter(corsFilter)
+                .exceptionHandler(new WebFluxResponseStatusExceptionHandler())
+                .build();
+
+        int threads = eventLoopThreads > 0 ? eventLoopThreads : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        loops = LoopResources.create("reactive-read", threads, true);
+        server = HttpServer.create()
+                .port(port)
+                .runOn(loops)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        logger.info("Reactive read API listening on port {} with {} event-loop threads", server.port(), threads);
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow(Duration.ofSeconds(10));
+            server = null;
+        }
+        if (loops != null) {
+            loops.disposeLater().block(Duration.ofSeconds(10));
+            loops = null;
+        }
+        connectionPool.dispose();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Returns the bound port, which differs from 'port' when that is 0
+     */
+    public int getPort() {
+        return server != null ? server.port() : port;
+    }
+}
@@ -0,0 +1,110 @@
+package rebootedmvp.replica;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Polls the replica's replication lag on a background thread. The replica is
+ * usable while the last check succeeded, was recent and reported a lag of at
+ * most 'maxLagMillis'; otherwise reads fall back to the primary. Published as
+ * the gauges replica.lag (milliseconds) and replica.usable (0 or 1).
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // A check older than this many intervals means the monitor is stuck
+    private static final int STALE_INTERVALS = 3;
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long intervalMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long lagMillis = -1;
+    private volatile long checkedAt;
+    private volatile boolean usable;
+    // Only touched by the monitor thread
+    private boolean checkedOnce;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMillis, long intervalMillis,
+            MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.intervalMillis = intervalMillis;
+        Gauge.builder("replica.lag", this, monitor -> monitor.lagMillis).baseUnit("milliseconds")
+                .description("Replication lag of the read replica, -1 if unknown").register(meterRegistry);
+        Gauge.builder("replica.usable", this, monitor -> monitor.isUsable() ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica").register(meterRegistry);
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::check, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isUsable() {
+        return usable && System.currentTimeMillis() - checkedAt < STALE_INTERVALS * intervalMillis;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void check() {
+        try (Connection connection = replica.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(intervalMillis)));
+            try (ResultSet result = statement.executeQuery(lagQuery)) {
+                lagMillis = result.next() ? result.getLong(1) : -1;
+            }
+            checkedAt = System.currentTimeMillis();
+            report(lagMillis >= 0 && lagMillis <= maxLagMillis, null);
+        } catch (SQLException | RuntimeException e) {
+            lagMillis = -1;
+            report(false, e);
+        }
+    }
+
+    /**
+     * Updates 'usable' and logs when it changes, including on the first check
+     */
+    private void report(boolean nowUsable, Exception failure) {
+        boolean changed = nowUsable != usable || !checkedOnce;
+        usable = nowUsable;
+        checkedOnce = true;
+        if (!changed) {
+            return;
+        }
+        if (failure != null) {
+            logger.warn("Replica lag check failed, reading from the primary: {}", failure.getMessage());
+        } else if (nowUsable) {
+            logger.info("Replica lag {} ms, routing reads to the replica", lagMillis);
+        } else {
+            logger.warn("Replica lag {} ms exceeds {} ms, reading from the primary", lagMillis, maxLagMillis);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package rebootedmvp.replica;
+
+/**
+ * Thread-bound override that keeps read-only transactions on the primary,
+ * set for write requests and for requests from a user who wrote recently
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static void forcePrimary() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_ONLY.get() != null;
+    }
+}
@@ -0,0 +1,113 @@
+package rebootedmvp.replica;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the
+ * primary pool. Connections are only fetched on their first statement, after
+ * the transaction has marked them read-only, so the choice follows
+ * {@code @Transactional(readOnly = true)}.
+ *
+ * Read-only transactions still go to the primary when ReplicaRouting forces it
+ * (the user's own recent write) or the lag monitor reports the replica
+ * unusable. Each choice is counted in datasource.reads, tagged with the
+ * target and reason.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements DisposableBean {
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadRouter reads;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+            ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        super(primary);
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+
+        this.reads = new ReadRouter(lagMonitor, meterRegistry);
+        route(primary, replica);
+    }
+
+    /**
+     * Replaces the primary and replica pools with wrappers around them, e.g.
+     * to split each by workload. Routing is unchanged: writes use the wrapped
+     * primary, and reads choose between the wrapped primary and replica.
+     */
+    public void wrapPools(Function<HikariDataSource, DataSource> primaryWrapper,
+            Function<HikariDataSource, DataSource> replicaWrapper) {
+        route(primaryWrapper.apply(primary), replicaWrapper.apply(replica));
+    }
+
+    private void route(DataSource writes, DataSource readReplica) {
+        setTargetDataSource(writes);
+        reads.setTargetDataSources(Map.of(Target.PRIMARY, writes, Target.REPLICA, readReplica));
+        reads.setDefaultTargetDataSource(writes);
+        reads.afterPropertiesSet();
+        setReadOnlyDataSource(reads);
+    }
+
+    public ReplicaLagMonitor getLagMonitor() {
+        return lagMonitor;
+    }
+
+    @Override
+    public void destroy() {
+        lagMonitor.close();
+        replica.close();
+        primary.close();
+    }
+
+    private enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static class ReadRouter extends AbstractRoutingDataSource {
+
+        private final ReplicaLagMonitor lagMonitor;
+        private final Counter replicaReads;
+        private final Counter stickyReads;
+        private final Counter lagReads;
+
+        ReadRouter(ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+            this.lagMonitor = lagMonitor;
+            this.replicaReads = counter(meterRegistry, "replica", "read-only");
+            this.stickyReads = counter(meterRegistry, "primary", "sticky");
+            this.lagReads = counter(meterRegistry, "primary", "replica-unusable");
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (ReplicaRouting.isPrimaryForced()) {
+                stickyReads.increment();
+                return Target.PRIMARY;
+            }
+            if (!lagMonitor.isUsable()) {
+                lagReads.increment();
+                return Target.PRIMARY;
+            }
+            replicaReads.increment();
+            return Target.REPLICA;
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String target, String reason) {
+            return Counter.builder("datasource.reads").tag("target", target).tag("reason", reason)
+                    .description("Read-only connections by the pool they were routed to")
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package rebootedmvp.replica;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers when each client last wrote, so its reads stay on the primary
+ * until the replica has had 'windowMillis' to catch up. Expired entries are
+ * purged every PURGE_EVERY writes.
+ */
+public class ReplicaStickiness {
+
+    private static final int PURGE_EVERY = 1024;
+
+    private final long windowMillis;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger writesSincePurge = new AtomicInteger();
+
+    public ReplicaStickiness(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    public void markWrite(String client) {
+        long now = System.currentTimeMillis();
+        lastWrites.put(client, now);
+        if (writesSincePurge.incrementAndGet() >= PURGE_EVERY) {
+            writesSincePurge.set(0);
+            lastWrites.values().removeIf(written -> now - written >= windowMillis);
+        }
+    }
+
+    /**
+     * Returns true if 'client' wrote within the window
+     */
+    public boolean isSticky(String client) {
+        Long written = lastWrites.get(client);
+        return written != null && System.currentTimeMillis() - written < windowMillis;
+    }
+}
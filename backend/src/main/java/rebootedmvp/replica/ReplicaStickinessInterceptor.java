@@ -0,0 +1,72 @@
+package rebootedmvp.replica;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import rebootedmvp.security.RequestUserResolver;
+
+/**
+ * Keeps a user's reads on the primary while they write and for the
+ * stickiness window afterwards, so they read their own writes. Users are
+ * identified by RequestUserResolver (token subject, or the {userId} path
+ * variable).
+ *
+ * Anonymous requests are not sticky: their writes use the primary, but
+ * their next reads may go to the replica and miss those writes for as long
+ * as it lags, at most 'max-lag-millis' before reads fall back to the
+ * primary. They are not keyed by remote address, since clients behind one
+ * NAT or proxy would then keep each other on the primary.
+ *
+ * An interceptor rather than a filter so path variables are known; it runs
+ * before the handler opens a transaction.
+ */
+public class ReplicaStickinessInterceptor implements AsyncHandlerInterceptor {
+
+    private final ReplicaStickiness stickiness;
+    private final RequestUserResolver userResolver;
+
+    public ReplicaStickinessInterceptor(ReplicaStickiness stickiness, RequestUserResolver userResolver) {
+        this.stickiness = stickiness;
+        this.userResolver = userResolver;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!isSafe(request.getMethod())) {
+            ReplicaRouting.forcePrimary();
+        } else {
+            String user = userResolver.resolve(request);
+            if (user != null && stickiness.isSticky(user)) {
+                ReplicaRouting.forcePrimary();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears the override on the request thread once an async response has
+     * started; the response is written on other threads
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        ReplicaRouting.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        ReplicaRouting.clear();
+        if (!isSafe(request.getMethod()) && ex == null && response.getStatus() < 400) {
+            String user = userResolver.resolve(request);
+            if (user != null) {
+                stickiness.markWrite(user);
+            }
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+}
@@ -1,12 +1,17 @@
 package rebootedmvp.repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import rebootedmvp.Content;
 import rebootedmvp.domain.impl.ContentEntityImpl;
 
@@ -23,6 +28,17 @@ public interface ContentRepository extends JpaRepository<ContentEntityImpl, Long
 
     List<ContentEntityImpl> findByModuleId(Long moduleId);
 
+    /**
+     * Streams all content in id order through a forward-only cursor that fetches
+     * 500 rows at a time. Must be consumed (and closed) inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM ContentEntityImpl c ORDER BY c.id")
+    Stream<ContentEntityImpl> streamAll();
+
     /**
      * Find content by module ID ordered by creation date
      */
@@ -81,6 +97,12 @@ public interface ContentRepository extends JpaRepository<ContentEntityImpl, Long
     @Query("SELECT COUNT(c) > 0 FROM ContentEntityImpl c WHERE c.id = :contentId AND c.moduleId = :moduleId")
     boolean existsByIdAndModuleId(@Param("contentId") Long contentId, @Param("moduleId") Long moduleId);
 
+    /**
+     * Find the module ID of a content item
+     */
+    @Query("SELECT c.moduleId FROM ContentEntityImpl c WHERE c.id = :contentId")
+    Optional<Long> findModuleIdById(@Param("contentId") Long contentId);
+
     /**
      * Find question content with specific correct answer
      */
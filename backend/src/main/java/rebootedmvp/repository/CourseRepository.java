@@ -1,9 +1,12 @@
 package rebootedmvp.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
@@ -80,4 +83,23 @@ public interface CourseRepository extends JpaRepository<CourseEntityImpl, Long>
         @NonNull
         @EntityGraph(attributePaths = { "teachers", "students" })
         List<CourseEntityImpl> findAll();
-}
\ No newline at end of file
+
+        /**
+         * Marks the course as deleted at 'now', which hides it, its modules and
+         * their content from every query. Returns 0 if there is no such course
+         * or it was already deleted.
+         */
+        @Modifying
+        @Query(value = "UPDATE courses SET deleted_at = :now WHERE id = :courseId AND deleted_at IS NULL",
+                        nativeQuery = true)
+        int softDelete(@Param("courseId") Long courseId, @Param("now") LocalDateTime now);
+
+        /**
+         * Locks the soft-deleted course that was deleted first. Courses locked by
+         * another purger are skipped, so instances purge different courses. Must
+         * be called inside a transaction.
+         */
+        @Query(value = "SELECT id FROM courses WHERE deleted_at IS NOT NULL"
+                        + " ORDER BY deleted_at, id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+        Optional<Long> claimDeleted();
+}
@@ -0,0 +1,38 @@
+package rebootedmvp.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import rebootedmvp.job.Job;
+
+/**
+ * Repository for background jobs. Also the job queue: workers on every
+ * instance claim work with claimNext().
+ */
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+
+    /**
+     * Locks the oldest job that is queued, or running on a worker whose lease
+     * ran out before 'now'. Rows locked by other claims are skipped rather
+     * than waited for, so concurrent workers each get a different job. Must
+     * be called inside a transaction.
+     */
+    @Query(value = "SELECT * FROM jobs WHERE status = 'QUEUED' OR (status = 'RUNNING' AND lease_until < :now)"
+            + " ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Job> claimNext(@Param("now") LocalDateTime now);
+
+    /**
+     * Find a job and lock it until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM Job j WHERE j.id = :id")
+    Optional<Job> findByIdForUpdate(@Param("id") Long id);
+}
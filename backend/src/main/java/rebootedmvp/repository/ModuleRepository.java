@@ -1,6 +1,7 @@
 package rebootedmvp.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -59,4 +60,10 @@ public interface ModuleRepository extends JpaRepository<ModuleEntityImpl, Long>
      */
     @Query("SELECT COUNT(m) > 0 FROM ModuleEntityImpl m WHERE m.id = :moduleId AND m.courseId = :courseId")
     boolean existsByIdAndCourseId(@Param("moduleId") Long moduleId, @Param("courseId") Long courseId);
-}
\ No newline at end of file
+
+    /**
+     * Find the course ID of a module
+     */
+    @Query("SELECT m.courseId FROM ModuleEntityImpl m WHERE m.id = :moduleId")
+    Optional<Long> findCourseIdById(@Param("moduleId") Long moduleId);
+}
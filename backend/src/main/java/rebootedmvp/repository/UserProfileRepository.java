@@ -2,12 +2,16 @@ package rebootedmvp.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import rebootedmvp.User;
 import rebootedmvp.domain.impl.UserProfileImpl;
 
@@ -71,4 +75,15 @@ public interface UserProfileRepository extends JpaRepository<UserProfileImpl, Lo
      * Count users by user type
      */
     Long countByUserType(User.UserType userType);
-}
\ No newline at end of file
+
+    /**
+     * Streams all users in id order through a forward-only cursor that fetches
+     * 500 rows at a time. Must be consumed (and closed) inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM UserProfileImpl u ORDER BY u.id")
+    Stream<UserProfileImpl> streamAll();
+}
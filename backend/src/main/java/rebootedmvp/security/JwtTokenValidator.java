@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import rebootedmvp.config.SupabaseConfig;
+import rebootedmvp.jfr.JwtValidationEvent;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
@@ -206,10 +207,10 @@ public class JwtTokenValidator {
 
     // Alternative method that returns Claims instead of boolean (for compatibility)
     public Claims validateTokenAndGetClaims(String token) {
-        if (validateToken(token)) {
-            return extractClaims(token);
-        }
-        return null;
+        JwtValidationEvent event = JwtValidationEvent.start();
+        Claims claims = validateToken(token) ? extractClaims(token) : null;
+        event.finish(claims);
+        return claims;
     }
 
     // Method expected by other classes
@@ -0,0 +1,86 @@
+package rebootedmvp.security;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Base64;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Identifies the user making a request, for replica stickiness: the
+ * authenticated principal, else the subject of the Bearer token, else the
+ * request's {userId} path variable. Returns null for anonymous requests.
+ *
+ * Must be called after handler mapping, e.g. from a HandlerInterceptor, so
+ * path variables are known. The result is kept on the request, so the token
+ * is decoded at most once. The token's signature is not verified: the
+ * subject only selects a stickiness entry, and authentication is left to
+ * JwtAuthenticationFilter (currently disabled). Do not key limits or access
+ * on the result, since any client can claim any user.
+ */
+@Component
+public class RequestUserResolver {
+
+    private static final String USER = RequestUserResolver.class.getName() + ".user";
+    private static final String ANONYMOUS = "";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public String resolve(HttpServletRequest request) {
+        Object resolved = request.getAttribute(USER);
+        if (resolved == null) {
+            String user = find(request);
+            resolved = user != null ? user : ANONYMOUS;
+            request.setAttribute(USER, resolved);
+        }
+        return resolved == ANONYMOUS ? null : (String) resolved;
+    }
+
+    private String find(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return principal.getName();
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            String subject = subject(authorization.substring(BEARER_PREFIX.length()));
+            if (subject != null) {
+                return subject;
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables != null ? variables.get("userId") : null;
+    }
+
+    /**
+     * Returns the "sub" claim of a JWT, or null if it has none or is malformed
+     */
+    private String subject(String token) {
+        int payloadStart = token.indexOf('.') + 1;
+        int payloadEnd = token.indexOf('.', payloadStart);
+        if (payloadStart == 0 || payloadEnd < 0) {
+            return null;
+        }
+        try {
+            JsonNode subject = objectMapper
+                    .readTree(Base64.getUrlDecoder().decode(token.substring(payloadStart, payloadEnd)))
+                    .get("sub");
+            return subject != null && subject.isTextual() ? subject.asText() : null;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+}
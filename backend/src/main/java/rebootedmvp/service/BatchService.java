@@ -0,0 +1,240 @@
+package rebootedmvp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
+import rebootedmvp.dto.BatchOperationDTO;
+import rebootedmvp.dto.BatchResponseDTO;
+import rebootedmvp.dto.BatchResultDTO;
+import rebootedmvp.dto.ContentDTO;
+import rebootedmvp.dto.NewContentDTO;
+import rebootedmvp.dto.NewCourseDTO;
+import rebootedmvp.dto.NewModuleDTO;
+
+/**
+ * Runs an ordered list of course, module and content edits in a single
+ * transaction. Each operation is delegated to the service that owns the
+ * resource, so validation is identical to the individual endpoints. The first
+ * failing operation rolls the whole batch back and the operations after it are
+ * reported as skipped.
+ */
+@Service
+@Transactional
+public class BatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    public static final int MAX_OPERATIONS = 500;
+
+    private static final String REF_PREFIX = "$";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private RosterService rosterService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private ContentService contentService;
+
+    /**
+     * Executes 'operations' in order. Ids created by earlier operations can be
+     * referenced by later ones as "$ref". Throws: IllegalArgumentException if the
+     * batch is empty or larger than MAX_OPERATIONS.
+     */
+    @WorkloadClass(Workload.BULK)
+    public BatchResponseDTO execute(List<BatchOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("A batch must contain at least one operation");
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_OPERATIONS + " operations");
+        }
+        logger.debug("BatchService.execute() called with {} operations", operations.size());
+
+        Map<String, Long> refs = new HashMap<>();
+        List<BatchResultDTO> results = new ArrayList<>(operations.size());
+        int failedAt = -1;
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDTO operation = operations.get(i);
+            if (failedAt >= 0) {
+                results.add(new BatchResultDTO(i, operation.getOp(), operation.getRef(), "skipped", null, null));
+                continue;
+            }
+            try {
+                Long id = apply(operation, refs);
+                if (operation.getRef() != null) {
+                    if (refs.putIfAbsent(operation.getRef(), id) != null) {
+                        throw new IllegalArgumentException("Duplicate ref: " + operation.getRef());
+                    }
+                }
+                results.add(new BatchResultDTO(i, operation.getOp(), operation.getRef(), "ok", id, null));
+            } catch (ResponseStatusException e) {
+                failedAt = i;
+                results.add(new BatchResultDTO(i, operation.getOp(), operation.getRef(), "failed", null,
+                        e.getReason()));
+            } catch (RuntimeException e) {
+                failedAt = i;
+                results.add(new BatchResultDTO(i, operation.getOp(), operation.getRef(), "failed", null,
+                        e.getMessage()));
+            }
+        }
+
+        if (failedAt >= 0) {
+            logger.info("Batch rolled back at operation {} of {}", failedAt, operations.size());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new BatchResponseDTO(false, results, "Operation " + failedAt + " failed");
+        }
+
+        // Pending updates and deletes are written here as JDBC batches
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            logger.warn("Batch of {} operations failed on flush: {}", operations.size(), e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return new BatchResponseDTO(false, results, e.getMessage());
+        }
+        logger.info("Applied batch of {} operations", operations.size());
+        return new BatchResponseDTO(true, results);
+    }
+
+    /**
+     * Applies 'operations' in order for a chunk of a batch job, adding the ids
+     * they create to 'refs'. 'firstIndex' is the position of the first
+     * operation in the whole job, used in error messages. Throws:
+     * IllegalArgumentException naming the first operation that failed, which
+     * rolls the chunk back.
+     */
+    public void applyAll(List<BatchOperationDTO> operations, Map<String, Long> refs, int firstIndex) {
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDTO operation = operations.get(i);
+            try {
+                Long id = apply(operation, refs);
+                if (operation.getRef() != null && refs.putIfAbsent(operation.getRef(), id) != null) {
+                    throw new IllegalArgumentException("Duplicate ref: " + operation.getRef());
+                }
+            } catch (ResponseStatusException e) {
+                throw new IllegalArgumentException(
+                        "Operation " + (firstIndex + i) + " (" + operation.getOp() + ") failed: " + e.getReason(), e);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(
+                        "Operation " + (firstIndex + i) + " (" + operation.getOp() + ") failed: " + e.getMessage(), e);
+            }
+        }
+        entityManager.flush();
+    }
+
+    /**
+     * Applies one operation and returns the id of the resource it created or
+     * touched
+     */
+    private Long apply(BatchOperationDTO operation, Map<String, Long> refs) {
+        if (operation.getOp() == null) {
+            throw new IllegalArgumentException("Operation 'op' must be supplied");
+        }
+        switch (operation.getOp()) {
+            case "createCourse":
+                return rosterService.addNew(Long.valueOf(0),
+                        new NewCourseDTO(operation.getTitle(), operation.getBody()));
+            case "updateCourse": {
+                Long courseId = resolve(operation.getId(), "id", refs);
+                rosterService.update(Long.valueOf(0), courseId,
+                        new NewCourseDTO(operation.getTitle(), operation.getBody()));
+                return courseId;
+            }
+            case "deleteCourse": {
+                Long courseId = resolve(operation.getId(), "id", refs);
+                if (!rosterService.delete(Long.valueOf(0), courseId)) {
+                    throw new IllegalArgumentException("Course not found with id: " + courseId);
+                }
+                return courseId;
+            }
+            case "createModule": {
+                Long courseId = resolve(operation.getCourseId(), "courseId", refs);
+                return courseService.addNew(courseId,
+                        new NewModuleDTO(operation.getTitle(), operation.getBody(), courseId));
+            }
+            case "updateModule": {
+                Long courseId = resolve(operation.getCourseId(), "courseId", refs);
+                Long moduleId = resolve(operation.getId(), "id", refs);
+                courseService.update(courseId, moduleId,
+                        new NewModuleDTO(operation.getTitle(), operation.getBody(), courseId));
+                return moduleId;
+            }
+            case "deleteModule": {
+                Long courseId = resolve(operation.getCourseId(), "courseId", refs);
+                Long moduleId = resolve(operation.getId(), "id", refs);
+                if (!courseService.delete(courseId, moduleId)) {
+                    throw new IllegalArgumentException(
+                            "Module " + moduleId + " not found in course " + courseId);
+                }
+                return moduleId;
+            }
+            case "createContent": {
+                Long moduleId = resolve(operation.getModuleId(), "moduleId", refs);
+                ContentDTO created = contentService.create(toContentDTO(operation, moduleId));
+                return created.getId();
+            }
+            case "updateContent": {
+                Long contentId = resolve(operation.getId(), "id", refs);
+                if (contentService.update(contentId, toContentDTO(operation, null)) == null) {
+                    throw new IllegalArgumentException("Content not found with id: " + contentId);
+                }
+                return contentId;
+            }
+            case "deleteContent": {
+                Long contentId = resolve(operation.getId(), "id", refs);
+                if (!contentService.delete(contentId)) {
+                    throw new IllegalArgumentException("Content not found with id: " + contentId);
+                }
+                return contentId;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported operation: " + operation.getOp());
+        }
+    }
+
+    private static NewContentDTO toContentDTO(BatchOperationDTO operation, Long moduleId) {
+        return new NewContentDTO(operation.getType(), operation.getTitle(), operation.getBody(), moduleId,
+                operation.getOptions(), operation.getCorrectAnswer());
+    }
+
+    /**
+     * Turns an id argument into a numeric id, looking up "$ref" values among the
+     * ids created earlier in the batch
+     */
+    private static Long resolve(String value, String name, Map<String, Long> refs) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("'" + name + "' must be supplied");
+        }
+        if (value.startsWith(REF_PREFIX)) {
+            Long id = refs.get(value.substring(REF_PREFIX.length()));
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown ref '" + value + "' for '" + name + "'");
+            }
+            return id;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + name + "' must be a number or a $ref, got: " + value);
+        }
+    }
+}
@@ -2,24 +2,36 @@ package rebootedmvp.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import rebootedmvp.Content;
 import rebootedmvp.ContentMapper;
 import rebootedmvp.Module;
 import rebootedmvp.ModuleMapper;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
+import rebootedmvp.coalesce.Coalesced;
 import rebootedmvp.domain.impl.ContentEntityImpl;
 import rebootedmvp.domain.impl.QuestionContentImpl;
 import rebootedmvp.dto.ContentDTO;
 import rebootedmvp.dto.NewContentDTO;
 import rebootedmvp.dto.QuestionContentDTO;
 import rebootedmvp.dto.TextContentDTO;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+import rebootedmvp.event.CourseActivityEvent;
+import rebootedmvp.jfr.ContentWriteEvent;
 import rebootedmvp.repository.ContentRepository;
 import rebootedmvp.repository.ModuleRepository;
 
@@ -35,6 +47,12 @@ public class ContentService {
     @Autowired
     private ModuleRepository moduleRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Transactional(readOnly = true)
     public List<ContentDTO> findAll() {
         logger.debug("ContentService.findAll() called");
@@ -43,6 +61,23 @@ public class ContentService {
                 .toList();
     }
 
+    /**
+     * Passes every content item to 'sink' as it is read from the database. Each
+     * entity is detached once mapped, so memory use does not grow with the table.
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<? super ContentDTO> sink) {
+        logger.debug("ContentService.streamAll() called");
+        try (Stream<ContentEntityImpl> contents = contentRepository.streamAll()) {
+            contents.forEach(content -> {
+                sink.accept(convertToDTO(content));
+                entityManager.detach(content);
+            });
+        }
+    }
+
+    @Coalesced(EntityType.MODULE)
     @Transactional(readOnly = true)
     public List<ContentDTO> findByModuleId(Long moduleId) {
         logger.debug("ContentService.findByModuleId({}) called", moduleId);
@@ -61,6 +96,7 @@ public class ContentService {
 
     public ContentDTO create(NewContentDTO newContentDTO) {
         logger.debug("ContentService.create() called with type: {}", newContentDTO.getType());
+        ContentWriteEvent writeEvent = ContentWriteEvent.start("create");
 
         if (newContentDTO.getTitle() == null || newContentDTO.getTitle().trim().isEmpty()) {
             throw new IllegalArgumentException("Content title cannot be empty");
@@ -114,11 +150,18 @@ public class ContentService {
 
         Content savedContent = contentRepository.save(ContentMapper.toEntity(content));
         logger.info("Created content with ID: {} in module: {}", savedContent.getId(), module.getId());
+        eventPublisher.publishEvent(
+                CatalogChangedEvent.content(module.getCourseId(), module.getId(), savedContent.getId()));
+        eventPublisher.publishEvent(CourseActivityEvent.content(module.getCourseId(), module.getId(),
+                savedContent.getId(), "created"));
+        writeEvent.finish(savedContent.getId(), module.getId(), module.getCourseId(), newContentDTO.getType(),
+                newContentDTO.getOptions());
         return convertToDTO(savedContent);
     }
 
     public ContentDTO update(Long id, NewContentDTO updateContentDTO) {
         logger.debug("ContentService.update({}) called", id);
+        ContentWriteEvent writeEvent = ContentWriteEvent.start("update");
 
         Optional<Content> contentOpt = contentRepository.findById(id).map(ContentMapper::toDomain);
         if (contentOpt.isEmpty()) {
@@ -149,6 +192,11 @@ public class ContentService {
 
         Content savedContent = contentRepository.save(ContentMapper.toEntity(content));
         logger.info("Updated content with ID: {}", savedContent.getId());
+        contentChanged(content.getModuleId(), savedContent.getId());
+        eventPublisher.publishEvent(CourseActivityEvent.content(null, content.getModuleId(), savedContent.getId(),
+                "updated"));
+        writeEvent.finish(savedContent.getId(), content.getModuleId(), null, content.getType().name(),
+                updateContentDTO.getOptions());
         return
 
         convertToDTO(savedContent);
@@ -157,9 +205,12 @@ public class ContentService {
     public boolean delete(Long id) {
         logger.debug("ContentService.delete({}) called", id);
 
-        if (contentRepository.existsById(id)) {
+        Optional<Long> moduleId = contentRepository.findModuleIdById(id);
+        if (moduleId.isPresent()) {
             contentRepository.deleteById(id);
             logger.info("Deleted content with ID: {}", id);
+            contentChanged(moduleId.get(), id);
+            eventPublisher.publishEvent(CourseActivityEvent.content(null, moduleId.get(), id, "deleted"));
             return true;
         }
         return false;
@@ -178,6 +229,8 @@ public class ContentService {
 
         Content savedContent = contentRepository.save(ContentMapper.toEntity(content));
         logger.info("Marked content {} as complete", savedContent.getId());
+        contentChanged(content.getModuleId(), savedContent.getId());
+        eventPublisher.publishEvent(CourseActivityEvent.progress(content.getModuleId(), savedContent.getId(), true));
         return convertToDTO(savedContent);
     }
 
@@ -194,9 +247,20 @@ public class ContentService {
 
         Content savedContent = contentRepository.save(ContentMapper.toEntity(content));
         logger.info("Marked content {} as complete", savedContent.getId());
+        contentChanged(content.getModuleId(), savedContent.getId());
+        eventPublisher.publishEvent(CourseActivityEvent.progress(content.getModuleId(), savedContent.getId(), false));
         return convertToDTO(savedContent);
     }
 
+    /**
+     * Publishes the change of content 'contentId' with its module and course,
+     * so caches drop only the entries about them
+     */
+    private void contentChanged(Long moduleId, Long contentId) {
+        Long courseId = moduleRepository.findCourseIdById(moduleId).orElse(null);
+        eventPublisher.publishEvent(CatalogChangedEvent.content(courseId, moduleId, contentId));
+    }
+
     private ContentDTO convertToDTO(Content content) {
         if (content.getType() == Content.ContentType.Text) {
             return new TextContentDTO(
@@ -11,19 +11,28 @@ import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import rebootedmvp.User;
 import rebootedmvp.Course;
 import rebootedmvp.CourseMapper;
 import rebootedmvp.UserMapper;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
 import rebootedmvp.domain.impl.CourseEntityImpl;
 import rebootedmvp.domain.impl.UserProfileImpl;
 import rebootedmvp.dto.CourseUserDTO;
 import rebootedmvp.dto.UserCourseDTO;
 import rebootedmvp.dto.UserProfileDTO;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CourseActivityEvent;
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+import rebootedmvp.jfr.EnrollmentEvent;
 import rebootedmvp.repository.CourseRepository;
 import rebootedmvp.repository.UserProfileRepository;
 
@@ -42,11 +51,25 @@ public class CourseMembershipService {
     @Autowired
     private UserProfileRepository userProfileRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     @Lazy
     private CourseService courseService;
 
     public boolean addUserToCourse(Long courseId, String userId, String role) {
+        EnrollmentEvent enrollment = EnrollmentEvent.start("add");
+        boolean added = false;
+        try {
+            added = addUser(courseId, userId, role);
+            return added;
+        } finally {
+            enrollment.finish(courseId, userId, role, 1, added);
+        }
+    }
+
+    private boolean addUser(Long courseId, String userId, String role) {
         logger.debug("Adding user {} to course {} with role {}", userId, courseId, role);
 
         // Find the user
@@ -78,18 +101,33 @@ public class CourseMembershipService {
             course.addTeacher(user);
             courseRepository.save(CourseMapper.toEntity(course));
             logger.info("Successfully added user {} to course {} as {}", userId, courseId, role);
+            eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+            eventPublisher.publishEvent(CourseActivityEvent.membership(courseId, "added", userId, role));
             return true;
 
         } else if ("student".equals(role)) {
             course.addStudent(user);
             courseRepository.save(CourseMapper.toEntity(course));
             logger.info("Successfully added user {} to course {} as {}", userId, courseId, role);
+            eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+            eventPublisher.publishEvent(CourseActivityEvent.membership(courseId, "added", userId, role));
             return true;
         }
         return false;
     }
 
     public boolean removeUserFromCourse(Long courseId, String userId) {
+        EnrollmentEvent enrollment = EnrollmentEvent.start("remove");
+        boolean removed = false;
+        try {
+            removed = removeUser(courseId, userId);
+            return removed;
+        } finally {
+            enrollment.finish(courseId, userId, null, 1, removed);
+        }
+    }
+
+    private boolean removeUser(Long courseId, String userId) {
         logger.debug("Removing user {} from course {}", userId, courseId);
 
         // Find the user
@@ -122,6 +160,8 @@ public class CourseMembershipService {
         if (removedAsTeacher || removedAsStudent) {
             courseRepository.save(CourseMapper.toEntity(course));
             logger.info("Successfully removed user {} from course {}", userId, courseId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+            eventPublisher.publishEvent(CourseActivityEvent.membership(courseId, "removed", userId, null));
             return true;
         }
         return false;
@@ -193,7 +233,19 @@ public class CourseMembershipService {
         }
     }
 
+    @WorkloadClass(Workload.BULK)
     public boolean addUsersByCourse(Long courseId, List<String> usernames, String role) {
+        EnrollmentEvent enrollment = EnrollmentEvent.start("add");
+        boolean added = false;
+        try {
+            added = addUsers(courseId, usernames, role);
+            return added;
+        } finally {
+            enrollment.finish(courseId, null, role, usernames.size(), added);
+        }
+    }
+
+    private boolean addUsers(Long courseId, List<String> usernames, String role) {
         logger.debug("Adding {} users to course {} with role {}", usernames.size(), courseId, role);
 
         // Find all users first
@@ -234,10 +286,47 @@ public class CourseMembershipService {
             courseRepository.save(CourseMapper.toEntity(course));
             logger.info("Successfully added {} users to course {} as {}", users.size(), courseId, role);
         }
+        eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+        eventPublisher.publishEvent(CourseActivityEvent.membership(courseId, "added", null, role));
         return true;
 
     }
 
+    /**
+     * Adds the users named in 'usernames' to course 'courseId' as 'role'
+     * ("teacher" or "student") and returns the usernames that were found.
+     * Unlike addUsersByCourse, unknown usernames are skipped instead of
+     * failing the whole call, so large rosters can be enrolled in chunks.
+     * Throws: ResponseStatusException if the course does not exist.
+     */
+    public List<String> enrollUsers(Long courseId, List<String> usernames, String role) {
+        EnrollmentEvent enrollment = EnrollmentEvent.start("add");
+        List<String> found = new ArrayList<>();
+        try {
+            // Changed in place: the managed course keeps its modules
+            CourseEntityImpl course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                            "Course not found with id: " + courseId));
+            for (User user : userProfileRepository.findByUsernameIn(usernames)) {
+                if ("teacher".equals(role)) {
+                    course.addTeacher(user);
+                } else {
+                    course.addStudent(user);
+                }
+                found.add(user.getUsername());
+            }
+            logger.info("Enrolled {} of {} users in course {} as {}", found.size(), usernames.size(), courseId,
+                    role);
+            if (!found.isEmpty()) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+                eventPublisher.publishEvent(CourseActivityEvent.membership(courseId, "added", null, role));
+            }
+            return found;
+        } finally {
+            enrollment.finish(courseId, null, role, usernames.size(), !found.isEmpty());
+        }
+    }
+
     @Transactional(readOnly = true)
     public int getTeacherCount(Long courseId) {
         Optional<Course> courseOpt = courseRepository.findById(courseId).map(CourseMapper::toDomain);
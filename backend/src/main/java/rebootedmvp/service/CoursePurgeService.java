@@ -0,0 +1,100 @@
+package rebootedmvp.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.repository.CourseRepository;
+
+/**
+ * Removes soft-deleted courses for CoursePurger, one batch of modules per
+ * transaction. Rows are deleted with set-based statements, child tables
+ * first, so no entity is loaded and no foreign key is violated. Once a
+ * course has no modules left, its memberships and the course itself are
+ * deleted.
+ *
+ * Published as courses.purge.rows, tagged with the table.
+ */
+@Service
+public class CoursePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoursePurgeService.class);
+
+    private static final String CONTENT_IDS = "SELECT id FROM contents WHERE module_id IN (:modules)";
+
+    private static final List<Purge> MODULE_TABLES = List.of(
+            new Purge("content_options", "DELETE FROM content_options WHERE content_id IN (" + CONTENT_IDS + ")"),
+            // Subclass tables of contents and modules (JOINED inheritance)
+            new Purge("text_content_impl", "DELETE FROM text_content_impl WHERE id IN (" + CONTENT_IDS + ")"),
+            new Purge("question_content_impl",
+                    "DELETE FROM question_content_impl WHERE id IN (" + CONTENT_IDS + ")"),
+            new Purge("content_entity_impl", "DELETE FROM content_entity_impl WHERE id IN (" + CONTENT_IDS + ")"),
+            new Purge("contents", "DELETE FROM contents WHERE module_id IN (:modules)"),
+            new Purge("module_entity_impl", "DELETE FROM module_entity_impl WHERE id IN (:modules)"),
+            new Purge("modules", "DELETE FROM modules WHERE id IN (:modules)"));
+
+    private static final List<Purge> COURSE_TABLES = List.of(
+            new Purge("course_students", "DELETE FROM course_students WHERE course_id = :course"),
+            new Purge("course_teachers", "DELETE FROM course_teachers WHERE course_id = :course"),
+            new Purge("course_entity_impl", "DELETE FROM course_entity_impl WHERE id = :course"),
+            new Purge("courses", "DELETE FROM courses WHERE id = :course"));
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Purges up to 'batchSize' modules of the first soft-deleted course that
+     * no other purger holds, or the course itself once its modules are gone.
+     * Returns false if there was nothing to purge.
+     */
+    @Transactional
+    public boolean purgeBatch(int batchSize) {
+        Optional<Long> claimed = courseRepository.claimDeleted();
+        if (claimed.isEmpty()) {
+            return false;
+        }
+        Long courseId = claimed.get();
+        List<Long> moduleIds = jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT id FROM modules WHERE course_id = ? ORDER BY id LIMIT " + batchSize, Long.class, courseId);
+        if (!moduleIds.isEmpty()) {
+            int deleted = delete(MODULE_TABLES, Map.of("modules", moduleIds));
+            logger.debug("Purged {} modules ({} rows) of deleted course {}", moduleIds.size(), deleted, courseId);
+            return true;
+        }
+        int deleted = delete(COURSE_TABLES, Map.of("course", courseId));
+        logger.info("Purged deleted course {} ({} rows in the last batch)", courseId, deleted);
+        return true;
+    }
+
+    private int delete(List<Purge> tables, Map<String, ?> params) {
+        int total = 0;
+        for (Purge purge : tables) {
+            int deleted = jdbcTemplate.update(purge.sql(), params);
+            Counter.builder("courses.purge.rows").tag("table", purge.table())
+                    .description("Rows of soft-deleted courses removed").register(meterRegistry).increment(deleted);
+            total += deleted;
+        }
+        return total;
+    }
+
+    /**
+     * The statement that deletes a batch's rows from 'table'
+     */
+    private record Purge(String table, String sql) {
+    }
+}
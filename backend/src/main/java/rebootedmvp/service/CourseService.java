@@ -6,6 +6,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,11 +17,16 @@ import rebootedmvp.CourseMapper;
 import rebootedmvp.InfoContainer;
 import rebootedmvp.Module;
 import rebootedmvp.ModuleMapper;
+import rebootedmvp.coalesce.Coalesced;
 import rebootedmvp.domain.impl.ModuleEntityImpl;
 import rebootedmvp.domain.impl.UserProfileImpl;
 import rebootedmvp.dto.ModuleDTO;
 import rebootedmvp.dto.NewCourseDTO;
 import rebootedmvp.dto.NewModuleDTO;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CourseActivityEvent;
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+import rebootedmvp.jfr.EnrollmentEvent;
 import rebootedmvp.repository.CourseRepository;
 import rebootedmvp.repository.ModuleRepository;
 import rebootedmvp.repository.UserProfileRepository;
@@ -34,6 +40,9 @@ public class CourseService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Autowired
     private UserProfileRepository userRepository;
 
@@ -55,6 +64,7 @@ public class CourseService {
     /**
      * Returns a list of all modules within the course with given ID
      */
+    @Coalesced(EntityType.COURSE)
     @Transactional(readOnly = true)
     public List<ModuleDTO> getById(Long courseId) {
         logger.debug("CourseService.getById({}) called - getting modules for course", courseId);
@@ -118,6 +128,8 @@ public class CourseService {
 
         Module savedModule = moduleRepository.save(ModuleMapper.toEntity(module));
         logger.info("Created module with ID: {} in course: {}", savedModule.getId(), courseId);
+        eventPublisher.publishEvent(CatalogChangedEvent.module(courseId, savedModule.getId()));
+        eventPublisher.publishEvent(CourseActivityEvent.module(courseId, savedModule.getId(), "created"));
         return savedModule.getId();
     }
 
@@ -151,6 +163,8 @@ public class CourseService {
 
         moduleRepository.save(ModuleMapper.toEntity(module));
         logger.info("Updated module with ID: {} in course: {}", moduleId, courseId);
+        eventPublisher.publishEvent(CatalogChangedEvent.module(courseId, moduleId));
+        eventPublisher.publishEvent(CourseActivityEvent.module(courseId, moduleId, "updated"));
     }
 
     /**
@@ -175,31 +189,53 @@ public class CourseService {
 
         moduleRepository.deleteById(moduleId);
         logger.info("Deleted module with ID: {} from course: {}", moduleId, courseId);
+        eventPublisher.publishEvent(CatalogChangedEvent.module(courseId, moduleId));
+        eventPublisher.publishEvent(CourseActivityEvent.module(courseId, moduleId, "deleted"));
         return true;
     }
 
     @Transactional
     public void addStudent(Long courseId, Long userId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
-
-        UserProfileImpl user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        course.addStudent(user);
-        courseRepository.save(CourseMapper.toEntity(course)); // this is needed to persist the join table change
+        EnrollmentEvent enrollment = EnrollmentEvent.start("add");
+        boolean added = false;
+        try {
+            Course course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+
+            UserProfileImpl user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+            course.addStudent(user);
+            courseRepository.save(CourseMapper.toEntity(course)); // this is needed to persist the join table change
+            eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+            eventPublisher.publishEvent(
+                    CourseActivityEvent.membership(courseId, "added", String.valueOf(userId), "student"));
+            added = true;
+        } finally {
+            enrollment.finish(courseId, userId, "student", 1, added);
+        }
     }
 
     @Transactional
     public void addTeacher(Long courseId, Long userId) {
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new IllegalArgumentException("Course not found"));
-
-        UserProfileImpl user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        course.addTeacher(user);
-        courseRepository.save(CourseMapper.toEntity(course)); // this is needed to persist the join table change
+        EnrollmentEvent enrollment = EnrollmentEvent.start("add");
+        boolean added = false;
+        try {
+            Course course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new IllegalArgumentException("Course not found"));
+
+            UserProfileImpl user = userRepository.findById(userId)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+            course.addTeacher(user);
+            courseRepository.save(CourseMapper.toEntity(course)); // this is needed to persist the join table change
+            eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+            eventPublisher.publishEvent(
+                    CourseActivityEvent.membership(courseId, "added", String.valueOf(userId), "teacher"));
+            added = true;
+        } finally {
+            enrollment.finish(courseId, userId, "teacher", 1, added);
+        }
     }
 
     private static List<ModuleDTO> mapToDTO(List<Module> toMap) {
@@ -0,0 +1,229 @@
+package rebootedmvp.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import rebootedmvp.config.JobsConfig;
+import rebootedmvp.dto.JobDTO;
+import rebootedmvp.dto.NewJobDTO;
+import rebootedmvp.job.Job;
+import rebootedmvp.job.JobChunk;
+import rebootedmvp.job.JobHandler;
+import rebootedmvp.repository.JobRepository;
+
+/**
+ * Submits, reports on and cancels background jobs, and runs them a chunk at a
+ * time for JobWorker. Each chunk runs in its own transaction, which also
+ * saves the job's checkpoint and extends the worker's lease.
+ */
+@Service
+public class JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+
+    private final Map<String, JobHandler> handlers = new HashMap<>();
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private JobsConfig config;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public void setHandlers(List<JobHandler> handlers) {
+        for (JobHandler handler : handlers) {
+            this.handlers.put(handler.getType(), handler);
+        }
+    }
+
+    /**
+     * Queues a job. Throws: IllegalArgumentException if the type is unknown or
+     * its handler rejects the parameters.
+     */
+    @Transactional
+    public JobDTO submit(NewJobDTO newJobDTO) {
+        JobHandler handler = handlers.get(newJobDTO.getType());
+        if (handler == null) {
+            throw new IllegalArgumentException(
+                    "Unknown job type: " + newJobDTO.getType() + ", expected one of " + handlers.keySet());
+        }
+        JsonNode params = newJobDTO.getParams() != null ? newJobDTO.getParams() : objectMapper.createObjectNode();
+        Long total = handler.prepare(params);
+        Job job = jobRepository.save(new Job(handler.getType(), write(params), total));
+        logger.info("Queued {} job {} with {} items", job.getJobType(), job.getId(), total);
+        return toDTO(job);
+    }
+
+    @Transactional(readOnly = true)
+    public JobDTO getById(Long id) {
+        return jobRepository.findById(id).map(this::toDTO)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found with id: " + id));
+    }
+
+    /**
+     * Cancels a queued job right away. A running job stops after its current
+     * chunk; the chunks already committed are kept. Finished jobs are not
+     * changed.
+     */
+    @Transactional
+    public JobDTO cancel(Long id) {
+        Job job = jobRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found with id: " + id));
+        if (job.getStatus() == Job.Status.QUEUED) {
+            job.finish(Job.Status.CANCELLED, "Cancelled after " + job.getCheckpoint() + " items");
+        } else if (job.getStatus() == Job.Status.RUNNING) {
+            job.setCancelRequested(true);
+        }
+        return toDTO(job);
+    }
+
+    /**
+     * Claims the next job for 'owner', or returns empty when none is waiting
+     */
+    @Transactional
+    public Optional<Job> claim(String owner) {
+        Optional<Job> claimed = jobRepository.claimNext(LocalDateTime.now());
+        claimed.ifPresent(job -> {
+            job.claim(owner, leaseUntil());
+            logger.info("Worker {} claimed {} job {} at checkpoint {} (attempt {})", owner, job.getJobType(),
+                    job.getId(), job.getCheckpoint(), job.getAttempts());
+        });
+        return claimed;
+    }
+
+    /**
+     * Runs the next chunk of job 'id' if 'owner' still holds it. Returns true
+     * if the job has more chunks to run.
+     */
+    @Transactional
+    public boolean runChunk(Long id, String owner) {
+        Job job = jobRepository.findByIdForUpdate(id).orElse(null);
+        if (job == null || !job.isOwnedBy(owner)) {
+            logger.warn("Worker {} no longer holds job {}", owner, id);
+            return false;
+        }
+        if (job.isCancelRequested()) {
+            job.finish(Job.Status.CANCELLED, "Cancelled after " + job.getCheckpoint() + " items");
+            logger.info("Cancelled job {} at checkpoint {}", id, job.getCheckpoint());
+            return false;
+        }
+        JobHandler handler = handlers.get(job.getJobType());
+        if (handler == null) {
+            job.finish(Job.Status.FAILED, "No handler for job type " + job.getJobType());
+            return false;
+        }
+
+        ObjectNode state = job.getState() != null ? (ObjectNode) read(job.getState())
+                : objectMapper.createObjectNode();
+        JobChunk chunk = new JobChunk(read(job.getParams()), state, job.getCheckpoint(), config.getChunkSize());
+        handler.process(chunk);
+
+        int handled = chunk.getCompleted() + chunk.getFailed();
+        job.setCheckpoint(job.getCheckpoint() + handled);
+        job.setFailedItems(job.getFailedItems() + chunk.getFailed());
+        job.setState(write(state));
+        job.setLeaseUntil(leaseUntil());
+        if (chunk.isDone()) {
+            job.finish(Job.Status.SUCCEEDED, chunk.getMessage());
+            logger.info("Finished {} job {} after {} items", job.getJobType(), id, job.getCheckpoint());
+            return false;
+        }
+        if (handled == 0) {
+            job.finish(Job.Status.FAILED, "Stopped at checkpoint " + job.getCheckpoint() + ": no progress");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fails job 'id' with 'message' if 'owner' still holds it
+     */
+    @Transactional
+    public void fail(Long id, String owner, String message) {
+        jobRepository.findByIdForUpdate(id).filter(job -> job.isOwnedBy(owner)).ifPresent(job -> {
+            job.finish(Job.Status.FAILED, "Failed at checkpoint " + job.getCheckpoint() + ": " + message);
+            logger.warn("Job {} failed at checkpoint {}: {}", id, job.getCheckpoint(), message);
+        });
+    }
+
+    /**
+     * Returns job 'id' to the queue, so any worker resumes it from its
+     * checkpoint
+     */
+    @Transactional
+    public void release(Long id, String owner) {
+        jobRepository.findByIdForUpdate(id).filter(job -> job.isOwnedBy(owner)).ifPresent(Job::release);
+    }
+
+    /**
+     * Extends the lease of 'owner' on job 'id' while it cannot run a chunk
+     */
+    @Transactional
+    public void renew(Long id, String owner) {
+        jobRepository.findByIdForUpdate(id).filter(job -> job.isOwnedBy(owner))
+                .ifPresent(job -> job.setLeaseUntil(leaseUntil()));
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusSeconds(config.getLeaseSeconds());
+    }
+
+    private JobDTO toDTO(Job job) {
+        JobDTO dto = new JobDTO();
+        dto.setId(job.getId());
+        dto.setType(job.getJobType());
+        dto.setStatus(job.getStatus().name());
+        dto.setTotal(job.getTotalItems());
+        dto.setProcessed(job.getCheckpoint());
+        dto.setFailed(job.getFailedItems());
+        if (job.getStatus() == Job.Status.SUCCEEDED) {
+            dto.setPercentComplete(100.0);
+        } else if (job.getTotalItems() != null && job.getTotalItems() > 0) {
+            dto.setPercentComplete(Math.min(100.0, 100.0 * job.getCheckpoint() / job.getTotalItems()));
+        }
+        dto.setCancelRequested(job.isCancelRequested());
+        dto.setMessage(job.getMessage());
+        dto.setResult(job.getState() != null ? read(job.getState()) : null);
+        dto.setAttempts(job.getAttempts());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setUpdatedAt(job.getUpdatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private JsonNode read(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored job JSON is invalid: " + e.getMessage(), e);
+        }
+    }
+
+    private String write(JsonNode node) {
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Job parameters cannot be stored: " + e.getMessage(), e);
+        }
+    }
+}
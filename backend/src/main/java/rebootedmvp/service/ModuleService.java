@@ -2,19 +2,26 @@ package rebootedmvp.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import rebootedmvp.Content;
 import rebootedmvp.ContentMapper;
 import rebootedmvp.Module;
 import rebootedmvp.ModuleMapper;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
 import rebootedmvp.domain.impl.ContentEntityImpl;
 import rebootedmvp.domain.impl.QuestionContentImpl;
 import rebootedmvp.domain.impl.TextContentImpl;
@@ -22,6 +29,9 @@ import rebootedmvp.dto.ContentDTO;
 import rebootedmvp.dto.NewContentDTO;
 import rebootedmvp.dto.QuestionContentDTO;
 import rebootedmvp.dto.TextContentDTO;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CourseActivityEvent;
+import rebootedmvp.jfr.ContentWriteEvent;
 import rebootedmvp.repository.ContentRepository;
 import rebootedmvp.repository.ModuleRepository;
 
@@ -37,6 +47,12 @@ public class ModuleService {
     @Autowired
     private ContentRepository contentRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Returns a list of all content in all modules
      */
@@ -46,6 +62,21 @@ public class ModuleService {
         return mapToDTO(contentRepository.findAll().stream().map(ContentMapper::toDomain).toList());
     }
 
+    /**
+     * Streams all content in all modules to 'sink', one item at a time
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<? super ContentDTO> sink) {
+        logger.debug("ModuleService.streamAll() called - streaming all content");
+        try (Stream<ContentEntityImpl> contents = contentRepository.streamAll()) {
+            contents.forEach(content -> {
+                sink.accept(convertToDTO(ContentMapper.toDomain(content)));
+                entityManager.detach(content);
+            });
+        }
+    }
+
     /**
      * Returns a list of all content within the module with given ID
      */
@@ -93,6 +124,7 @@ public class ModuleService {
      */
     public Long addNew(Long moduleId, NewContentDTO newContentDTO) {
         logger.debug("ModuleService.addNew({}, {}) called", moduleId, newContentDTO.getTitle());
+        ContentWriteEvent writeEvent = ContentWriteEvent.start("create");
 
         if (newContentDTO.getTitle() == null || newContentDTO.getTitle().trim().isEmpty()) {
             throw new IllegalArgumentException("The title must be supplied in the DTO");
@@ -129,6 +161,11 @@ public class ModuleService {
 
         Content savedContent = contentRepository.save(ContentMapper.toEntity(content));
         logger.info("Created content with ID: {} in module: {}", savedContent.getId(), moduleId);
+        eventPublisher.publishEvent(CatalogChangedEvent.content(module.getCourseId(), moduleId, savedContent.getId()));
+        eventPublisher.publishEvent(CourseActivityEvent.content(module.getCourseId(), moduleId, savedContent.getId(),
+                "created"));
+        writeEvent.finish(savedContent.getId(), moduleId, module.getCourseId(), newContentDTO.getType(),
+                newContentDTO.getOptions());
         return savedContent.getId();
     }
 
@@ -137,6 +174,7 @@ public class ModuleService {
      */
     public void update(Long moduleId, Long contentId, NewContentDTO updateDTO) {
         logger.debug("ModuleService.update({}, {}, {}) called", moduleId, contentId, updateDTO.getTitle());
+        ContentWriteEvent writeEvent = ContentWriteEvent.start("update");
 
         if (!moduleRepository.existsById(moduleId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Module not found with id: " + moduleId);
@@ -179,6 +217,9 @@ public class ModuleService {
         }
         contentRepository.save(ContentMapper.toEntity(content));
         logger.info("Updated content with ID: {} in module: {}", contentId, moduleId);
+        contentChanged(moduleId, contentId);
+        eventPublisher.publishEvent(CourseActivityEvent.content(null, moduleId, contentId, "updated"));
+        writeEvent.finish(contentId, moduleId, null, content.getType().name(), updateDTO.getOptions());
     }
 
     /**
@@ -203,15 +244,26 @@ public class ModuleService {
 
         contentRepository.deleteById(contentId);
         logger.info("Deleted content with ID: {} from module: {}", contentId, moduleId);
+        contentChanged(moduleId, contentId);
+        eventPublisher.publishEvent(CourseActivityEvent.content(null, moduleId, contentId, "deleted"));
         return true;
     }
 
+    /**
+     * Publishes the change of content 'contentId' with its module and course,
+     * so caches drop only the entries about them
+     */
+    private void contentChanged(Long moduleId, Long contentId) {
+        Long courseId = moduleRepository.findCourseIdById(moduleId).orElse(null);
+        eventPublisher.publishEvent(CatalogChangedEvent.content(courseId, moduleId, contentId));
+    }
+
     private static List<ContentDTO> mapToDTO(List<Content> toMap) {
         return toMap.stream().map(
                 elem -> convertToDTO(elem)).toList();
     }
 
-    private static ContentDTO convertToDTO(Content content) {
+    static ContentDTO convertToDTO(Content content) {
         if (content.getType() == Content.ContentType.Text) {
             return new TextContentDTO(
                     content.getId(),
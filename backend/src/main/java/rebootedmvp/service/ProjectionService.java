@@ -0,0 +1,165 @@
+package rebootedmvp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import rebootedmvp.projection.ProjectedResource;
+import rebootedmvp.projection.ProjectionPlan;
+import rebootedmvp.repository.CourseRepository;
+
+/**
+ * Serves sparse fieldset requests (fields= / include=) for courses, modules and
+ * content. Only the columns named by the plan are selected and collections are
+ * only queried when included, so nothing the client did not ask for is read or
+ * serialized. Rows are returned as ordered maps keyed by DTO property name.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProjectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionService.class);
+
+    // Keeps IN lists for include queries well under the driver's bind limit
+    private static final int INCLUDE_BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    /**
+     * Returns every course, projected onto the requested fields
+     */
+    public List<Map<String, Object>> findCourses(String fields, String include) {
+        ProjectionPlan plan = ProjectionPlan.of(ProjectedResource.COURSE, fields, include);
+        logger.debug("ProjectionService.findCourses() called with fields {} and includes {}",
+                plan.getFields(), plan.getIncludes());
+        List<Map<String, Object>> rows = select(plan, plan.getSelectClause() + " ORDER BY c.id", Map.of());
+        if (plan.includes("teachers")) {
+            attach(plan, rows, "teachers",
+                    "SELECT c.id, t.username FROM CourseEntityImpl c JOIN c.teachers t WHERE c.id IN :ids");
+        }
+        if (plan.includes("students")) {
+            attach(plan, rows, "students",
+                    "SELECT c.id, s.username FROM CourseEntityImpl c JOIN c.students s WHERE c.id IN :ids");
+        }
+        return strip(plan, rows);
+    }
+
+    /**
+     * Returns the modules of the course with id 'courseId', projected onto the
+     * requested fields. Throws: ResponseStatusException if the course does not
+     * exist.
+     */
+    public List<Map<String, Object>> findModulesByCourseId(Long courseId, String fields, String include) {
+        ProjectionPlan plan = ProjectionPlan.of(ProjectedResource.MODULE, fields, include);
+        logger.debug("ProjectionService.findModulesByCourseId({}) called with fields {}", courseId,
+                plan.getFields());
+
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found with id: " + courseId);
+        }
+
+        return strip(plan, select(plan,
+                plan.getSelectClause() + " WHERE m.courseId = :courseId ORDER BY m.createdAt ASC",
+                Map.of("courseId", courseId)));
+    }
+
+    /**
+     * Returns all content, projected onto the requested fields
+     */
+    public List<Map<String, Object>> findContents(String fields, String include) {
+        ProjectionPlan plan = ProjectionPlan.of(ProjectedResource.CONTENT, fields, include);
+        logger.debug("ProjectionService.findContents() called with fields {} and includes {}",
+                plan.getFields(), plan.getIncludes());
+        return withOptions(plan, select(plan, plan.getSelectClause() + " ORDER BY c.id", Map.of()));
+    }
+
+    /**
+     * Returns the content of the module with id 'moduleId', projected onto the
+     * requested fields
+     */
+    public List<Map<String, Object>> findContentsByModuleId(Long moduleId, String fields, String include) {
+        ProjectionPlan plan = ProjectionPlan.of(ProjectedResource.CONTENT, fields, include);
+        logger.debug("ProjectionService.findContentsByModuleId({}) called with fields {} and includes {}",
+                moduleId, plan.getFields(), plan.getIncludes());
+        return withOptions(plan, select(plan,
+                plan.getSelectClause() + " WHERE c.moduleId = :moduleId ORDER BY c.createdAt ASC",
+                Map.of("moduleId", moduleId)));
+    }
+
+    private List<Map<String, Object>> withOptions(ProjectionPlan plan, List<Map<String, Object>> rows) {
+        if (plan.includes("options")) {
+            attach(plan, rows, "options",
+                    "SELECT c.id, o FROM ContentEntityImpl c JOIN c.optionText o WHERE c.id IN :ids");
+        }
+        return strip(plan, rows);
+    }
+
+    private List<Map<String, Object>> select(ProjectionPlan plan, String jpql, Map<String, Object> params) {
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        params.forEach(query::setParameter);
+
+        List<String> fields = plan.getFields();
+        int offset = plan.hasHiddenId() ? 1 : 0;
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : query.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            if (offset == 1) {
+                row.put("id", tuple.get(0));
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                row.put(fields.get(i), tuple.get(i + offset));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Loads the collection 'name' for every row with one query per batch of ids
+     * and attaches it to the row under the same name
+     */
+    private void attach(ProjectionPlan plan, List<Map<String, Object>> rows, String name, String jpql) {
+        Map<Object, List<Object>> byId = new HashMap<>();
+        for (int start = 0; start < rows.size(); start += INCLUDE_BATCH_SIZE) {
+            List<Object> ids = new ArrayList<>();
+            for (Map<String, Object> row : rows.subList(start, Math.min(rows.size(), start + INCLUDE_BATCH_SIZE))) {
+                ids.add(row.get("id"));
+            }
+            for (Tuple tuple : entityManager.createQuery(jpql, Tuple.class).setParameter("ids", ids)
+                    .getResultList()) {
+                byId.computeIfAbsent(tuple.get(0), k -> new ArrayList<>()).add(tuple.get(1));
+            }
+        }
+        for (Map<String, Object> row : rows) {
+            row.put(name, byId.getOrDefault(row.get("id"), List.of()));
+        }
+    }
+
+    /**
+     * Drops the id from each row when it was only selected to attach includes
+     */
+    private static List<Map<String, Object>> strip(ProjectionPlan plan, List<Map<String, Object>> rows) {
+        if (plan.hasHiddenId()) {
+            rows.forEach(row -> row.remove("id"));
+        }
+        return rows;
+    }
+}
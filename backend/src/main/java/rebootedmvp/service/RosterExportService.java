@@ -0,0 +1,147 @@
+package rebootedmvp.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.User;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
+import rebootedmvp.config.ExportConfig;
+import rebootedmvp.export.ExportColumn;
+import rebootedmvp.export.RowWriter;
+import rebootedmvp.repository.CourseRepository;
+
+/**
+ * Exports one row per learner (course student) and course with the course's
+ * completion state, for compliance reporting. Rows are read with plain JDBC
+ * through a forward-only cursor 'fetchSize' rows at a time and written as
+ * they arrive, so nothing is loaded into the persistence context and memory
+ * use does not depend on the number of learners.
+ *
+ * Completion is tracked per content item rather than per learner, so every
+ * learner of a course reports the same counts.
+ *
+ * Published as roster.export.rows.
+ */
+@Service
+public class RosterExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RosterExportService.class);
+
+    public static final List<ExportColumn> COLUMNS = List.of(ExportColumn.integer("course_id"),
+            ExportColumn.text("course_title"), ExportColumn.integer("user_id"), ExportColumn.text("username"),
+            ExportColumn.text("full_name"), ExportColumn.text("email"), ExportColumn.text("user_type"),
+            ExportColumn.integer("content_items"), ExportColumn.integer("completed_items"),
+            ExportColumn.decimal("progress_percent"));
+
+    private static final Pattern DOMAIN = Pattern.compile("[A-Za-z0-9-]+(\\.[A-Za-z0-9-]+)+");
+
+    private static final String LEARNERS = "SELECT c.id, c.title, u.id, u.username, u.full_name, u.email,"
+            + " u.user_type, COALESCE(p.items, 0), COALESCE(p.completed, 0)"
+            + " FROM course_students s"
+            + " JOIN courses c ON c.id = s.course_id AND c.deleted_at IS NULL"
+            + " JOIN users u ON u.id = s.supabase_user_id"
+            + " LEFT JOIN (SELECT m.course_id, COUNT(*) AS items,"
+            + " SUM(CASE WHEN ct.is_complete THEN 1 ELSE 0 END) AS completed"
+            + " FROM modules m JOIN contents ct ON ct.module_id = m.id GROUP BY m.course_id) p"
+            + " ON p.course_id = c.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ExportConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Checks the arguments of exportLearners, so callers can fail before they
+     * start streaming. Throws: ResponseStatusException (404) if course
+     * 'courseId' does not exist, IllegalArgumentException if 'emailDomain' is
+     * not a domain name.
+     */
+    @Transactional(readOnly = true)
+    public void checkScope(Long courseId, String emailDomain) {
+        if (emailDomain != null && !DOMAIN.matcher(emailDomain).matches()) {
+            throw new IllegalArgumentException("Not a domain name: " + emailDomain);
+        }
+        if (courseId != null && !courseRepository.existsById(courseId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Course not found with id: " + courseId);
+        }
+    }
+
+    /**
+     * Writes the learners of course 'courseId', or of every course when it is
+     * null, to 'writer', ordered by course and user. With 'emailDomain' only
+     * users whose email address is at that domain are exported. Returns the
+     * number of rows written. Throws: UncheckedIOException if the writer
+     * fails, e.g. because the client has gone away.
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @Transactional(readOnly = true)
+    public long exportLearners(Long courseId, String emailDomain, RowWriter writer) {
+        StringBuilder sql = new StringBuilder(LEARNERS);
+        List<Object> params = new ArrayList<>();
+        if (courseId != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" s.course_id = ?");
+            params.add(courseId);
+        }
+        if (emailDomain != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" LOWER(u.email) LIKE ?");
+            params.add("%@" + emailDomain.toLowerCase(Locale.ROOT));
+        }
+        sql.append(" ORDER BY s.course_id, u.id");
+
+        long start = System.nanoTime();
+        Counter exported = Counter.builder("roster.export.rows")
+                .description("Learner rows exported").register(meterRegistry);
+        User.UserType[] userTypes = User.UserType.values();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            // A cursor on PostgreSQL, which needs the transaction's autocommit off
+            statement.setFetchSize(config.getFetchSize());
+            for (int i = 0; i < params.size(); i++) {
+                statement.setObject(i + 1, params.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            int userType = rs.getInt(7);
+            String userTypeName = rs.wasNull() || userType >= userTypes.length ? null : userTypes[userType].name();
+            long items = rs.getLong(8);
+            long completed = rs.getLong(9);
+            Double progress = items == 0 ? null : Math.round(10000.0 * completed / items) / 100.0;
+            try {
+                writer.write(new Object[] { rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                        rs.getString(5), rs.getString(6), userTypeName, items, completed, progress });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            exported.increment();
+        });
+        logger.info("Exported {} learner rows in {} ms", writer.getRows(), (System.nanoTime() - start) / 1_000_000);
+        return writer.getRows();
+    }
+}
@@ -0,0 +1,481 @@
+package rebootedmvp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import rebootedmvp.User;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
+import rebootedmvp.config.RosterImportConfig;
+import rebootedmvp.dataset.BatchTableWriter;
+import rebootedmvp.dataset.CopyTableWriter;
+import rebootedmvp.dataset.TableWriter;
+import rebootedmvp.dto.RosterImportErrorDTO;
+import rebootedmvp.dto.RosterImportResultDTO;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+import rebootedmvp.event.CourseActivityEvent;
+import rebootedmvp.imports.CsvReader;
+
+/**
+ * Provisions users and enrolls them in courses from a CSV roster, one batch
+ * of rows at a time. Each batch is validated, streamed into a temporary
+ * staging table (with COPY on PostgreSQL, batched inserts elsewhere) and
+ * merged into users, user_profile_impl, course_students and course_teachers
+ * with a few set-based statements, then committed. Only one batch is held at
+ * a time, so memory use does not depend on the size of the file.
+ *
+ * A row that fails validation or refers to a missing course is skipped and
+ * reported; it changes nothing. Users that already exist are not updated,
+ * only enrolled.
+ *
+ * 'created' and 'existing' count distinct users per batch: a user on several
+ * rows of a batch is counted once. Users created by an import share one
+ * created_at, so later batches do not count them as existing either. A user
+ * that existed before the import is counted in each batch it appears in.
+ *
+ * Published as roster.import.rows, tagged with the outcome: imported or
+ * failed, and roster.import.users, tagged with created or existing.
+ */
+@Service
+public class RosterImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RosterImportService.class);
+
+    public static final List<String> COLUMNS = List.of("username", "email", "full_name", "user_type",
+            "supabase_user_id", "course_id", "role");
+
+    private static final String STAGING = "roster_import_staging";
+    private static final List<String> STAGING_COLUMNS = List.of("line", "username", "email", "full_name",
+            "user_type", "supabase_user_id", "course_id", "role");
+    private static final String STAGING_DEFINITION = " (line BIGINT PRIMARY KEY, username VARCHAR(255) NOT NULL,"
+            + " email VARCHAR(255), full_name VARCHAR(255), user_type SMALLINT NOT NULL,"
+            + " supabase_user_id VARCHAR(255) NOT NULL, course_id BIGINT, role VARCHAR(20))";
+    private static final int MAX_LENGTH = 255;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private RosterImportConfig config;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Imports the CSV roster read from 'input'. The header names the columns,
+     * in any order: 'username' is required, the others in COLUMNS are
+     * optional. Throws: IllegalArgumentException if the header is missing or
+     * names an unknown column.
+     */
+    @WorkloadClass(Workload.BULK)
+    public RosterImportResultDTO importCsv(Reader input) throws IOException, SQLException {
+        RosterImportResultDTO result = new RosterImportResultDTO();
+        long started = System.nanoTime();
+        // Truncated to a precision every database keeps, so later batches can match the users created here
+        LocalDateTime createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        try (CsvReader csv = new CsvReader(input, config.getMaxRecordChars());
+                Connection connection = dataSource.getConnection()) {
+            int[] positions = positions(csv.next());
+            connection.setAutoCommit(false);
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            Batch batch = null;
+            try {
+                while (true) {
+                    List<String> record;
+                    try {
+                        record = csv.next();
+                    } catch (CsvReader.CsvException e) {
+                        result.setRows(result.getRows() + 1);
+                        fail(result, e.getLine(), null, e.getMessage());
+                        result.setComplete(false);
+                        record = null;
+                    }
+                    if (record == null) {
+                        break;
+                    }
+                    result.setRows(result.getRows() + 1);
+                    Object[] row = validate(csv.getRecordLine(), record, positions, result);
+                    if (row == null) {
+                        continue;
+                    }
+                    if (batch == null) {
+                        batch = new Batch(connection, postgres, createdAt);
+                    }
+                    batch.writer.row(row);
+                    if (batch.writer.getRows() >= config.getBatchSize()) {
+                        batch.merge(result);
+                        batch = null;
+                    }
+                }
+                if (batch != null) {
+                    batch.merge(result);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (batch != null) {
+                    batch.abort();
+                }
+                connection.rollback();
+                throw e;
+            } finally {
+                if (!postgres) {
+                    dropStaging(connection);
+                }
+            }
+        }
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        logger.info("Imported {} roster rows in {} ms: {} users created, {} existing, {} enrollments, {} failed",
+                result.getRows(), millis, result.getCreated(), result.getExisting(), result.getEnrolled(),
+                result.getFailed());
+        return result;
+    }
+
+    /**
+     * Returns the position of each of COLUMNS in 'header', or -1 if absent
+     */
+    private static int[] positions(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty; expected a header with the columns " + COLUMNS);
+        }
+        int[] positions = new int[COLUMNS.size()];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            int column = COLUMNS.indexOf(name);
+            if (column < 0) {
+                throw new IllegalArgumentException("Unknown column '" + header.get(i) + "', expected " + COLUMNS);
+            }
+            if (positions[column] >= 0) {
+                throw new IllegalArgumentException("Column '" + name + "' appears twice");
+            }
+            positions[column] = i;
+        }
+        if (positions[0] < 0) {
+            throw new IllegalArgumentException("The header must include 'username'");
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the staging row for 'record', or null after recording why it is
+     * invalid
+     */
+    private Object[] validate(long line, List<String> record, int[] positions, RosterImportResultDTO result) {
+        String username = field(record, positions[0]);
+        if (record.size() != count(positions)) {
+            return fail(result, line, username, "Expected " + count(positions) + " fields, got " + record.size());
+        }
+        if (username == null) {
+            return fail(result, line, null, "'username' must be supplied");
+        }
+        String email = field(record, positions[1]);
+        String fullName = field(record, positions[2]);
+        String supabaseUserId = field(record, positions[4]);
+        for (String value : new String[] { username, email, fullName, supabaseUserId }) {
+            if (value != null && value.length() > MAX_LENGTH) {
+                return fail(result, line, username, "Fields may be at most " + MAX_LENGTH + " characters");
+            }
+        }
+        if (email != null && !email.contains("@")) {
+            return fail(result, line, username, "'email' is not an email address: " + email);
+        }
+
+        User.UserType userType = User.UserType.EmployeeUser;
+        String type = field(record, positions[3]);
+        if (type != null) {
+            try {
+                userType = User.UserType.valueOf(type);
+            } catch (IllegalArgumentException e) {
+                return fail(result, line, username, "'user_type' must be LDUser or EmployeeUser, got: " + type);
+            }
+        }
+
+        Long courseId = null;
+        String course = field(record, positions[5]);
+        if (course != null) {
+            try {
+                courseId = Long.valueOf(course);
+            } catch (NumberFormatException e) {
+                return fail(result, line, username, "'course_id' must be a number, got: " + course);
+            }
+        }
+        String role = field(record, positions[6]);
+        if (role != null && courseId == null) {
+            return fail(result, line, username, "'role' requires a 'course_id'");
+        }
+        if (courseId != null) {
+            role = role == null ? "student" : role.toLowerCase(Locale.ROOT);
+            if (!"student".equals(role) && !"teacher".equals(role)) {
+                return fail(result, line, username, "'role' must be student or teacher, got: " + role);
+            }
+        }
+        return new Object[] { line, username, email, fullName, userType.ordinal(),
+                supabaseUserId != null ? supabaseUserId : UUID.randomUUID().toString(), courseId, role };
+    }
+
+    private static String field(List<String> record, int position) {
+        if (position < 0 || position >= record.size()) {
+            return null;
+        }
+        String value = record.get(position).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int count(int[] positions) {
+        int count = 0;
+        for (int position : positions) {
+            if (position >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Object[] fail(RosterImportResultDTO result, long line, String username, String error) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < config.getMaxErrors()) {
+            result.getErrors().add(new RosterImportErrorDTO(line, username, error));
+        }
+        counter("failed").increment();
+        return null;
+    }
+
+    private void dropStaging(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + STAGING);
+            connection.commit();
+        } catch (SQLException e) {
+            logger.warn("Could not drop {}: {}", STAGING, e.getMessage());
+        }
+    }
+
+    private Counter counter(String outcome) {
+        return Counter.builder("roster.import.rows").tag("outcome", outcome)
+                .description("CSV roster rows imported").register(meterRegistry);
+    }
+
+    private Counter users(String outcome) {
+        return Counter.builder("roster.import.users").tag("outcome", outcome)
+                .description("Users created or found by CSV roster imports").register(meterRegistry);
+    }
+
+    /**
+     * One batch of valid rows, staged in its own transaction
+     */
+    private class Batch {
+
+        private final Connection connection;
+        private final boolean postgres;
+        private final LocalDateTime createdAt;
+        private final TableWriter writer;
+        private long rejected;
+
+        Batch(Connection connection, boolean postgres, LocalDateTime createdAt) throws SQLException {
+            this.connection = connection;
+            this.postgres = postgres;
+            this.createdAt = createdAt;
+            try (Statement statement = connection.createStatement()) {
+                if (postgres) {
+                    // Per transaction, so it also works through a transaction-mode pooler
+                    statement.execute("CREATE TEMP TABLE " + STAGING + STAGING_DEFINITION + " ON COMMIT DROP");
+                } else {
+                    statement.execute("CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS " + STAGING + STAGING_DEFINITION);
+                    statement.execute("DELETE FROM " + STAGING);
+                }
+            }
+            this.writer = postgres ? new CopyTableWriter(connection, STAGING, STAGING_COLUMNS)
+                    : new BatchTableWriter(connection, STAGING, STAGING_COLUMNS, config.getBatchSize());
+        }
+
+        /**
+         * Moves the staged rows into the roster tables and commits
+         */
+        void merge(RosterImportResultDTO result) throws SQLException {
+            writer.close();
+            long staged = writer.getRows();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX IF NOT EXISTS " + STAGING + "_username ON " + STAGING + " (username)");
+                statement.execute("CREATE INDEX IF NOT EXISTS " + STAGING + "_supabase ON " + STAGING + " (supabase_user_id)");
+                if (postgres) {
+                    // Temporary tables are never analyzed automatically
+                    statement.execute("ANALYZE " + STAGING);
+                }
+            }
+            rejectRows(result, "SELECT s.line, s.username, s.course_id FROM " + STAGING + " s"
+                    + " WHERE s.course_id IS NOT NULL"
+                    + " AND NOT EXISTS (SELECT 1 FROM courses c WHERE c.id = s.course_id AND c.deleted_at IS NULL)",
+                    "Course not found with id: ");
+            rejectRows(result, "SELECT s.line, s.username, s.supabase_user_id FROM " + STAGING + " s"
+                    + " WHERE EXISTS (SELECT 1 FROM users u WHERE u.supabase_user_id = s.supabase_user_id"
+                    + " AND u.username <> s.username)"
+                    + " OR EXISTS (SELECT 1 FROM " + STAGING + " o WHERE o.supabase_user_id = s.supabase_user_id"
+                    + " AND o.username <> s.username AND o.line < s.line)",
+                    "'supabase_user_id' belongs to another user: ");
+            long accepted = staged - rejected;
+
+            List<Long> createdIds = new ArrayList<>();
+            // The first row for each new username provisions the user
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO users"
+                    + " (username, user_type, full_name, email, created_at, updated_at, supabase_user_id)"
+                    + " SELECT s.username, s.user_type, s.full_name, s.email, ?, ?, s.supabase_user_id"
+                    + " FROM " + STAGING + " s"
+                    + " WHERE s.line = (SELECT MIN(o.line) FROM " + STAGING + " o WHERE o.username = s.username)"
+                    + " AND NOT EXISTS (SELECT 1 FROM users u WHERE u.username = s.username)" + onConflict(),
+                    new String[] { "id" })) {
+                statement.setObject(1, createdAt);
+                statement.setObject(2, createdAt);
+                statement.executeUpdate();
+                try (ResultSet rs = statement.getGeneratedKeys()) {
+                    while (rs.next()) {
+                        createdIds.add(rs.getLong(1));
+                    }
+                }
+            }
+            long created = createdIds.size();
+            long existing;
+            try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(DISTINCT s.username)"
+                    + " FROM " + STAGING + " s JOIN users u ON u.username = s.username"
+                    + " WHERE u.created_at IS NULL OR u.created_at <> ?")) {
+                statement.setObject(1, createdAt);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    existing = rs.getLong(1);
+                }
+            }
+            // Keyed by the new ids: an anti-join against the whole profile table
+            // costs as much as the rest of the batch
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO user_profile_impl (id) VALUES (?)")) {
+                for (Long id : createdIds) {
+                    statement.setLong(1, id);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+
+            long enrolled = enroll("course_students", "student") + enroll("course_teachers", "teacher");
+            Set<String> memberships = new LinkedHashSet<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("SELECT DISTINCT course_id, role FROM " + STAGING
+                            + " WHERE course_id IS NOT NULL")) {
+                while (rs.next()) {
+                    memberships.add(rs.getLong(1) + ":" + rs.getString(2));
+                }
+            }
+            connection.commit();
+
+            result.setCreated(result.getCreated() + created);
+            result.setExisting(result.getExisting() + existing);
+            result.setEnrolled(result.getEnrolled() + enrolled);
+            counter("imported").increment(accepted);
+            users("created").increment(created);
+            users("existing").increment(existing);
+            logger.debug("Merged roster batch of {} rows: {} users created, {} enrollments", staged, created,
+                    enrolled);
+
+            // One event per batch and course: listeners run on this thread, and the
+            // invalidation bus would drop per-row events and flush every instance
+            if (created > 0) {
+                eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.USER, null));
+            }
+            Set<Long> courses = new LinkedHashSet<>();
+            for (String membership : memberships) {
+                Long courseId = Long.valueOf(membership.substring(0, membership.indexOf(':')));
+                String role = membership.substring(membership.indexOf(':') + 1);
+                if (courses.add(courseId)) {
+                    eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.MEMBERSHIP, courseId));
+                }
+                eventPublisher.publishEvent(CourseActivityEvent.membership(courseId, "added", null, role));
+            }
+        }
+
+        /**
+         * Ends a COPY still in progress, so the transaction can be rolled back
+         */
+        void abort() {
+            try {
+                writer.close();
+            } catch (SQLException e) {
+                logger.debug("Could not close the staging writer: {}", e.getMessage());
+            }
+        }
+
+        /**
+         * Reports and removes the staged rows returned by 'query', whose
+         * third column is appended to 'error'
+         */
+        private void rejectRows(RosterImportResultDTO result, String query, String error) throws SQLException {
+            List<Long> lines = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery(query + " ORDER BY s.line")) {
+                while (rs.next()) {
+                    lines.add(rs.getLong(1));
+                    fail(result, rs.getLong(1), rs.getString(2), error + rs.getString(3));
+                }
+            }
+            if (lines.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM " + STAGING + " WHERE line = ?")) {
+                for (Long line : lines) {
+                    statement.setLong(1, line);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            rejected += lines.size();
+        }
+
+        /**
+         * Adds the staged memberships with 'role' to 'table'. PostgreSQL skips
+         * existing ones by primary key; elsewhere they are filtered out first.
+         */
+        private long enroll(String table, String role) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO " + table
+                    + " (course_id, supabase_user_id)"
+                    + " SELECT DISTINCT s.course_id, u.id FROM " + STAGING + " s"
+                    + " JOIN users u ON u.username = s.username"
+                    + " WHERE s.role = ?" + (postgres ? onConflict() : " AND NOT EXISTS (SELECT 1 FROM " + table
+                            + " m WHERE m.course_id = s.course_id AND m.supabase_user_id = u.id)"))) {
+                statement.setString(1, role);
+                return statement.executeUpdate();
+            }
+        }
+
+        /**
+         * Lets concurrent imports of the same rows both succeed on PostgreSQL
+         */
+        private String onConflict() {
+            return postgres ? " ON CONFLICT DO NOTHING" : "";
+        }
+    }
+}
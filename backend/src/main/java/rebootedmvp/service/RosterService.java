@@ -1,11 +1,13 @@
 package rebootedmvp.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +19,9 @@ import rebootedmvp.domain.impl.CourseEntityImpl;
 import rebootedmvp.dto.CourseDTO;
 import rebootedmvp.dto.NewCourseDTO;
 import rebootedmvp.dto.NewRosterDTO;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CourseActivityEvent;
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
 import rebootedmvp.repository.CourseRepository;
 
 @Service
@@ -28,6 +33,9 @@ public class RosterService {
     @Autowired
     private CourseRepository courseRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Creates a new roster (for API compatibility - returns a constant ID)
      * In the database-backed implementation, this is just a no-op since we manage
@@ -96,6 +104,7 @@ public class RosterService {
 
         CourseEntityImpl savedCourse = courseRepository.save(course);
         logger.info("Created course with ID: {}", savedCourse.getId());
+        eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.COURSE, savedCourse.getId()));
         return savedCourse.getId();
     }
 
@@ -121,17 +130,22 @@ public class RosterService {
 
         courseRepository.save(CourseMapper.toEntity(course));
         logger.info("Updated course with ID: {}", courseId);
+        eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.COURSE, courseId));
+        eventPublisher.publishEvent(CourseActivityEvent.course(courseId, "updated"));
     }
 
     /**
-     * Deletes a course (roster ID is ignored, course ID is used directly)
+     * Deletes a course (roster ID is ignored, course ID is used directly). The
+     * course is soft-deleted with one statement, which hides it and everything
+     * in it at once; CoursePurger removes the rows in the background.
      */
     public boolean delete(Long rosterId, Long courseId) {
         logger.debug("RosterService.delete({}, {}) called", rosterId, courseId);
 
-        if (courseRepository.existsById(courseId)) {
-            courseRepository.deleteById(courseId);
+        if (courseRepository.softDelete(courseId, LocalDateTime.now()) > 0) {
             logger.info("Deleted course with ID: {}", courseId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.COURSE, courseId));
+            eventPublisher.publishEvent(CourseActivityEvent.course(courseId, "deleted"));
             return true;
         }
         return false;
@@ -2,19 +2,28 @@ package rebootedmvp.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import rebootedmvp.Course;
 import rebootedmvp.User;
 import rebootedmvp.UserMapper;
+import rebootedmvp.bulkhead.Workload;
+import rebootedmvp.bulkhead.WorkloadClass;
 import rebootedmvp.domain.impl.UserProfileImpl;
 import rebootedmvp.dto.NewUserDTO;
 import rebootedmvp.dto.UserProfileDTO;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
 import rebootedmvp.repository.UserProfileRepository;
 
 @Service
@@ -25,6 +34,12 @@ public class UserProfileService {
     @Autowired
     private UserProfileRepository userProfileRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public List<UserProfileDTO> findAll() {
         logger.debug("UserProfileService.findAll() called");
         try {
@@ -39,6 +54,22 @@ public class UserProfileService {
         }
     }
 
+    /**
+     * Passes every user to 'sink' as it is read from the database. Each entity is
+     * detached once mapped, so memory use does not grow with the table.
+     */
+    @WorkloadClass(Workload.EXPORT)
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<? super UserProfileDTO> sink) {
+        logger.debug("UserProfileService.streamAll() called");
+        try (Stream<UserProfileImpl> users = userProfileRepository.streamAll()) {
+            users.forEach(user -> {
+                sink.accept(convertToDTO(user));
+                entityManager.detach(user);
+            });
+        }
+    }
+
     public UserProfileDTO findById(String id) {
         logger.info("===== UserProfileService.findById('{}') START =====", id);
 
@@ -166,6 +197,7 @@ public class UserProfileService {
      */
     public UserProfileDTO save(User userProfile) {
         User saved = userProfileRepository.save(UserMapper.toEntity(userProfile));
+        eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.USER, saved.getId()));
         return convertToDTO(saved);
     }
 
@@ -175,6 +207,7 @@ public class UserProfileService {
             throw new IllegalArgumentException("The user's name must be supplied in the DTO");
         }
         User savedUser = userProfileRepository.save(new UserProfileImpl(supabaseUserId, newUserDTO));
+        eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.USER, savedUser.getId()));
 
         return savedUser.getId(); // Return Supabase UUID as the ID
     }
@@ -186,11 +219,14 @@ public class UserProfileService {
         try {
             Long numericId = Long.valueOf(id);
             userProfileRepository.deleteById(numericId);
+            eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.USER, numericId));
         } catch (NumberFormatException e) {
             // If not a numeric ID, try to find by Supabase user ID and delete
             Optional<User> profile = userProfileRepository.findBySupabaseUserId(id).map(UserMapper::toDomain);
-            profile.ifPresent(
-                    userProfile -> userProfileRepository.deleteById(Long.valueOf(userProfile.getSupabaseUserId())));
+            profile.ifPresent(userProfile -> {
+                userProfileRepository.deleteById(Long.valueOf(userProfile.getSupabaseUserId()));
+                eventPublisher.publishEvent(new CatalogChangedEvent(EntityType.USER, userProfile.getId()));
+            });
         }
     }
 
@@ -1,12 +1,10 @@
 package rebootedmvp.service;
 
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +13,8 @@ import io.jsonwebtoken.Claims;
 import rebootedmvp.User;
 import rebootedmvp.UserMapper;
 import rebootedmvp.domain.impl.UserProfileImpl;
+import rebootedmvp.jfr.UserSyncEvent;
+import rebootedmvp.lock.AdvisoryLocks;
 import rebootedmvp.repository.UserProfileRepository;
 import rebootedmvp.security.JwtTokenValidator;
 
@@ -29,8 +29,11 @@ public class UserSyncService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserSyncService.class);
 
-    // Synchronization locks per Supabase user ID to prevent race conditions
-    private final ConcurrentHashMap<String, Object> userSyncLocks = new ConcurrentHashMap<>();
+    // Advisory lock scope for creating a user's profile
+    private static final String PROVISIONING_LOCK = "user-provisioning";
+
+    // Long enough for another instance to commit the profile it is creating
+    private static final long PROVISIONING_WAIT_MILLIS = 2000;
 
     @Autowired
     private UserProfileRepository userProfileRepository;
@@ -38,17 +41,23 @@ public class UserSyncService {
     @Autowired
     private JwtTokenValidator jwtTokenValidator;
 
+    @Autowired
+    private AdvisoryLocks advisoryLocks;
+
     /**
      * Synchronizes a Supabase user with the backend user system.
      * Creates a new backend user if one doesn't exist for the given Supabase user
      * ID.
-     * Uses proper synchronization to prevent race conditions during user creation.
+     * Creation is guarded by an advisory lock on the Supabase user ID, so when a
+     * user's first requests reach several instances at once, exactly one creates
+     * the profile and the others wait for it to commit and read it.
      * 
      * @param jwtToken The Supabase JWT token containing user information
      * @return The synchronized UserProfileImpl, or null if synchronization fails
      */
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public User syncSupabaseUser(String jwtToken) {
+        UserSyncEvent syncEvent = UserSyncEvent.start();
         try {
             // Validate and extract claims from the JWT token
             logger.debug("Validating JWT token and extracting claims...");
@@ -60,90 +69,46 @@ public class UserSyncService {
             }
 
             String supabaseUserId = claims.getSubject();
+            syncEvent.resolved(supabaseUserId, "failed", 1);
+
+            Optional<User> existingUser = findBySupabaseUserId(supabaseUserId);
+            if (existingUser.isPresent()) {
+                syncEvent.resolved(supabaseUserId, "existing", 1);
+                return existingUser.get();
+            }
+
+            // Held until this transaction ends, i.e. until the new profile is
+            // committed and visible to the instances waiting for the lock
+            if (!advisoryLocks.lock(PROVISIONING_LOCK, supabaseUserId, PROVISIONING_WAIT_MILLIS)) {
+                logger.error("Could not lock the profile of Supabase ID: {}", supabaseUserId);
+                return null;
+            }
 
-            // Use per-user synchronization to prevent race conditions
-            Object lockObject = userSyncLocks.computeIfAbsent(supabaseUserId, k -> new Object());
-
-            try {
-                synchronized (lockObject) {
-                    return syncUserWithRetry(claims, supabaseUserId, 3);
-                }
-            } finally {
-                // Clean up lock object to prevent memory leaks
-                // Only remove if it's the same object we just used
-                userSyncLocks.remove(supabaseUserId, lockObject);
+            // Read committed: sees a profile committed while we were waiting
+            existingUser = findBySupabaseUserId(supabaseUserId);
+            if (existingUser.isPresent()) {
+                logger.debug("User was created concurrently for Supabase ID: {}", supabaseUserId);
+                syncEvent.resolved(supabaseUserId, "existing", 2);
+                return existingUser.get();
+            }
+
+            User newUser = createUserFromSupabaseTokenSafe(claims);
+            if (newUser != null) {
+                logger.info("Successfully created user for Supabase ID: {}", supabaseUserId);
+                syncEvent.resolved(supabaseUserId, "created", 2);
             }
+            return newUser;
 
         } catch (SecurityException e) {
             logger.error("Failed to sync Supabase user: {}", e.getMessage(), e);
             return null;
+        } finally {
+            syncEvent.finish();
         }
     }
 
-    /**
-     * Synchronizes a user with retry logic to handle race conditions and transient
-     * failures
-     */
-    private User syncUserWithRetry(Claims claims, String supabaseUserId, int maxRetries) {
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                // Check if user already exists (with fresh read from database)
-                Optional<User> existingUser = userProfileRepository.findBySupabaseUserId(supabaseUserId)
-                        .map(UserMapper::toDomain);
-                if (existingUser.isPresent()) {
-                    logger.debug("User already exists for Supabase ID: {} (attempt {})", supabaseUserId, attempt);
-                    return existingUser.get();
-                }
-
-                // Try to create new user
-                User newUser = createUserFromSupabaseTokenSafe(claims);
-                if (newUser != null) {
-                    logger.info("Successfully created user for Supabase ID: {} (attempt {})", supabaseUserId, attempt);
-                    return newUser;
-                }
-
-            } catch (DataIntegrityViolationException e) {
-                // Handle race condition: another thread created the user between our check and
-                // insert
-                logger.debug("Constraint violation detected for Supabase ID: {} (attempt {}), retrying lookup",
-                        supabaseUserId, attempt);
-
-                // Try to find the user that was created by another thread
-                Optional<User> existingUser = userProfileRepository.findBySupabaseUserId(supabaseUserId)
-                        .map(UserMapper::toDomain);
-                if (existingUser.isPresent()) {
-                    logger.info("Found user created by another thread for Supabase ID: {}", supabaseUserId);
-                    return existingUser.get();
-                }
-
-                // If still not found and we have more retries, continue
-                if (attempt < maxRetries) {
-                    try {
-                        // Brief delay before retry to reduce contention
-                        Thread.sleep(50 * attempt);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        logger.warn("Thread interrupted during user sync retry for Supabase ID: {}", supabaseUserId);
-                        return null;
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Unexpected error during user sync for Supabase ID: {} (attempt {}): {}",
-                        supabaseUserId, attempt, e.getMessage(), e);
-
-                if (attempt < maxRetries) {
-                    try {
-                        Thread.sleep(100 * attempt);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        return null;
-                    }
-                }
-            }
-        }
-
-        logger.error("Failed to sync user after {} attempts for Supabase ID: {}", maxRetries, supabaseUserId);
-        return null;
+    private Optional<User> findBySupabaseUserId(String supabaseUserId) {
+        return userProfileRepository.findBySupabaseUserId(supabaseUserId).map(UserMapper::toDomain);
     }
 
     /**
@@ -166,9 +131,6 @@ public class UserSyncService {
             User savedUser = userProfileRepository.save(UserMapper.toEntity(newUser));
             logger.info("Created new user for Supabase ID: {} with username: {}", supabaseUserId, username);
             return savedUser;
-        } catch (DataIntegrityViolationException e) {
-            // Re-throw constraint violations to be handled by retry logic
-            throw e;
         } catch (Exception e) {
             logger.error("Failed to save new user for Supabase ID {}: {}", supabaseUserId, e.getMessage(), e);
             return null;
@@ -0,0 +1,92 @@
+package rebootedmvp.web;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes values as newline delimited JSON (one JSON document per line) straight
+ * to the response stream. Output is flushed every FLUSH_EVERY values, so the
+ * client sees rows as they are produced while the servlet container is not
+ * flushed on every row.
+ */
+public class NdjsonWriter implements Consumer<Object>, Closeable, Flushable {
+
+    static final int FLUSH_EVERY = 256;
+
+    private final JsonGenerator generator;
+    private int pending;
+    private long written;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        // The servlet container owns the response stream
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are terminated explicitly instead of Jackson's default space separator
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Writes 'value' as one line. Throws: UncheckedIOException if the client has
+     * gone away, which ends the producing query.
+     */
+    @Override
+    public void accept(Object value) {
+        try {
+            generator.writeObject(value);
+            generator.writeRaw('\n');
+            written++;
+            if (++pending >= FLUSH_EVERY) {
+                generator.flush();
+                pending = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sends the values written so far without waiting for the flush window, for
+     * sources that produce rows slowly
+     */
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+        pending = 0;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    /**
+     * Returns an application/x-ndjson response whose body is produced by
+     * 'source', which is called on the async request thread with a sink for each
+     * row. The source owns its own transaction, so nothing is buffered beyond
+     * the writer's flush window.
+     */
+    public static ResponseEntity<StreamingResponseBody> response(ObjectMapper objectMapper,
+            Consumer<Consumer<Object>> source) {
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                source.accept(writer);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,100 @@
+package rebootedmvp.perf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.io.Resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The checked-in limits for each endpoint, read from perf-budgets.json.
+ * Endpoints without an entry use the defaults; a limit left out of an entry
+ * falls back to the default for that limit.
+ */
+public class Budgets {
+
+    public static class Budget {
+
+        private Double p99Millis;
+        private Double sqlPerRequest;
+        private Double allocatedBytesPerRequest;
+        private Double maxErrorRate;
+
+        public Double getP99Millis() {
+            return p99Millis;
+        }
+
+        public void setP99Millis(Double p99Millis) {
+            this.p99Millis = p99Millis;
+        }
+
+        public Double getSqlPerRequest() {
+            return sqlPerRequest;
+        }
+
+        public void setSqlPerRequest(Double sqlPerRequest) {
+            this.sqlPerRequest = sqlPerRequest;
+        }
+
+        public Double getAllocatedBytesPerRequest() {
+            return allocatedBytesPerRequest;
+        }
+
+        public void setAllocatedBytesPerRequest(Double allocatedBytesPerRequest) {
+            this.allocatedBytesPerRequest = allocatedBytesPerRequest;
+        }
+
+        public Double getMaxErrorRate() {
+            return maxErrorRate;
+        }
+
+        public void setMaxErrorRate(Double maxErrorRate) {
+            this.maxErrorRate = maxErrorRate;
+        }
+
+        Budget orElse(Budget defaults) {
+            Budget merged = new Budget();
+            merged.p99Millis = p99Millis != null ? p99Millis : defaults.p99Millis;
+            merged.sqlPerRequest = sqlPerRequest != null ? sqlPerRequest : defaults.sqlPerRequest;
+            merged.allocatedBytesPerRequest = allocatedBytesPerRequest != null ? allocatedBytesPerRequest
+                    : defaults.allocatedBytesPerRequest;
+            merged.maxErrorRate = maxErrorRate != null ? maxErrorRate : defaults.maxErrorRate;
+            return merged;
+        }
+    }
+
+    private Budget defaults = new Budget();
+    private Map<String, Budget> endpoints = new LinkedHashMap<>();
+
+    public static Budgets load(Resource resource, ObjectMapper objectMapper) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return objectMapper.readValue(in, Budgets.class);
+        }
+    }
+
+    /**
+     * Returns the effective budget for 'endpoint'
+     */
+    public Budget forEndpoint(String endpoint) {
+        return endpoints.getOrDefault(endpoint, new Budget()).orElse(defaults);
+    }
+
+    public Budget getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Budget defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Budget> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(Map<String, Budget> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
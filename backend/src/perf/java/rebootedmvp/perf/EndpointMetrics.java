@@ -0,0 +1,67 @@
+package rebootedmvp.perf;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Measurements for one endpoint of the workload. Latency is recorded by the
+ * client in microseconds; statement counts and allocation are recorded by the
+ * server on the request thread.
+ */
+public class EndpointMetrics {
+
+    private static final long MAX_LATENCY_MICROS = 60_000_000L;
+
+    private final Recorder latency = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder serverRequests = new LongAdder();
+    private final LongAdder sqlStatements = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    public void recordLatency(long micros, boolean error) {
+        latency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    public void recordServer(long statements, long bytes) {
+        serverRequests.increment();
+        sqlStatements.add(statements);
+        allocatedBytes.add(bytes);
+    }
+
+    /**
+     * Discards everything recorded so far, e.g. at the end of the warmup
+     */
+    public void reset() {
+        latency.reset();
+        errors.reset();
+        serverRequests.reset();
+        sqlStatements.reset();
+        allocatedBytes.reset();
+    }
+
+    /**
+     * Returns the latency histogram recorded since the last reset or snapshot
+     */
+    public Histogram latencySnapshot() {
+        return latency.getIntervalHistogram();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public double getSqlPerRequest() {
+        long requests = serverRequests.sum();
+        return requests == 0 ? 0 : (double) sqlStatements.sum() / requests;
+    }
+
+    public double getAllocatedBytesPerRequest() {
+        long requests = serverRequests.sum();
+        return requests == 0 ? 0 : (double) allocatedBytes.sum() / requests;
+    }
+}
@@ -0,0 +1,107 @@
+package rebootedmvp.perf;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Settings for the latency regression suite. Only on the classpath when the
+ * backend is built with the perf profile.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "perf")
+public class PerfConfig {
+
+    private int clients = 32;
+    private int warmupSeconds = 15;
+    private int durationSeconds = 60;
+    private long seed = 7;
+    private String budgets = "classpath:perf-budgets.json";
+    private String report = "target/perf-report.json";
+    private long statementLatencyMillis = 0;
+    private int exportWeight = 0;
+
+    private final PerfRequestFilter filter = new PerfRequestFilter();
+
+    /**
+     * Registered ahead of every other filter so cached and rejected requests are
+     * measured as well
+     */
+    @Bean
+    public FilterRegistrationBean<PerfRequestFilter> perfRequestFilter() {
+        FilterRegistrationBean<PerfRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    public PerfRequestFilter getFilter() {
+        return filter;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public void setClients(int clients) {
+        this.clients = clients;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public void setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public String getBudgets() {
+        return budgets;
+    }
+
+    public void setBudgets(String budgets) {
+        this.budgets = budgets;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public void setReport(String report) {
+        this.report = report;
+    }
+
+    public long getStatementLatencyMillis() {
+        return statementLatencyMillis;
+    }
+
+    public void setStatementLatencyMillis(long statementLatencyMillis) {
+        this.statementLatencyMillis = statementLatencyMillis;
+    }
+
+    public int getExportWeight() {
+        return exportWeight;
+    }
+
+    public void setExportWeight(int exportWeight) {
+        this.exportWeight = exportWeight;
+    }
+}
@@ -0,0 +1,58 @@
+package rebootedmvp.perf;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.sun.management.ThreadMXBean;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records the SQL statements and heap allocated while serving each request,
+ * attributed to the endpoint named by the X-Perf-Endpoint header the load
+ * driver sends. Requests without the header are ignored.
+ */
+public class PerfRequestFilter extends OncePerRequestFilter {
+
+    public static final String ENDPOINT_HEADER = "X-Perf-Endpoint";
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<String, EndpointMetrics> metrics = new ConcurrentHashMap<>();
+
+    public PerfRequestFilter() {
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Returns the metrics for 'endpoint', creating them on first use
+     */
+    public EndpointMetrics metrics(String endpoint) {
+        return metrics.computeIfAbsent(endpoint, k -> new EndpointMetrics());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = request.getHeader(ENDPOINT_HEADER);
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long statements = SqlStatementCounter.current();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            metrics(endpoint).recordServer(SqlStatementCounter.current() - statements,
+                    THREADS.getCurrentThreadAllocatedBytes() - allocated);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package rebootedmvp.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rebootedmvp.DemoApplication;
+import rebootedmvp.dataset.DatasetGenerator;
+
+/**
+ * End-to-end latency regression suite. Boots the application in-process with
+ * the perf profile, seeds the database with the dataset generator when it is
+ * empty, then drives the Workload mix from many concurrent clients. After a
+ * warmup, each endpoint's p99 latency, SQL statements per request and bytes
+ * allocated per request are compared with perf-budgets.json. The process exits
+ * with status 1 when any budget is exceeded, so the build fails.
+ */
+public final class PerfSuite {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerfSuite.class);
+
+    private final ConfigurableApplicationContext context;
+    private final PerfConfig config;
+    private final ObjectMapper objectMapper;
+
+    private PerfSuite(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.config = context.getBean(PerfConfig.class);
+        this.objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    public static void main(String[] args) throws Exception {
+        SpringApplication application = new SpringApplication(DemoApplication.class);
+        application.setAdditionalProfiles("perf");
+        boolean passed;
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            passed = new PerfSuite(context).run();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (users == null || users == 0) {
+            context.getBean(DatasetGenerator.class).generate();
+        } else {
+            logger.info("Using the existing {} users in the database", users);
+        }
+
+        SqlStatementCounter.setLatency(Duration.ofMillis(config.getStatementLatencyMillis()));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        Workload workload = new Workload("http://localhost:" + port, jdbcTemplate, objectMapper,
+                config.getExportWeight());
+        PerfRequestFilter filter = config.getFilter();
+
+        logger.info("Warming up for {} s with {} clients", config.getWarmupSeconds(), config.getClients());
+        drive(workload, filter, config.getWarmupSeconds(), config.getSeed());
+        workload.getEndpoints().forEach(endpoint -> filter.metrics(endpoint.getName()).reset());
+
+        logger.info("Measuring for {} s with {} clients", config.getDurationSeconds(), config.getClients());
+        drive(workload, filter, config.getDurationSeconds(), config.getSeed() + 1);
+
+        Budgets budgets = Budgets.load(context.getResource(config.getBudgets()), objectMapper);
+        return report(workload, filter, budgets);
+    }
+
+    /**
+     * Runs the configured number of clients in a closed loop for 'seconds'. Each
+     * client has its own random stream, so the request sequence is repeatable.
+     */
+    private void drive(Workload workload, PerfRequestFilter filter, int seconds, long seed)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService clients = Executors.newFixedThreadPool(config.getClients());
+        for (int i = 0; i < config.getClients(); i++) {
+            SplittableRandom random = seeds.split();
+            clients.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Workload.Endpoint endpoint = workload.next(random);
+                    long started = System.nanoTime();
+                    boolean error;
+                    try {
+                        error = client.send(endpoint.build(random), BodyHandlers.discarding()).statusCode() >= 400;
+                    } catch (IOException e) {
+                        error = true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    filter.metrics(endpoint.getName())
+                            .recordLatency((System.nanoTime() - started) / 1_000, error);
+                }
+            });
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(seconds + 60L, TimeUnit.SECONDS)) {
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Logs a row per endpoint, writes the JSON report and returns whether every
+     * endpoint stayed within its budget
+     */
+    private boolean report(Workload workload, PerfRequestFilter filter, Budgets budgets) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        List<String> violations = new ArrayList<>();
+        Histogram total = null;
+        logger.info(String.format("%-56s %8s %6s %8s %8s %8s %6s %10s", "endpoint", "requests", "errors",
+                "p50 ms", "p99 ms", "max ms", "sql", "alloc KB"));
+        for (Workload.Endpoint endpoint : workload.getEndpoints()) {
+            String name = endpoint.getName();
+            EndpointMetrics metrics = filter.metrics(name);
+            Histogram latency = metrics.latencySnapshot();
+            if (total == null) {
+                total = latency.copy();
+            } else {
+                total.add(latency);
+            }
+            long requests = latency.getTotalCount();
+            double p50 = latency.getValueAtPercentile(50) / 1000.0;
+            double p99 = latency.getValueAtPercentile(99) / 1000.0;
+            double max = latency.getMaxValue() / 1000.0;
+            double errorRate = requests == 0 ? 0 : (double) metrics.getErrors() / requests;
+
+            Budgets.Budget budget = budgets.forEndpoint(name);
+            check(violations, name, "p99 ms", p99, budget.getP99Millis());
+            check(violations, name, "SQL statements per request", metrics.getSqlPerRequest(),
+                    budget.getSqlPerRequest());
+            check(violations, name, "bytes allocated per request", metrics.getAllocatedBytesPerRequest(),
+                    budget.getAllocatedBytesPerRequest());
+            check(violations, name, "error rate", errorRate, budget.getMaxErrorRate());
+
+            logger.info(String.format("%-56s %8d %6d %8.2f %8.2f %8.2f %6.1f %10.1f", name, requests,
+                    metrics.getErrors(), p50, p99, max, metrics.getSqlPerRequest(),
+                    metrics.getAllocatedBytesPerRequest() / 1024));
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", name);
+            row.put("requests", requests);
+            row.put("errors", metrics.getErrors());
+            row.put("p50Millis", p50);
+            row.put("p95Millis", latency.getValueAtPercentile(95) / 1000.0);
+            row.put("p99Millis", p99);
+            row.put("maxMillis", max);
+            row.put("sqlPerRequest", metrics.getSqlPerRequest());
+            row.put("allocatedBytesPerRequest", metrics.getAllocatedBytesPerRequest());
+            row.put("budget", budget);
+            rows.add(row);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", config.getClients());
+        report.put("durationSeconds", config.getDurationSeconds());
+        report.put("threads", Threading.VIRTUAL.isActive(context.getEnvironment()) ? "virtual" : "platform");
+        report.put("statementLatencyMillis", config.getStatementLatencyMillis());
+        report.put("total", summary(total));
+        report.put("endpoints", rows);
+        report.put("violations", violations);
+        File file = new File(config.getReport());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+        logger.info("Report written to {}", file.getAbsolutePath());
+
+        violations.forEach(violation -> logger.error("Budget exceeded: {}", violation));
+        return violations.isEmpty();
+    }
+
+    /**
+     * Returns the throughput and latency over all endpoints
+     */
+    private Map<String, Object> summary(Histogram total) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        long requests = total == null ? 0 : total.getTotalCount();
+        summary.put("requests", requests);
+        summary.put("requestsPerSecond", (double) requests / config.getDurationSeconds());
+        summary.put("p50Millis", total == null ? 0 : total.getValueAtPercentile(50) / 1000.0);
+        summary.put("p99Millis", total == null ? 0 : total.getValueAtPercentile(99) / 1000.0);
+        summary.put("maxMillis", total == null ? 0 : total.getMaxValue() / 1000.0);
+        logger.info(String.format("Total: %d requests, %.1f req/s, p99 %.2f ms", requests,
+                (double) requests / config.getDurationSeconds(), (double) summary.get("p99Millis")));
+        return summary;
+    }
+
+    private static void check(List<String> violations, String endpoint, String measure, double value,
+            Double limit) {
+        if (limit != null && value > limit) {
+            violations.add(String.format("%s %s was %.2f, budget %.2f", endpoint, measure, value, limit));
+        }
+    }
+}
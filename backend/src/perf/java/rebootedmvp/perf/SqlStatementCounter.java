@@ -0,0 +1,42 @@
+package rebootedmvp.perf;
+
+import java.time.Duration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Installed
+ * through hibernate.session_factory.statement_inspector in the perf profile and
+ * read by PerfRequestFilter around each request.
+ *
+ * Can also delay every statement by a fixed latency, standing in for the
+ * network round trip to a remote database that in-memory H2 does not have.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private static volatile long latencyMillis;
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        long delay = latencyMillis;
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+
+    public static void setLatency(Duration latency) {
+        latencyMillis = latency.toMillis();
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,122 @@
+package rebootedmvp.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs the perf suite twice in fresh JVMs, once with requests on Tomcat's
+ * platform thread pool and once on virtual threads, and compares throughput
+ * and p99 over all endpoints. Needs Java 21 (build with -Pjava21):
+ *
+ * mvn -Pperf,java21 verify -DskipTests -Dperf.main=rebootedmvp.perf.ThreadModeComparison
+ *
+ * Unless overridden in perf.args, each run uses DEFAULTS: 1000 clients, a
+ * 20 ms delay per statement standing in for the round trip to the database,
+ * and a connection pool larger than Tomcat's 200 threads, so the platform
+ * run is limited by its threads rather than by connections. Course exports
+ * join the mix with export limits raised to match, so the async executor is
+ * compared too: a thread pool on platform threads, a virtual thread per
+ * export otherwise (see BulkheadConfig.configureAsyncSupport). Each run writes
+ * its own report next to the comparison, which goes to perf.report.
+ */
+public final class ThreadModeComparison {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadModeComparison.class);
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "perf.clients", "1000",
+            "perf.statement-latency-millis", "20",
+            "spring.datasource.hikari.maximum-pool-size", "400",
+            "perf.export-weight", "2",
+            "bulkhead.export.max-concurrent", "32",
+            "bulkhead.export.max-queued", "64",
+            "bulkhead.export.pool-size", "32");
+
+    private static final String REPORT = "--perf.report=";
+
+    private ThreadModeComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            logger.error("Virtual threads need Java 21, this is Java {}; build with -Pjava21",
+                    Runtime.version().feature());
+            System.exit(1);
+        }
+        File report = new File("target/perf-report.json");
+        List<String> passed = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(REPORT)) {
+                report = new File(arg.substring(REPORT.length()));
+            } else {
+                passed.add(arg);
+            }
+        }
+        DEFAULTS.forEach((name, value) -> {
+            if (passed.stream().noneMatch(arg -> arg.startsWith("--" + name + "="))) {
+                passed.add("--" + name + "=" + value);
+            }
+        });
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        File directory = report.getAbsoluteFile().getParentFile();
+        JsonNode platform = run(objectMapper, passed, false, new File(directory, "perf-report-platform.json"));
+        JsonNode virtual = run(objectMapper, passed, true, new File(directory, "perf-report-virtual.json"));
+
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        comparison.put("clients", platform.path("clients").asInt());
+        comparison.put("statementLatencyMillis", platform.path("statementLatencyMillis").asLong());
+        comparison.put("platform", platform.path("total"));
+        comparison.put("virtual", virtual.path("total"));
+        comparison.put("throughputRatio", ratio(virtual, platform, "requestsPerSecond"));
+        comparison.put("p99Ratio", ratio(virtual, platform, "p99Millis"));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report, comparison);
+
+        logger.info(String.format("%-10s %10s %10s %10s", "threads", "req/s", "p50 ms", "p99 ms"));
+        for (JsonNode run : List.of(platform, virtual)) {
+            JsonNode total = run.path("total");
+            logger.info(String.format("%-10s %10.1f %10.2f %10.2f", run.path("threads").asText(),
+                    total.path("requestsPerSecond").asDouble(), total.path("p50Millis").asDouble(),
+                    total.path("p99Millis").asDouble()));
+        }
+        logger.info("Comparison written to {}", report.getAbsolutePath());
+        System.exit(0);
+    }
+
+    /**
+     * Runs PerfSuite in a child JVM on the same classpath and returns its report.
+     * Budget violations do not fail the comparison.
+     */
+    private static JsonNode run(ObjectMapper objectMapper, List<String> args, boolean virtualThreads, File report)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PerfSuite.class.getName());
+        command.addAll(args);
+        command.add("--spring.threads.virtual.enabled=" + virtualThreads);
+        command.add(REPORT + report.getPath());
+        logger.info("Running the perf suite on {} threads", virtualThreads ? "virtual" : "platform");
+        int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (!report.isFile()) {
+            throw new IllegalStateException("Perf suite exited with " + exit + " without writing " + report);
+        }
+        return objectMapper.readTree(report);
+    }
+
+    private static double ratio(JsonNode virtual, JsonNode platform, String field) {
+        double base = platform.path("total").path(field).asDouble();
+        return base == 0 ? 0 : virtual.path("total").path(field).asDouble() / base;
+    }
+}
@@ -0,0 +1,204 @@
+package rebootedmvp.perf;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The read/write mix driven against the application. Each endpoint has a
+ * weight and builds its request from ids that exist in the seeded database, so
+ * reads hit real rows and writes touch the same hot catalog the reads do.
+ */
+public class Workload {
+
+    /**
+     * One endpoint of the mix. 'name' is the controller mapping and is the key
+     * used in the budgets file.
+     */
+    public static class Endpoint {
+
+        private final String name;
+        private final int weight;
+        private final Function<SplittableRandom, HttpRequest.Builder> request;
+
+        Endpoint(String name, int weight, Function<SplittableRandom, HttpRequest.Builder> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public HttpRequest build(SplittableRandom random) {
+            return request.apply(random).header(PerfRequestFilter.ENDPOINT_HEADER, name)
+                    .header("Accept", "application/json").build();
+        }
+    }
+
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final long[] courseIds;
+    private final long[][] modules;
+    private final long[][] contents;
+    private final long[] userIds;
+    private final String[] usernames;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    /**
+     * 'exportWeight' is the weight of course exports, which stream on the
+     * async executor; 0 leaves them out of the mix
+     */
+    public Workload(String baseUrl, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, int exportWeight) {
+        this.baseUrl = baseUrl;
+        this.objectMapper = objectMapper;
+        this.courseIds = jdbcTemplate.queryForList("SELECT id FROM courses ORDER BY id", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+        this.modules = pairs(jdbcTemplate, "SELECT id, course_id FROM modules ORDER BY id");
+        this.contents = pairs(jdbcTemplate, "SELECT id, module_id FROM contents ORDER BY id");
+        List<Map<String, Object>> users = jdbcTemplate
+                .queryForList("SELECT id, username FROM users ORDER BY id");
+        this.userIds = new long[users.size()];
+        this.usernames = new String[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            userIds[i] = ((Number) users.get(i).get("id")).longValue();
+            usernames[i] = (String) users.get(i).get("username");
+        }
+        if (courseIds.length == 0 || modules.length == 0 || contents.length == 0 || userIds.length == 0) {
+            throw new IllegalStateException("The perf database must contain courses, modules, content and users");
+        }
+        define(exportWeight);
+        this.cumulativeWeights = new int[endpoints.size()];
+        int total = 0;
+        for (int i = 0; i < endpoints.size(); i++) {
+            total += endpoints.get(i).getWeight();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    private void define(int exportWeight) {
+        // RosterController
+        add("GET /api/roster", 4, r -> get("/api/roster"));
+        add("GET /api/roster/{courseId}", 8, r -> get("/api/roster/" + course(r)));
+        add("POST /api/roster/add", 1,
+                r -> post("/api/roster/add", Map.of("title", "Perf course", "body", "Added during the perf run.")));
+        add("PUT /api/roster/update/{id}", 1, r -> put("/api/roster/update/" + course(r),
+                Map.of("title", "Updated course " + r.nextInt(1000), "body", "Updated during the perf run.")));
+
+        // CourseController
+        add("GET /api/courses/{courseId}", 10, r -> get("/api/courses/" + course(r)));
+        add("GET /api/courses/{courseId}/module/{moduleId}", 8, r -> {
+            long[] module = modules[r.nextInt(modules.length)];
+            return get("/api/courses/" + module[1] + "/module/" + module[0]);
+        });
+        add("POST /api/courses/{courseId}/add", 1, r -> {
+            long courseId = course(r);
+            return post("/api/courses/" + courseId + "/add",
+                    Map.of("title", "Perf module", "body", "Added during the perf run.", "courseId", courseId));
+        });
+
+        // ModuleController
+        add("GET /api/modules/{moduleId}/content/{contentId}", 8, r -> {
+            long[] content = contents[r.nextInt(contents.length)];
+            return get("/api/modules/" + content[1] + "/content/" + content[0]);
+        });
+
+        // ContentController
+        add("GET /api/content/{id}", 15, r -> get("/api/content/" + content(r)));
+        add("GET /api/content/module/{moduleId}", 10,
+                r -> get("/api/content/module/" + modules[r.nextInt(modules.length)][0]));
+        add("POST /api/content/{id}/complete", 5, r -> post("/api/content/" + content(r) + "/complete", null));
+        add("PUT /api/content/{id}", 2, r -> put("/api/content/" + content(r),
+                Map.of("title", "Updated content " + r.nextInt(1000), "body", "Updated during the perf run.")));
+
+        // CourseMembershipController
+        add("GET /api/course-memberships/course/{courseId}/users", 5,
+                r -> get("/api/course-memberships/course/" + course(r) + "/users"));
+        add("POST /api/course-memberships/course/{courseId}/students", 1,
+                r -> post("/api/course-memberships/course/" + course(r) + "/students",
+                        Map.of("usernames", List.of(usernames[r.nextInt(usernames.length)]))));
+
+        // UserProfileController
+        add("GET /api/users/{id}", 5, r -> get("/api/users/" + userIds[r.nextInt(userIds.length)]));
+        add("GET /api/users/username/{username}", 4,
+                r -> get("/api/users/username/" + usernames[r.nextInt(usernames.length)]));
+
+        // ExportController
+        if (exportWeight > 0) {
+            add("GET /api/export/courses/{courseId}/learners", exportWeight,
+                    r -> get("/api/export/courses/" + course(r) + "/learners?format=csv"));
+        }
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Picks the next endpoint according to the weights
+     */
+    public Endpoint next(SplittableRandom random) {
+        int target = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (target < cumulativeWeights[i]) {
+                return endpoints.get(i);
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void add(String name, int weight, Function<SplittableRandom, HttpRequest.Builder> request) {
+        endpoints.add(new Endpoint(name, weight, request));
+    }
+
+    private long course(SplittableRandom random) {
+        return courseIds[random.nextInt(courseIds.length)];
+    }
+
+    private long content(SplittableRandom random) {
+        return contents[random.nextInt(contents.length)][0];
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Content-Type", "application/json")
+                .POST(body == null ? BodyPublishers.noBody() : BodyPublishers.ofByteArray(json(body)));
+    }
+
+    private HttpRequest.Builder put(String path, Object body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Content-Type", "application/json")
+                .PUT(BodyPublishers.ofByteArray(json(body)));
+    }
+
+    private byte[] json(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long[][] pairs(JdbcTemplate jdbcTemplate, String sql) {
+        return jdbcTemplate.query(sql, (rs, row) -> new long[] { rs.getLong(1), rs.getLong(2) })
+                .toArray(new long[0][]);
+    }
+}
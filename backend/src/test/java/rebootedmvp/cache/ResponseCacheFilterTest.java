@@ -0,0 +1,48 @@
+package rebootedmvp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import rebootedmvp.config.ResponseCacheConfig;
+import rebootedmvp.event.CatalogChangedEvent;
+import rebootedmvp.event.CatalogScope;
+
+class ResponseCacheFilterTest {
+
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(null, new ResponseCacheConfig().getPaths(),
+            1024);
+
+    @Test
+    void scopesEntriesByTheirPathVariables() {
+        assertThat(scope("/api/roster")).isEqualTo(CatalogScope.GLOBAL);
+        assertThat(scope("/api/roster/3")).isEqualTo(new CatalogScope(3L, null, null));
+        assertThat(scope("/api/courses/3/module/4")).isEqualTo(new CatalogScope(3L, 4L, null));
+        assertThat(scope("/api/modules/4/content/5")).isEqualTo(new CatalogScope(null, 4L, 5L));
+        assertThat(scope("/api/content/5")).isEqualTo(new CatalogScope(null, null, 5L));
+        assertThat(scope("/api/content/module/4")).isEqualTo(new CatalogScope(null, 4L, null));
+    }
+
+    @Test
+    void scopesModuleContentListGlobally() {
+        // Lists every content item, so a write to another module must evict it
+        assertThat(scope("/api/modules/1")).isEqualTo(CatalogScope.GLOBAL);
+        assertThat(CatalogChangedEvent.content(null, 2L, 9L).affects(scope("/api/modules/1"))).isTrue();
+    }
+
+    @Test
+    void ignoresIdsThatAreNotNumbers() {
+        assertThat(scope("/api/roster/abc")).isEqualTo(CatalogScope.GLOBAL);
+    }
+
+    @Test
+    void doesNotCacheOtherPaths() {
+        assertThat(scope("/api/users/1")).isNull();
+        assertThat(scope("/api/roster/3/extra")).isNull();
+    }
+
+    private CatalogScope scope(String uri) {
+        return filter.scope(new MockHttpServletRequest("GET", uri));
+    }
+}
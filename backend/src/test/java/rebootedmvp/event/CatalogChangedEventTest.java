@@ -0,0 +1,85 @@
+package rebootedmvp.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import rebootedmvp.event.CatalogChangedEvent.EntityType;
+
+class CatalogChangedEventTest {
+
+    private static final CatalogScope COURSE_1 = new CatalogScope(1L, null, null);
+    private static final CatalogScope COURSE_2 = new CatalogScope(2L, null, null);
+    private static final CatalogScope MODULE_1 = new CatalogScope(null, 1L, null);
+    private static final CatalogScope MODULE_2 = new CatalogScope(null, 2L, null);
+    private static final CatalogScope COURSE_1_MODULE_1 = new CatalogScope(1L, 1L, null);
+    private static final CatalogScope CONTENT_9 = new CatalogScope(null, null, 9L);
+    private static final CatalogScope MODULE_1_CONTENT_9 = new CatalogScope(null, 1L, 9L);
+
+    @Test
+    void flushAffectsEverything() {
+        CatalogChangedEvent flush = CatalogChangedEvent.flush();
+
+        assertThat(flush.affects(CatalogScope.GLOBAL)).isTrue();
+        assertThat(flush.affects(MODULE_1_CONTENT_9)).isTrue();
+    }
+
+    @Test
+    void everyChangeButUsersAffectsGlobalResults() {
+        assertThat(new CatalogChangedEvent(EntityType.COURSE, 1L).affects(CatalogScope.GLOBAL)).isTrue();
+        assertThat(CatalogChangedEvent.module(1L, 1L).affects(CatalogScope.GLOBAL)).isTrue();
+        assertThat(CatalogChangedEvent.content(null, 2L, 9L).affects(CatalogScope.GLOBAL)).isTrue();
+        assertThat(new CatalogChangedEvent(EntityType.MEMBERSHIP, 1L).affects(CatalogScope.GLOBAL)).isTrue();
+        assertThat(new CatalogChangedEvent(EntityType.USER, 1L).affects(CatalogScope.GLOBAL)).isFalse();
+    }
+
+    @Test
+    void contentChangeAffectsOnlyItsModuleAndItem() {
+        CatalogChangedEvent change = CatalogChangedEvent.content(1L, 1L, 9L);
+
+        assertThat(change.affects(COURSE_1)).isTrue();
+        assertThat(change.affects(MODULE_1)).isTrue();
+        assertThat(change.affects(COURSE_1_MODULE_1)).isTrue();
+        assertThat(change.affects(CONTENT_9)).isTrue();
+        assertThat(change.affects(MODULE_1_CONTENT_9)).isTrue();
+        assertThat(change.affects(COURSE_2)).isFalse();
+        assertThat(change.affects(MODULE_2)).isFalse();
+        assertThat(change.affects(new CatalogScope(null, null, 10L))).isFalse();
+    }
+
+    @Test
+    void contentChangeWithUnknownCourseAffectsEveryCourse() {
+        CatalogChangedEvent change = CatalogChangedEvent.content(null, 1L, 9L);
+
+        assertThat(change.affects(COURSE_2)).isTrue();
+        assertThat(change.affects(new CatalogScope(2L, 2L, null))).isFalse();
+    }
+
+    @Test
+    void moduleChangeReachesContentThatDoesNotNameIt() {
+        CatalogChangedEvent change = CatalogChangedEvent.module(1L, 1L);
+
+        assertThat(change.affects(CONTENT_9)).isTrue();
+        assertThat(change.affects(MODULE_1_CONTENT_9)).isTrue();
+        assertThat(change.affects(new CatalogScope(null, 2L, 9L))).isFalse();
+        assertThat(change.affects(COURSE_2)).isFalse();
+    }
+
+    @Test
+    void membershipChangeAffectsOnlyCourseSummaries() {
+        CatalogChangedEvent change = new CatalogChangedEvent(EntityType.MEMBERSHIP, 1L);
+
+        assertThat(change.affects(COURSE_1)).isTrue();
+        assertThat(change.affects(COURSE_2)).isFalse();
+        assertThat(change.affects(COURSE_1_MODULE_1)).isFalse();
+        assertThat(change.affects(CONTENT_9)).isFalse();
+    }
+
+    @Test
+    void userChangeAffectsNothing() {
+        CatalogChangedEvent change = new CatalogChangedEvent(EntityType.USER, null);
+
+        assertThat(change.affects(COURSE_1)).isFalse();
+        assertThat(change.affects(MODULE_1_CONTENT_9)).isFalse();
+    }
+}
@@ -0,0 +1,152 @@
+package rebootedmvp.imports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import rebootedmvp.imports.CsvReader.CsvException;
+
+class CsvReaderTest {
+
+    private static final int MAX_RECORD_CHARS = 8192;
+
+    @Test
+    void readsPlainRecords() throws IOException {
+        assertThat(readAll("a,b,c\n1,2,3\n")).containsExactly(
+                List.of("a", "b", "c"),
+                List.of("1", "2", "3"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertThat(readAll(",x,\n")).containsExactly(List.of("", "x", ""));
+    }
+
+    @Test
+    void readsCommasInsideQuotes() throws IOException {
+        assertThat(readAll("jdoe,\"Doe, Jane\",EmployeeUser\n")).containsExactly(
+                List.of("jdoe", "Doe, Jane", "EmployeeUser"));
+    }
+
+    @Test
+    void readsLineBreaksInsideQuotes() throws IOException {
+        try (CsvReader csv = reader("a,\"line 1\nline 2\r\nline 3\"\nb,c\n")) {
+            assertThat(csv.next()).containsExactly("a", "line 1\nline 2\r\nline 3");
+            assertThat(csv.getRecordLine()).isEqualTo(1L);
+            assertThat(csv.next()).containsExactly("b", "c");
+            assertThat(csv.getRecordLine()).isEqualTo(4L);
+            assertThat(csv.next()).isNull();
+        }
+    }
+
+    @Test
+    void unescapesDoubledQuotes() throws IOException {
+        assertThat(readAll("\"say \"\"hi\"\"\",\"\"\"\"\n")).containsExactly(List.of("say \"hi\"", "\""));
+    }
+
+    @Test
+    void acceptsCrLfAndSkipsBlankLines() throws IOException {
+        try (CsvReader csv = reader("a,b\r\n\r\n\nc,d\re,f")) {
+            assertThat(csv.next()).containsExactly("a", "b");
+            assertThat(csv.next()).containsExactly("c", "d");
+            assertThat(csv.getRecordLine()).isEqualTo(4L);
+            assertThat(csv.next()).containsExactly("e", "f");
+            assertThat(csv.getRecordLine()).isEqualTo(5L);
+            assertThat(csv.next()).isNull();
+        }
+    }
+
+    @Test
+    void skipsByteOrderMark() throws IOException {
+        assertThat(readAll("\uFEFFusername,email\n")).containsExactly(List.of("username", "email"));
+        assertThat(readAll("\uFEFF\"username\",email\n")).containsExactly(List.of("username", "email"));
+    }
+
+    @Test
+    void keepsByteOrderMarkAfterTheStart() throws IOException {
+        assertThat(readAll("a\n\uFEFFb\n")).containsExactly(List.of("a"), List.of("\uFEFFb"));
+    }
+
+    @Test
+    void acceptsRecordOfMaximumLength() throws IOException {
+        try (CsvReader csv = new CsvReader(new StringReader("abc,de\nx\n"), 6)) {
+            assertThat(csv.next()).containsExactly("abc", "de");
+            assertThat(csv.next()).containsExactly("x");
+        }
+    }
+
+    @Test
+    void rejectsRecordLongerThanMaximum() throws IOException {
+        try (CsvReader csv = new CsvReader(new StringReader("ok\nabc,def\n"), 6)) {
+            assertThat(csv.next()).containsExactly("ok");
+            assertThatThrownBy(csv::next)
+                    .isInstanceOf(CsvException.class)
+                    .hasMessage("Line 2: Record is longer than 6 characters")
+                    .extracting(e -> ((CsvException) e).getLine()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    void rejectsUnclosedQuoteBeforeItBuffersTheInput() throws IOException {
+        String unclosed = "a,\"" + "x\n".repeat(100);
+        try (CsvReader csv = new CsvReader(new StringReader(unclosed), 50)) {
+            assertThatThrownBy(csv::next)
+                    .isInstanceOf(CsvException.class)
+                    .hasMessageContaining("Record is longer than 50 characters");
+        }
+    }
+
+    @Test
+    void rejectsQuoteTruncatedAtEndOfInput() throws IOException {
+        try (CsvReader csv = reader("a,b\nc,\"unterminated")) {
+            assertThat(csv.next()).containsExactly("a", "b");
+            assertThatThrownBy(csv::next)
+                    .isInstanceOf(CsvException.class)
+                    .hasMessage("Line 2: Quoted field is not closed");
+        }
+    }
+
+    @Test
+    void rejectsTextAfterClosingQuote() throws IOException {
+        try (CsvReader csv = reader("\"a\"b,c\n")) {
+            assertThatThrownBy(csv::next)
+                    .isInstanceOf(CsvException.class)
+                    .hasMessage("Line 1: Unexpected character after a quoted field");
+        }
+    }
+
+    @Test
+    void readsRecordsAcrossBufferBoundaries() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            input.append("user").append(i).append(",\"Name, ").append(i).append("\"\n");
+        }
+        try (CsvReader csv = new CsvReader(new StringReader(input.toString()), MAX_RECORD_CHARS)) {
+            for (int i = 0; i < 20_000; i++) {
+                assertThat(csv.next()).containsExactly("user" + i, "Name, " + i);
+            }
+            assertThat(csv.next()).isNull();
+        }
+    }
+
+    private static CsvReader reader(String input) {
+        return new CsvReader(new StringReader(input), MAX_RECORD_CHARS);
+    }
+
+    private static List<List<String>> readAll(String input) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader csv = reader(input)) {
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
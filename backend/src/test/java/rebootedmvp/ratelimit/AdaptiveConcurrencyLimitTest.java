@@ -0,0 +1,141 @@
+package rebootedmvp.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long THRESHOLD_MILLIS = 250;
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(THRESHOLD_MILLIS);
+    private static final long FAST = THRESHOLD / 10;
+    private static final long SLOW = THRESHOLD + 1;
+    private static final long START = TimeUnit.SECONDS.toNanos(1_000);
+
+    private final AtomicBoolean overloaded = new AtomicBoolean();
+
+    private AdaptiveConcurrencyLimit limit(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimit(initial, min, max, THRESHOLD_MILLIS, 0.5, overloaded::get, START);
+    }
+
+    @Test
+    void rejectsOnceLimitIsInFlight() {
+        AdaptiveConcurrencyLimit limit = limit(3, 1, 10);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(3);
+
+        limit.release(FAST, START);
+        assertThat(limit.getInFlight()).isEqualTo(2);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsByOnePerLimitOfFastRequestsWhenBusy() {
+        AdaptiveConcurrencyLimit limit = limit(4, 1, 10);
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+
+        limit.release(FAST, START);
+        assertThat(limit.getLimit()).isCloseTo(4.25, within(1e-9));
+
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, START);
+        }
+        assertThat(limit.getLimit()).isGreaterThan(4.9).isLessThan(5);
+    }
+
+    @Test
+    void doesNotGrowWhenMostlyIdle() {
+        AdaptiveConcurrencyLimit limit = limit(10, 1, 20);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, START);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void growthStopsAtMaximum() {
+        AdaptiveConcurrencyLimit limit = limit(2, 1, 3);
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.tryAcquire();
+            limit.release(FAST, START);
+            limit.release(FAST, START);
+        }
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void backsOffOnSlowRequestAtMostOncePerThreshold() {
+        AdaptiveConcurrencyLimit limit = limit(16, 1, 20);
+
+        limit.tryAcquire();
+        limit.release(SLOW, START);
+        assertThat(limit.getLimit()).isEqualTo(8);
+
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, START + THRESHOLD - 1);
+        }
+        assertThat(limit.getLimit()).isEqualTo(8);
+
+        limit.tryAcquire();
+        limit.release(SLOW, START + THRESHOLD);
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void backsOffWhenOverloadedEvenIfFast() {
+        AdaptiveConcurrencyLimit limit = limit(16, 1, 20);
+        overloaded.set(true);
+
+        limit.tryAcquire();
+        limit.release(FAST, START);
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void backoffStopsAtMinimum() {
+        AdaptiveConcurrencyLimit limit = limit(16, 5, 20);
+
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, START + i * THRESHOLD);
+        }
+        assertThat(limit.getLimit()).isEqualTo(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void clampsInitialLimit() {
+        assertThat(limit(50, 1, 10).getLimit()).isEqualTo(10);
+        assertThat(limit(0, 2, 10).getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(1, 0, 10, 250, 0.5, () -> false, START))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(1, 5, 4, 250, 0.5, () -> false, START))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(1, 1, 10, 250, 1, () -> false, START))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
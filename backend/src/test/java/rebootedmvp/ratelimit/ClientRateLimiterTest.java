@@ -0,0 +1,45 @@
+package rebootedmvp.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    void limitsEachClientSeparately() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 2);
+
+        assertThat(limiter.tryAcquire("a", START)).isZero();
+        assertThat(limiter.tryAcquire("a", START)).isZero();
+        assertThat(limiter.tryAcquire("a", START)).isEqualTo(SECOND);
+        assertThat(limiter.tryAcquire("b", START)).isZero();
+    }
+
+    @Test
+    void purgesOnlyFullBuckets() {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 2);
+        limiter.tryAcquire("idle", START);
+        limiter.tryAcquire("busy", START);
+        limiter.tryAcquire("busy", START);
+        limiter.tryAcquire("busy", START + SECOND);
+
+        for (int i = 0; i < 1021; i++) {
+            limiter.tryAcquire("client" + i, START);
+        }
+        assertThat(limiter.size()).isEqualTo(1023);
+
+        // The 1024th new client purges: by now every bucket has refilled except "busy"
+        limiter.tryAcquire("last", START + 2 * SECOND);
+
+        assertThat(limiter.size()).isEqualTo(2);
+        // "busy" kept its bucket, which has one token back rather than two
+        assertThat(limiter.tryAcquire("busy", START + 2 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("busy", START + 2 * SECOND)).isEqualTo(SECOND);
+    }
+}
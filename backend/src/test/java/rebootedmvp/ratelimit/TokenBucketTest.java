@@ -0,0 +1,76 @@
+package rebootedmvp.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = 1_000 * SECOND;
+
+    @Test
+    void allowsBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(10, 5, START);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(START)).isZero();
+        }
+        assertThat(bucket.tryAcquire(START)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    void rejectionDoesNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(10, 1, START);
+
+        assertThat(bucket.tryAcquire(START)).isZero();
+        for (int i = 0; i < 100; i++) {
+            assertThat(bucket.tryAcquire(START)).isEqualTo(SECOND / 10);
+        }
+        assertThat(bucket.tryAcquire(START + SECOND / 10)).isZero();
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        TokenBucket bucket = new TokenBucket(10, 2, START);
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+
+        long almost = START + SECOND / 10 - 1;
+        assertThat(bucket.tryAcquire(almost)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(START + SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(START + SECOND / 10)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    void refillStopsAtBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, START);
+        long later = START + 60 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    void isFullOnceEveryTakenTokenIsBack() {
+        TokenBucket bucket = new TokenBucket(10, 5, START);
+        assertThat(bucket.isFull(START)).isTrue();
+
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+        assertThat(bucket.isFull(START)).isFalse();
+        assertThat(bucket.isFull(START + 2 * SECOND / 10 - 1)).isFalse();
+        assertThat(bucket.isFull(START + 2 * SECOND / 10)).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+}